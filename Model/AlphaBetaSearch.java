@@ -0,0 +1,381 @@
+/*
+Filename: AlphaBetaSearch.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class finds a good turn for the computer opponent. It runs an alpha-beta search
+ * with iterative deepening: it searches one turn ahead, then two, and so on until its
+ * time runs out, and plays the best turn of the deepest search it finished.
+ *
+ * Turns come from LegalMoveGenerator, so the search follows the same capture and king
+ * rules as the players. Jumps are always searched to the end, since a capture must be
+ * made, and a side that can't move has lost.
+ *
+ * A search object reuses its boards and turn lists between nodes, so it allocates
+ * nothing while it searches. It isn't safe to share between threads, but several
+ * searches can share one TranspositionTable, which is how ParallelSearch uses all cores.
+ *
+ * Positions with few enough pieces are looked up in an EndgameTablebase instead of
+ * being searched. A tablebase win scores below a win the search found itself but above
+ * any evaluation, less the number of turns it takes, so the quickest win is played.
+ */
+public class AlphaBetaSearch {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(AlphaBetaSearch.class.getName());
+    /** The score of a won position; wins found sooner score a little higher */
+    public static final int WIN = 100000;
+    /** The returned turn when the side to move has no legal turn */
+    public static final long NO_TURN = -1;
+    /** The deepest the search goes, in turns */
+    static final int MAX_PLY = 64;
+    /** The value of a man */
+    private static final int MAN = 100;
+    /** The value of a king */
+    private static final int KING = 150;
+    /** The score of a position the tablebase says is won in no turns */
+    static final int TABLEBASE_WIN = WIN - 2 * MAX_PLY - EndgameTablebase.MAX_DISTANCE;
+    /** How many nodes are searched between checks of the clock */
+    private static final int CLOCK_INTERVAL = 1023;
+    /** The bonus for a man on each square, for each color, for moving toward its king row */
+    private static final int[][] ADVANCE = new int[2][Bitboard.SQUARES];
+
+    static {
+        for(int square = 0; square < Bitboard.SQUARES; square++){
+            int row = Bitboard.row(square);
+            ADVANCE[0][square] = 7 - row;
+            ADVANCE[1][square] = row;
+        }
+    }
+
+    /** This is the table of positions already searched; null to search without one */
+    private final TranspositionTable table;
+    /** This is the tablebase of endgame positions; null to search without one */
+    private final EndgameTablebase tablebase;
+    /** This is the number of this search among the searches sharing its table; 0 for the main one */
+    private final int helper;
+    /** This condition is set by another thread to stop the search early */
+    private volatile boolean stopRequested;
+    /** These are the boards of the current line, one per ply */
+    private final Bitboard[] boards = new Bitboard[MAX_PLY + 1];
+    /** These are the turn lists of the current line, one per ply; made when first needed */
+    private final long[][] turns = new long[MAX_PLY][];
+    /** This is the number of positions searched */
+    private long nodes;
+    /** This is the System.nanoTime() at which the search has to stop */
+    private long deadline;
+    /** This condition tells whether the search ran out of time */
+    private boolean stopped;
+    /** This is the depth of the deepest search that finished */
+    private int completedDepth;
+    /** This is the score of the best turn of the deepest search that finished */
+    private int score;
+
+    /**
+     * This is the Constructor for an AlphaBetaSearch without a transposition table.
+     */
+    public AlphaBetaSearch(){
+        this(null, null, 0);
+    }
+
+    /**
+     * This is the Constructor for an AlphaBetaSearch.
+     * @param table the table of positions already searched, may be shared; null for none.
+     * @param tablebase the tablebase of endgame positions; null for none.
+     * @param helper 0 for the main search; other numbers start the search at a different
+     * depth and turn order, so searches sharing a table don't all do the same work.
+     */
+    public AlphaBetaSearch(TranspositionTable table, EndgameTablebase tablebase, int helper){
+        this.table = table;
+        this.tablebase = tablebase;
+        this.helper = helper;
+        for(int ply = 0; ply <= MAX_PLY; ply++){
+            boards[ply] = new Bitboard(0, 0, 0);
+        }
+    }
+
+    /**
+     * This method searches for the best turn for one side.
+     * @param board the position to search; it isn't changed
+     * @param color the color of the side to move
+     * @param millis how long the search may take, in milliseconds
+     * @return the best turn, packed as described in Turn; NO_TURN if the side can't move
+     */
+    public long search(Bitboard board, Player.Color color, long millis){
+        nodes = 0;
+        stopped = stopRequested;
+        completedDepth = 0;
+        score = 0;
+        deadline = System.nanoTime() + millis * 1000000L;
+        boards[0].set(board);
+
+        long[] rootTurns = turnList(0);
+        int count = LegalMoveGenerator.generateTurns(board, color, rootTurns);
+        if(count == 0){
+            score = -WIN;
+            return NO_TURN;
+        }
+        if(count == 1){
+            return rootTurns[0];
+        }
+
+        long best = rootTurns[0];
+        if(helper > 0){
+            // helpers look at the turns in a different order
+            rotate(rootTurns, count, helper % count);
+        }
+        for(int depth = 1 + (helper & 1); depth < MAX_PLY && !stopped; depth++){
+            int alpha = -WIN - 1;
+            int bestIndex = 0;
+            for(int i = 0; i < count; i++){
+                boards[1].set(boards[0]);
+                boards[1].play(rootTurns[i]);
+                int value = -negamax(other(color), depth - 1, -WIN - 1, -alpha, 1);
+                if(stopped){
+                    break;
+                }
+                if(value > alpha){
+                    alpha = value;
+                    bestIndex = i;
+                }
+            }
+            if(stopped){
+                break;
+            }
+            // search the best turn first next time, so the window is narrow from the start
+            best = rootTurns[bestIndex];
+            rootTurns[bestIndex] = rootTurns[0];
+            rootTurns[0] = best;
+            completedDepth = depth;
+            score = alpha;
+            if(Math.abs(alpha) >= WIN - MAX_PLY){
+                break;
+            }
+        }
+        LOG.fine("searched " + nodes + " nodes to depth " + completedDepth + ", score " + score);
+        return best;
+    }
+
+    /**
+     * asks the search to stop as soon as it can; it then returns the best turn it has.
+     * A stopped search can't be used again.
+     */
+    public void stop(){
+        stopRequested = true;
+    }
+
+    /**
+     * searches the position on boards[ply]
+     * @param color the color of the side to move
+     * @param depth the number of turns left to search
+     * @param alpha the score the side to move is already sure of
+     * @param beta the score the other side is already sure of
+     * @param ply the number of turns from the root
+     * @return the score for the side to move
+     */
+    private int negamax(Player.Color color, int depth, int alpha, int beta, int ply){
+        if((++nodes & CLOCK_INTERVAL) == 0 && (stopRequested || System.nanoTime() - deadline > 0)){
+            stopped = true;
+        }
+        if(stopped){
+            return 0;
+        }
+        Bitboard board = boards[ply];
+        if(tablebase != null && Integer.bitCount(board.getRed() | board.getWhite()) <= tablebase.getMaxPieces()){
+            int value = tablebase.probe(board, color);
+            if(EndgameTablebase.isWin(value)){
+                return TABLEBASE_WIN - EndgameTablebase.distance(value);
+            }
+            if(EndgameTablebase.isLoss(value)){
+                return -TABLEBASE_WIN + EndgameTablebase.distance(value);
+            }
+            if(value == EndgameTablebase.DRAW){
+                return 0;
+            }
+        }
+        long[] list = turnList(ply);
+        int count = LegalMoveGenerator.generateTurns(board, color, list);
+        if(count == 0){
+            return -WIN + ply;
+        }
+        // captures are forced, so a position with one to make is never quiet enough to stop at
+        if(ply >= MAX_PLY - 1 || (depth <= 0 && Turn.captured(list[0]) == 0)){
+            return evaluate(board, color);
+        }
+
+        long hash = color == Player.Color.WHITE ? board.getHash() ^ Zobrist.SIDE : board.getHash();
+        int tableTurn = -1;
+        if(table != null){
+            long data = table.probe(hash);
+            if(data != TranspositionTable.MISS){
+                tableTurn = TranspositionTable.turnIndex(data) < count ? TranspositionTable.turnIndex(data) : -1;
+                if(TranspositionTable.depth(data) >= depth){
+                    int value = fromTable(TranspositionTable.score(data), ply);
+                    int bound = TranspositionTable.bound(data);
+                    if(bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER && value >= beta)
+                            || (bound == TranspositionTable.UPPER && value <= alpha)){
+                        return value;
+                    }
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -WIN - 1;
+        int bestIndex = -1;
+        // the best turn from the table goes first, then the rest in order
+        for(int k = -1; k < count; k++){
+            int i = k < 0 ? tableTurn : k;
+            if(i < 0 || (k >= 0 && i == tableTurn)){
+                continue;
+            }
+            boards[ply + 1].set(board);
+            boards[ply + 1].play(list[i]);
+            int value = -negamax(other(color), depth - 1, -beta, -alpha, ply + 1);
+            if(stopped){
+                return 0;
+            }
+            if(value > best){
+                best = value;
+                bestIndex = i;
+                if(value > alpha){
+                    alpha = value;
+                    if(alpha >= beta){
+                        break;
+                    }
+                }
+            }
+        }
+        if(table != null){
+            int bound = best <= originalAlpha ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(hash, Math.max(depth, 0), toTable(best, ply), bound, bestIndex);
+        }
+        return best;
+    }
+
+    /**
+     * changes a win score to count turns from the position instead of from the root,
+     * so it can be stored in the table
+     * @param score the score
+     * @param ply the number of turns from the root
+     * @return the score to store
+     */
+    private static int toTable(int score, int ply){
+        if(score >= WIN - MAX_PLY){
+            return score + ply;
+        }
+        if(score <= -WIN + MAX_PLY){
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * changes a win score from the table back to count turns from the root
+     * @param score the stored score
+     * @param ply the number of turns from the root
+     * @return the score
+     */
+    private static int fromTable(int score, int ply){
+        if(score >= WIN - MAX_PLY){
+            return score - ply;
+        }
+        if(score <= -WIN + MAX_PLY){
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * rotates the start of a list of turns
+     * @param list the turns
+     * @param count the number of turns in the list
+     * @param by the number of places to rotate by
+     */
+    private static void rotate(long[] list, int count, int by){
+        long[] copy = Arrays.copyOf(list, count);
+        for(int i = 0; i < count; i++){
+            list[i] = copy[(i + by) % count];
+        }
+    }
+
+    /**
+     * scores a position by material and how far the men have advanced
+     * @param board the position
+     * @param color the color of the side to move
+     * @return the score for the side to move
+     */
+    static int evaluate(Bitboard board, Player.Color color){
+        int kings = board.getKings();
+        int red = board.getRed();
+        int white = board.getWhite();
+        int value = MAN * (Integer.bitCount(red & ~kings) - Integer.bitCount(white & ~kings))
+                + KING * (Integer.bitCount(red & kings) - Integer.bitCount(white & kings));
+        for(int men = red & ~kings; men != 0; men &= men - 1){
+            value += ADVANCE[0][Integer.numberOfTrailingZeros(men)];
+        }
+        for(int men = white & ~kings; men != 0; men &= men - 1){
+            value -= ADVANCE[1][Integer.numberOfTrailingZeros(men)];
+        }
+        return color == Player.Color.RED ? value : -value;
+    }
+
+    /**
+     * gets the turn list for a ply, making it the first time it's needed
+     * @param ply the number of turns from the root
+     * @return the turn list
+     */
+    private long[] turnList(int ply){
+        if(turns[ply] == null){
+            turns[ply] = new long[LegalMoveGenerator.MAX_TURNS];
+        }
+        return turns[ply];
+    }
+
+    /**
+     * gets the other color
+     * @param color a player's color
+     * @return the opponent's color
+     */
+    private static Player.Color other(Player.Color color){
+        return color == Player.Color.RED ? Player.Color.WHITE : Player.Color.RED;
+    }
+
+    /**
+     * gets the number of positions the last search looked at
+     * @return the number of nodes
+     */
+    public long getNodes(){
+        return nodes;
+    }
+
+    /**
+     * gets the depth of the deepest search that finished last time
+     * @return the depth in turns
+     */
+    public int getCompletedDepth(){
+        return completedDepth;
+    }
+
+    /**
+     * gets the score of the turn the last search chose
+     * @return the score for the side that moved
+     */
+    public int getScore(){
+        return score;
+    }
+}
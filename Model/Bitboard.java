@@ -0,0 +1,485 @@
+/*
+Filename: Bitboard.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class holds the pieces of a WebCheckers board as three 32-bit masks,
+ * one bit per playable (dark) square.
+ *
+ * Squares are numbered 0 to 31 from the red player's perspective: square 0 is the
+ * leftmost dark square of row 0 (the white player's back row) and square 31 is the
+ * rightmost dark square of row 7 (the red player's back row). Each row holds 4 squares,
+ * so a square's row is square / 4. Red men move toward row 0, white men toward row 7.
+ *
+ * The board also keeps the Zobrist hash of its pieces up to date as they are changed.
+ */
+public class Bitboard {
+    /** The number of playable squares on the board */
+    public static final int SQUARES = 32;
+    /** The squares on rows 0, 2, 4 and 6; their dark cells are 1, 3, 5 and 7 */
+    static final int EVEN_ROWS = 0x0F0F0F0F;
+    /** The squares on rows 1, 3, 5 and 7; their dark cells are 0, 2, 4 and 6 */
+    static final int ODD_ROWS = 0xF0F0F0F0;
+    /** The squares on the leftmost column (cell 0) */
+    static final int LEFT_EDGE = 0x10101010;
+    /** The squares on the rightmost column (cell 7) */
+    static final int RIGHT_EDGE = 0x08080808;
+    /** The row where red men are crowned */
+    static final int RED_KING_ROW = 0x0000000F;
+    /** The row where white men are crowned */
+    static final int WHITE_KING_ROW = 0xF0000000;
+    /** The squares the red pieces start on */
+    static final int RED_START = 0xFFF00000;
+    /** The squares the white pieces start on */
+    static final int WHITE_START = 0x00000FFF;
+
+    /** This is the mask of squares holding red pieces */
+    private int red;
+    /** This is the mask of squares holding white pieces */
+    private int white;
+    /** This is the mask of squares holding kings of either color */
+    private int kings;
+    /** This is the Zobrist hash of the pieces on the board */
+    private long hash;
+
+    /**
+     * This is the Constructor for a Bitboard; it sets the pieces up in the starting
+     * state of a checkers game.
+     */
+    public Bitboard(){
+        this(RED_START, WHITE_START, 0);
+    }
+
+    /**
+     * This is the Constructor for a Bitboard holding an arbitrary position.
+     * @param red the mask of squares holding red pieces.
+     * @param white the mask of squares holding white pieces.
+     * @param kings the mask of squares holding kings.
+     */
+    public Bitboard(int red, int white, int kings){
+        this.red = red;
+        this.white = white;
+        this.kings = kings & (red | white);
+        this.hash = Zobrist.hash(this.red, this.white, this.kings);
+    }
+
+    /**
+     * This is the Constructor for a copy of a Bitboard; it doesn't hash the pieces again.
+     * @param board the board to copy.
+     */
+    private Bitboard(Bitboard board){
+        this.red = board.red;
+        this.white = board.white;
+        this.kings = board.kings;
+        this.hash = board.hash;
+    }
+
+    /**
+     * makes an independent copy of this board
+     * @return the copy
+     */
+    public Bitboard copy(){
+        return new Bitboard(this);
+    }
+
+    /**
+     * makes this board hold the same pieces as another, without making a new object
+     * @param board the board to copy
+     */
+    void set(Bitboard board){
+        this.red = board.red;
+        this.white = board.white;
+        this.kings = board.kings;
+        this.hash = board.hash;
+    }
+
+    /**
+     * gets the square number for a row and cell on the red player's board
+     * @param row the row of the space
+     * @param cell the cell of the space
+     * @return the square number, -1 if the space is off the board or not playable
+     */
+    public static int square(int row, int cell){
+        if(row < 0 || row > 7 || cell < 0 || cell > 7 || ((row + cell) & 1) == 0){
+            return -1;
+        }
+        return (row << 2) | (cell >> 1);
+    }
+
+    /**
+     * gets the square number for a position seen from a player's perspective
+     * @param position the position on that player's board
+     * @param perspective the color of the player who's board the position is on
+     * @return the square number, -1 if the position is off the board or not playable
+     */
+    public static int square(Position position, Player.Color perspective){
+        int square = square(position.getRow(), position.getCell());
+        if(square >= 0 && perspective == Player.Color.WHITE){
+            return mirror(square);
+        }
+        return square;
+    }
+
+    /**
+     * gets the same square seen from the other side of the board
+     * @param square the square number
+     * @return the square number from the other player's perspective
+     */
+    public static int mirror(int square){
+        return 31 - square;
+    }
+
+    /**
+     * gets the row of a square on the red player's board
+     * @param square the square number
+     * @return the row
+     */
+    public static int row(int square){
+        return square >> 2;
+    }
+
+    /**
+     * gets the cell of a square on the red player's board
+     * @param square the square number
+     * @return the cell
+     */
+    public static int cell(int square){
+        return ((square & 3) << 1) | (((square >> 2) & 1) ^ 1);
+    }
+
+    /**
+     * gets the square that is jumped over by a capture between two squares
+     * @param from the square the capture starts on
+     * @param to the square the capture lands on
+     * @return the square in between, -1 if the squares are not a jump apart
+     */
+    public static int between(int from, int to){
+        int fromRow = row(from);
+        int toRow = row(to);
+        int fromCell = cell(from);
+        int toCell = cell(to);
+        if(Math.abs(fromRow - toRow) != 2 || Math.abs(fromCell - toCell) != 2){
+            return -1;
+        }
+        return square((fromRow + toRow) / 2, (fromCell + toCell) / 2);
+    }
+
+    /**
+     * gets the squares where a piece of the given color is crowned
+     * @param color the color of the piece
+     * @return the mask of the king row
+     */
+    public static int kingRow(Player.Color color){
+        return color == Player.Color.RED ? RED_KING_ROW : WHITE_KING_ROW;
+    }
+
+    //
+    // Mask arithmetic; each method moves every square in the mask one step diagonally
+    // and drops the squares that would fall off the board.
+    //
+
+    static int upLeft(int squares){
+        return ((squares & EVEN_ROWS) >>> 4) | ((squares & ODD_ROWS & ~LEFT_EDGE) >>> 5);
+    }
+
+    static int upRight(int squares){
+        return ((squares & EVEN_ROWS & ~RIGHT_EDGE) >>> 3) | ((squares & ODD_ROWS) >>> 4);
+    }
+
+    static int downLeft(int squares){
+        return ((squares & EVEN_ROWS) << 4) | ((squares & ODD_ROWS & ~LEFT_EDGE) << 3);
+    }
+
+    static int downRight(int squares){
+        return ((squares & EVEN_ROWS & ~RIGHT_EDGE) << 5) | ((squares & ODD_ROWS) << 4);
+    }
+
+    /**
+     * gets the squares the given pieces can land on by jumping an opponent's piece
+     * @param men the men being moved
+     * @param kingPieces the kings being moved
+     * @param opponents the opponent's pieces
+     * @param empty the empty squares
+     * @param color the color of the pieces being moved
+     * @return the mask of landing squares
+     */
+    static int jumps(int men, int kingPieces, int opponents, int empty, Player.Color color){
+        int forward = men | kingPieces;
+        int up = color == Player.Color.RED ? forward : kingPieces;
+        int down = color == Player.Color.RED ? kingPieces : forward;
+        return (upLeft(upLeft(up) & opponents)
+                | upRight(upRight(up) & opponents)
+                | downLeft(downLeft(down) & opponents)
+                | downRight(downRight(down) & opponents)) & empty;
+    }
+
+    //
+    // Queries
+    //
+
+    /**
+     * gets the pieces of one color
+     * @param color the color of the pieces
+     * @return the mask of squares holding that color's pieces
+     */
+    public int getPieces(Player.Color color){
+        return color == Player.Color.RED ? red : white;
+    }
+
+    /**
+     * gets the red pieces
+     * @return the mask of squares holding red pieces
+     */
+    public int getRed(){
+        return red;
+    }
+
+    /**
+     * gets the white pieces
+     * @return the mask of squares holding white pieces
+     */
+    public int getWhite(){
+        return white;
+    }
+
+    /**
+     * gets the kings of both colors
+     * @return the mask of squares holding kings
+     */
+    public int getKings(){
+        return kings;
+    }
+
+    /**
+     * gets the Zobrist hash of the pieces on the board
+     * @return the hash, not including whose turn it is
+     */
+    public long getHash(){
+        return hash;
+    }
+
+    /**
+     * gets the kind of the piece on a square for looking up its Zobrist key
+     * @param square the square number
+     * @return the kind from Zobrist, -1 if the square is empty
+     */
+    private int zobristKind(int square){
+        int bit = 1 << square;
+        if(((red | white) & bit) == 0){
+            return -1;
+        }
+        return Zobrist.kind((red & bit) != 0 ? Player.Color.RED : Player.Color.WHITE, (kings & bit) != 0);
+    }
+
+    /**
+     * gets the empty squares
+     * @return the mask of squares without a piece
+     */
+    public int getEmpty(){
+        return ~(red | white);
+    }
+
+    /**
+     * counts the pieces of one color
+     * @param color the color of the pieces
+     * @return the number of pieces
+     */
+    public int count(Player.Color color){
+        return Integer.bitCount(getPieces(color));
+    }
+
+    /**
+     * checks if a square is empty
+     * @param square the square number
+     * @return true if there is no piece on the square
+     */
+    public boolean isEmpty(int square){
+        return ((red | white) & (1 << square)) == 0;
+    }
+
+    /**
+     * checks if a square holds a king
+     * @param square the square number
+     * @return true if there is a king on the square
+     */
+    public boolean isKing(int square){
+        return (kings & (1 << square)) != 0;
+    }
+
+    /**
+     * gets the color of the piece on a square
+     * @param square the square number
+     * @return the color of the piece, null if the square is empty
+     */
+    public Player.Color getColor(int square){
+        int bit = 1 << square;
+        if((red & bit) != 0){
+            return Player.Color.RED;
+        }
+        if((white & bit) != 0){
+            return Player.Color.WHITE;
+        }
+        return null;
+    }
+
+    /**
+     * gets the piece on a square
+     * @param square the square number
+     * @return a Piece describing the piece, null if the square is empty
+     */
+    public Piece getPiece(int square){
+        Player.Color color = getColor(square);
+        if(color == null){
+            return null;
+        }
+        return new Piece(color, isKing(square) ? Piece.Type.KING : Piece.Type.SINGLE);
+    }
+
+    /**
+     * gets the squares the given pieces can land on by capturing
+     * @param pieces the squares of the pieces being moved, all of the given color
+     * @param color the color of the pieces
+     * @return the mask of landing squares
+     */
+    public int jumpTargets(int pieces, Player.Color color){
+        Player.Color other = color == Player.Color.RED ? Player.Color.WHITE : Player.Color.RED;
+        return jumps(pieces & ~kings, pieces & kings, getPieces(other), getEmpty(), color);
+    }
+
+    /**
+     * checks if a player has any capture move available
+     * @param color the color of the player
+     * @return true if one of that player's pieces can capture
+     */
+    public boolean canCapture(Player.Color color){
+        return jumpTargets(getPieces(color), color) != 0;
+    }
+
+    //
+    // Mutators
+    //
+
+    /**
+     * moves the piece on one square to another
+     * @param from the square the piece is on
+     * @param to the empty square to move it to
+     */
+    public void move(int from, int to){
+        int kind = zobristKind(from);
+        if(kind >= 0){
+            hash ^= Zobrist.key(kind, from) ^ Zobrist.key(kind, to);
+        }
+        int fromBit = 1 << from;
+        int toBit = 1 << to;
+        if((red & fromBit) != 0){
+            red = (red & ~fromBit) | toBit;
+        }
+        else{
+            white = (white & ~fromBit) | toBit;
+        }
+        if((kings & fromBit) != 0){
+            kings = (kings & ~fromBit) | toBit;
+        }
+    }
+
+    /**
+     * removes the piece on a square
+     * @param square the square number
+     */
+    public void remove(int square){
+        int kind = zobristKind(square);
+        if(kind >= 0){
+            hash ^= Zobrist.key(kind, square);
+        }
+        int bit = ~(1 << square);
+        red &= bit;
+        white &= bit;
+        kings &= bit;
+    }
+
+    /**
+     * places a piece on a square
+     * @param square the square number
+     * @param color the color of the piece
+     * @param king whether the piece is a king
+     */
+    public void put(int square, Player.Color color, boolean king){
+        remove(square);
+        int bit = 1 << square;
+        if(color == Player.Color.RED){
+            red |= bit;
+        }
+        else{
+            white |= bit;
+        }
+        if(king){
+            kings |= bit;
+        }
+        hash ^= Zobrist.key(Zobrist.kind(color, king), square);
+    }
+
+    /**
+     * makes the piece on a square a king
+     * @param square the square number
+     */
+    public void crown(int square){
+        int kind = zobristKind(square);
+        if(kind == Zobrist.RED_MAN || kind == Zobrist.WHITE_MAN){
+            hash ^= Zobrist.key(kind, square) ^ Zobrist.key(kind + 1, square);
+            kings |= 1 << square;
+        }
+    }
+
+    /**
+     * makes the king on a square a single piece again
+     * @param square the square number
+     */
+    public void uncrown(int square){
+        int kind = zobristKind(square);
+        if(kind == Zobrist.RED_KING || kind == Zobrist.WHITE_KING){
+            hash ^= Zobrist.key(kind, square) ^ Zobrist.key(kind - 1, square);
+            kings &= ~(1 << square);
+        }
+    }
+
+    /**
+     * plays a whole turn packed as described in Turn
+     * @param turn the packed turn
+     */
+    public void play(long turn){
+        move(Turn.from(turn), Turn.to(turn));
+        for(int captured = Turn.captured(turn); captured != 0; captured &= captured - 1){
+            remove(Integer.numberOfTrailingZeros(captured));
+        }
+        if((turn & Turn.PROMOTES) != 0){
+            crown(Turn.to(turn));
+        }
+    }
+
+    /**
+     * removes every piece of one color
+     * @param color the color of the pieces to remove
+     */
+    public void clear(Player.Color color){
+        if(color == Player.Color.RED){
+            hash ^= Zobrist.hash(Zobrist.RED_MAN, red & ~kings) ^ Zobrist.hash(Zobrist.RED_KING, red & kings);
+            kings &= ~red;
+            red = 0;
+        }
+        else{
+            hash ^= Zobrist.hash(Zobrist.WHITE_MAN, white & ~kings) ^ Zobrist.hash(Zobrist.WHITE_KING, white & kings);
+            kings &= ~white;
+            white = 0;
+        }
+    }
+}
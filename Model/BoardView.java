@@ -17,136 +17,78 @@ import java.util.List;
  * @author Joseph Becker
  * @author Julie Sojkowski
  *
- * This class holds the game-state data for a WebChecker game's board as a list
- * of Row objects.
+ * This class is a view of a WebChecker game's board as a list of Row objects,
+ * seen from one player's side. The pieces themselves are held by a Bitboard;
+ * the Rows and Spaces handed out by this class are created on demand and read
+ * from and write to that Bitboard.
  */
 public class BoardView implements Iterable<Row>{
-    /** This is the list of rows that make up the board */
-    private List<Row> rows;
-    /** The number of pieces the red player currently has */
-    private int redPlayerPieces;
-    /** The number of pieces the white player currently has */
-    private int whitePlayerPieces;
-    /** The starting number of pieces for each player */
-    private static final int START_NUM_PIECES = 12;
+    /** The number of rows and the number of cells in each row */
+    static final int SIZE = 8;
+    /** This is the board holding the pieces */
+    private Bitboard board;
+    /** This is the color of the Player who's pieces are on the bottom side of this view */
+    private Player.Color color;
 
     /**
-     * This is the Constructor for BoardView; it initializes the Row list in accordance with
-     * what the starting state of a checkers board is supposed to be like.
+     * This is the Constructor for BoardView; it creates a board in the starting
+     * state of a checkers game.
      * @param color the color of the Player who's pieces are on the bottom side of this board.
      */
     public BoardView(Player.Color color){
-        this.rows = new ArrayList<>(8);
-        this.redPlayerPieces = START_NUM_PIECES;
-        this.whitePlayerPieces = START_NUM_PIECES;
-        for(int i = 1; i <= 8; i++) {
-            if(i <= 3){
-                if(color == Player.Color.RED){
-                    if(i%2 == 1){
-                        this.rows.add(new Row(false, i - 1, Player.Color.WHITE));
-                    }
-                    else{
-                        this.rows.add(new Row(true, i - 1, Player.Color.WHITE));
-                    }
-                }
-                else{
-                    if(i%2 == 1){
-                        this.rows.add(new Row(false, i - 1, Player.Color.RED));
-                    }
-                    else{
-                        this.rows.add(new Row(true, i - 1, Player.Color.RED));
-                    }
-                }
-            }
-            else if(i >= 6){
-                if(color == Player.Color.RED){
-                    if(i%2 == 1){
-                        this.rows.add(new Row(false, i - 1, Player.Color.RED));
-                    }
-                    else{
-                        this.rows.add(new Row(true, i - 1, Player.Color.RED));
-                    }
-                }
-                else{
-                    if(i%2 == 1){
-                        this.rows.add(new Row(false, i - 1, Player.Color.WHITE));
-                    }
-                    else{
-                        this.rows.add(new Row(true, i - 1, Player.Color.WHITE));
-                    }
-                }
-            }
-            else{
-                if(i%2 == 1){
-                    this.rows.add(new Row(false, i - 1, null));
-                }
-                else{
-                    this.rows.add(new Row(true, i - 1, null));
-                }
-            }
-        }
+        this(new Bitboard(), color);
     }
 
     /**
-     * This method increases the number of pieces a player has when
-     * that player gains a piece.
-     * @param color the Player's color.
+     * This is the Constructor for a BoardView of an existing board.
+     * @param board the board holding the pieces.
+     * @param color the color of the Player who's pieces are on the bottom side of this view.
      */
-    public void addPiece(Player.Color color){
-        if(color == Player.Color.RED){
-            this.redPlayerPieces++;
-        }
-        else{
-            this.whitePlayerPieces++;
-        }
+    public BoardView(Bitboard board, Player.Color color){
+        this.board = board;
+        this.color = color;
     }
 
     /**
-     * This method decreases the number of pieces a player has when
-     * that player loses a piece.
-     * @param color the Player's color.
+     * gets the board this is a view of
+     * @return the Bitboard holding the pieces
      */
-    public void removePiece(Player.Color color){
-        if(color == Player.Color.RED){
-            this.redPlayerPieces--;
-        }
-        else{
-            this.whitePlayerPieces--;
-        }
+    public Bitboard getBitboard(){
+        return board;
     }
 
     /**
-     * sets the player number of pieces to a number
-     * used in unit tests
-     * @param num the number to set player pieces to
+     * gets the color of the player this board is seen by
+     * @return the color of the player who's pieces are on the bottom side
      */
-    public void setRedPlayerPieces(int num){
-        redPlayerPieces = num;
+    public Player.Color getColor(){
+        return color;
     }
 
     /**
-     * sets the player number of pieces to a number
-     * used in unit tests
-     * @param num the number to set player pieces to
+     * gets the square number of a space on this view
+     * @param row the row of the space (y coordinate)
+     * @param col the column of the space (x coordinate)
+     * @return the square number, -1 if the space is off the board or not playable
      */
-    public void setWhitePlayerPieces(int num){
-        whitePlayerPieces = num;
+    public int toSquare(int row, int col){
+        return Bitboard.square(new Position(row, col), color);
     }
 
     /**
-     * gets the number of red player pieces left
+     * gets the red player pieces left
      * @return int: the number of red player pieces
      */
     public int getRedPlayerPieces(){
-        return this.redPlayerPieces;
+        return board.count(Player.Color.RED);
     }
 
     /**
-     * gets the white player pieces
+     * gets the white player pieces left
      * @return int: the number of white player pieces
      */
     public int getWhitePlayerPieces(){
-        return this.whitePlayerPieces;
+        return board.count(Player.Color.WHITE);
     }
 
     /**
@@ -154,12 +96,7 @@ public class BoardView implements Iterable<Row>{
      * @param color the color of the player who loses.
      */
     public void endTheGame(Player.Color color){
-        if(color == Player.Color.RED){
-            this.redPlayerPieces = 0;
-        }
-        else{
-            this.whitePlayerPieces = 0;
-        }
+        board.clear(color);
     }
 
     /**
@@ -167,17 +104,21 @@ public class BoardView implements Iterable<Row>{
      * @return list of rows
      */
     public List<Row> getRows() {
+        List<Row> rows = new ArrayList<>(SIZE);
+        for(int i = 0; i < SIZE; i++){
+            rows.add(new Row(this, i));
+        }
         return rows;
     }
 
     /**
-     * gets the list of spaces
+     * gets a row of spaces
      * @param i the y coordinate of the row
-     * @return the list of rows if the index is valid, null if not
+     * @return the row if the index is valid, null if not
      */
     public Row getRow(int i){
-        if(i<8) {
-            return rows.get(i);
+        if(i >= 0 && i < SIZE) {
+            return new Row(this, i);
         }
         return null;
     }
@@ -189,8 +130,8 @@ public class BoardView implements Iterable<Row>{
      * @return the space at (row, col) null if there indexes are out of bounds
      */
     public Space getSpaceInRowList(int row, int col){
-        if(row < 8 && col <8)
-            return rows.get(row).getSpace(col);
+        if(row >= 0 && row < SIZE && col >= 0 && col < SIZE)
+            return new Space(this, row, col);
         return null;
     }
 
@@ -199,7 +140,7 @@ public class BoardView implements Iterable<Row>{
      * @return the iterator for the list
      */
     @Override
-    public synchronized Iterator<Row> iterator(){
-        return this.rows.iterator();
+    public Iterator<Row> iterator(){
+        return getRows().iterator();
     }
 }
@@ -0,0 +1,441 @@
+/*
+Filename: EndgameTablebase.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class looks up the result of endgame positions with few pieces in the files
+ * written by TablebaseGenerator, so the computer plays them perfectly without searching.
+ *
+ * There is one file per material slice: a count of red men, red kings, white men and
+ * white kings, named like "2-1-1-0.tb". It holds one byte per position with red to move;
+ * a position with white to move is looked up as the same position turned around, with
+ * the colors swapped. A byte is DRAW, a win in 1 to 127 turns, or LOSS plus the number
+ * of turns to the loss. Distances longer than 127 turns are stored as 127.
+ *
+ * Positions are numbered by ranking the squares of each kind of piece: red men first
+ * among the 28 squares a red man can be on, then white men among theirs, then red kings
+ * and white kings among the squares that are left. Numbers where the men overlap are
+ * never used.
+ *
+ * Only the names of the files are read when the tablebase is opened. Each file is
+ * memory-mapped the first time one of its positions is looked up, and lookups read the
+ * mapped file directly, so the tables never take up space on the Java heap.
+ */
+public class EndgameTablebase {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(EndgameTablebase.class.getName());
+    /** The value of a position the tablebase doesn't hold */
+    public static final int UNKNOWN = -1;
+    /** The value of a drawn position */
+    public static final int DRAW = 0;
+    /** This bit is set on the values of lost positions */
+    public static final int LOSS = 0x80;
+    /** The longest distance to a win or loss that is stored exactly */
+    public static final int MAX_DISTANCE = 127;
+    /** The extension of tablebase files */
+    static final String EXTENSION = ".tb";
+    /** The squares a red man can be on */
+    static final int RED_MAN_SQUARES = ~Bitboard.RED_KING_ROW;
+    /** The squares a white man can be on */
+    static final int WHITE_MAN_SQUARES = ~Bitboard.WHITE_KING_ROW;
+    /** The number of squares a man can be on */
+    static final int MAN_SQUARES = 28;
+    /** The binomial coefficients up to 32 choose 32 */
+    private static final long[][] CHOOSE = new long[Bitboard.SQUARES + 1][Bitboard.SQUARES + 1];
+    /** Marks a slice whose file doesn't exist */
+    private static final ByteBuffer MISSING = ByteBuffer.allocate(0);
+
+    static {
+        for(int n = 0; n <= Bitboard.SQUARES; n++){
+            CHOOSE[n][0] = 1;
+            for(int k = 1; k <= n; k++){
+                CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + (k < n ? CHOOSE[n - 1][k] : 0);
+            }
+        }
+    }
+
+    // The system property, read once
+    private static final String DIRECTORY_PROPERTY = "tablebaseDir";
+    private static final String DEFAULT_DIRECTORY = "tablebase";
+    private static String directoryName = null;
+    private static EndgameTablebase shared = null;
+
+    /** This is the directory the files are in */
+    private final File directory;
+    /** This is the most pieces of any slice in the directory; 0 if there are none */
+    private final int maxPieces;
+    /** These are the slices that have been mapped, by material */
+    private final ConcurrentHashMap<Integer, ByteBuffer> slices = new ConcurrentHashMap<>();
+
+    /**
+     * This is the Constructor for an EndgameTablebase. It only lists the directory.
+     * @param directory the directory the tablebase files are in.
+     */
+    public EndgameTablebase(File directory){
+        this.directory = directory;
+        int most = 0;
+        String[] names = directory.list();
+        if(names != null){
+            for(String name : names){
+                int material = parseName(name);
+                if(material >= 0){
+                    most = Math.max(most, pieces(material));
+                }
+            }
+        }
+        this.maxPieces = most;
+    }
+
+    /**
+     * gets the tablebase used by every search on the server, opening it the first time
+     * it is asked for. The directory is set with the 'tablebaseDir' system property.
+     * @return the shared tablebase; it holds nothing if the directory has no files
+     */
+    public static synchronized EndgameTablebase getShared(){
+        if(shared == null){
+            shared = new EndgameTablebase(new File(getDirectoryName()));
+            LOG.config("endgame tablebase in " + shared.directory + " covers up to " + shared.maxPieces + " pieces");
+        }
+        return shared;
+    }
+
+    /**
+     * gets the most pieces of a position the tablebase can hold
+     * @return the number of pieces; 0 if the tablebase is empty
+     */
+    public int getMaxPieces(){
+        return maxPieces;
+    }
+
+    /**
+     * looks up a position
+     * @param board the position
+     * @param color the color of the side to move
+     * @return the value for the side to move, UNKNOWN if the tablebase doesn't hold it
+     */
+    public int probe(Bitboard board, Player.Color color){
+        int red = board.getRed();
+        int white = board.getWhite();
+        int kings = board.getKings();
+        if(Integer.bitCount(red | white) > maxPieces){
+            return UNKNOWN;
+        }
+        if(color == Player.Color.WHITE){
+            int flipped = Integer.reverse(white);
+            white = Integer.reverse(red);
+            red = flipped;
+            kings = Integer.reverse(kings);
+        }
+        if(red == 0){
+            return LOSS;
+        }
+        if(white == 0){
+            return UNKNOWN;
+        }
+        ByteBuffer slice = slice(material(red, white, kings));
+        if(slice == MISSING){
+            return UNKNOWN;
+        }
+        return slice.get((int) index(red, white, kings)) & 0xFF;
+    }
+
+    /**
+     * gets the mapped file of a slice, mapping it the first time
+     * @param material the material of the slice
+     * @return the mapped file, MISSING if there isn't one
+     */
+    private ByteBuffer slice(int material){
+        ByteBuffer slice = slices.get(material);
+        if(slice == null){
+            slice = slices.computeIfAbsent(material, this::map);
+        }
+        return slice;
+    }
+
+    /**
+     * memory-maps the file of a slice
+     * @param material the material of the slice
+     * @return the mapped file, MISSING if it doesn't exist or is the wrong size
+     */
+    private ByteBuffer map(int material){
+        File file = new File(directory, fileName(material));
+        if(!file.isFile() || file.length() != size(material)){
+            return MISSING;
+        }
+        try(RandomAccessFile in = new RandomAccessFile(file, "r"); FileChannel channel = in.getChannel()){
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            LOG.fine("mapped tablebase slice " + file.getName());
+            return mapped;
+        }
+        catch(IOException e){
+            LOG.warning("couldn't map tablebase slice " + file + ": " + e.getMessage());
+            return MISSING;
+        }
+    }
+
+    //
+    // Values
+    //
+
+    /**
+     * checks if a value is a win for the side to move
+     * @param value the value from probe
+     * @return true if it is a win
+     */
+    public static boolean isWin(int value){
+        return value > DRAW && value < LOSS;
+    }
+
+    /**
+     * checks if a value is a loss for the side to move
+     * @param value the value from probe
+     * @return true if it is a loss
+     */
+    public static boolean isLoss(int value){
+        return value >= LOSS;
+    }
+
+    /**
+     * gets the number of turns to the end of a won or lost position
+     * @param value the value from probe
+     * @return the number of turns, both sides' counted
+     */
+    public static int distance(int value){
+        return value & MAX_DISTANCE;
+    }
+
+    //
+    // Material and indexing
+    //
+
+    /**
+     * packs the material of a position
+     * @return the material: red men, red kings, white men and white kings, 4 bits each
+     */
+    static int material(int red, int white, int kings){
+        return material(Integer.bitCount(red & ~kings), Integer.bitCount(red & kings),
+                Integer.bitCount(white & ~kings), Integer.bitCount(white & kings));
+    }
+
+    /**
+     * packs a material
+     * @return the material: red men, red kings, white men and white kings, 4 bits each
+     */
+    static int material(int redMen, int redKings, int whiteMen, int whiteKings){
+        return redMen | (redKings << 4) | (whiteMen << 8) | (whiteKings << 12);
+    }
+
+    static int redMen(int material){
+        return material & 0xF;
+    }
+
+    static int redKings(int material){
+        return (material >> 4) & 0xF;
+    }
+
+    static int whiteMen(int material){
+        return (material >> 8) & 0xF;
+    }
+
+    static int whiteKings(int material){
+        return (material >> 12) & 0xF;
+    }
+
+    static int pieces(int material){
+        return redMen(material) + redKings(material) + whiteMen(material) + whiteKings(material);
+    }
+
+    /**
+     * gets the same material with the colors swapped
+     * @param material the material
+     * @return the swapped material
+     */
+    static int flip(int material){
+        return material(whiteMen(material), whiteKings(material), redMen(material), redKings(material));
+    }
+
+    /**
+     * gets the name of the file of a slice
+     * @param material the material of the slice
+     * @return the file name
+     */
+    static String fileName(int material){
+        return redMen(material) + "-" + redKings(material) + "-" + whiteMen(material) + "-"
+                + whiteKings(material) + EXTENSION;
+    }
+
+    /**
+     * reads the material from the name of a file
+     * @param name the file name
+     * @return the material, -1 if it isn't the name of a tablebase file
+     */
+    static int parseName(String name){
+        if(!name.endsWith(EXTENSION)){
+            return -1;
+        }
+        String[] counts = name.substring(0, name.length() - EXTENSION.length()).split("-");
+        if(counts.length != 4){
+            return -1;
+        }
+        try {
+            int[] values = new int[4];
+            for(int i = 0; i < 4; i++){
+                values[i] = Integer.parseInt(counts[i]);
+                if(values[i] < 0 || values[i] > 12){
+                    return -1;
+                }
+            }
+            return material(values[0], values[1], values[2], values[3]);
+        }
+        catch(NumberFormatException e){
+            return -1;
+        }
+    }
+
+    /**
+     * gets the number of positions in a slice
+     * @param material the material of the slice
+     * @return the number of positions, including the unused ones
+     */
+    static long size(int material){
+        int men = redMen(material) + whiteMen(material);
+        return CHOOSE[MAN_SQUARES][redMen(material)]
+                * CHOOSE[MAN_SQUARES][whiteMen(material)]
+                * CHOOSE[Bitboard.SQUARES - men][redKings(material)]
+                * CHOOSE[Bitboard.SQUARES - men - redKings(material)][whiteKings(material)];
+    }
+
+    /**
+     * gets the number of a position within its slice
+     * @param red the red pieces
+     * @param white the white pieces
+     * @param kings the kings
+     * @return the index
+     */
+    static long index(int red, int white, int kings){
+        int redMen = red & ~kings;
+        int whiteMen = white & ~kings;
+        int redKings = red & kings;
+        int whiteKings = white & kings;
+        int kingSquares = ~(redMen | whiteMen);
+        int men = Integer.bitCount(redMen | whiteMen);
+        long index = rank(redMen, RED_MAN_SQUARES);
+        index = index * CHOOSE[MAN_SQUARES][Integer.bitCount(whiteMen)] + rank(whiteMen, WHITE_MAN_SQUARES);
+        index = index * CHOOSE[Bitboard.SQUARES - men][Integer.bitCount(redKings)] + rank(redKings, kingSquares);
+        index = index * CHOOSE[Bitboard.SQUARES - men - Integer.bitCount(redKings)][Integer.bitCount(whiteKings)]
+                + rank(whiteKings, kingSquares & ~redKings);
+        return index;
+    }
+
+    /**
+     * sets up the position with a number within a slice
+     * @param material the material of the slice
+     * @param index the number of the position
+     * @param board the board to put the position on
+     * @return false if the number isn't a real position
+     */
+    static boolean position(int material, long index, Bitboard board){
+        int men = redMen(material) + whiteMen(material);
+        long whiteKingCount = CHOOSE[Bitboard.SQUARES - men - redKings(material)][whiteKings(material)];
+        long redKingCount = CHOOSE[Bitboard.SQUARES - men][redKings(material)];
+        long whiteMenCount = CHOOSE[MAN_SQUARES][whiteMen(material)];
+
+        long whiteKingRank = index % whiteKingCount;
+        index /= whiteKingCount;
+        long redKingRank = index % redKingCount;
+        index /= redKingCount;
+        long whiteMenRank = index % whiteMenCount;
+        long redMenRank = index / whiteMenCount;
+
+        int redMen = unrank(redMenRank, redMen(material), RED_MAN_SQUARES);
+        int whiteMen = unrank(whiteMenRank, whiteMen(material), WHITE_MAN_SQUARES);
+        if((redMen & whiteMen) != 0){
+            return false;
+        }
+        int kingSquares = ~(redMen | whiteMen);
+        int redKings = unrank(redKingRank, redKings(material), kingSquares);
+        int whiteKings = unrank(whiteKingRank, whiteKings(material), kingSquares & ~redKings);
+        board.set(new Bitboard(redMen | redKings, whiteMen | whiteKings, redKings | whiteKings));
+        return true;
+    }
+
+    /**
+     * ranks a set of squares among the sets of the same size drawn from some squares
+     * @param squares the set
+     * @param allowed the squares the set is drawn from
+     * @return the rank
+     */
+    static long rank(int squares, int allowed){
+        long rank = 0;
+        int k = 1;
+        for(; squares != 0; squares &= squares - 1){
+            int square = Integer.numberOfTrailingZeros(squares);
+            int below = Integer.bitCount(allowed & (int) ((1L << square) - 1));
+            rank += CHOOSE[below][k++];
+        }
+        return rank;
+    }
+
+    /**
+     * finds the set of squares with a rank
+     * @param rank the rank
+     * @param count the number of squares in the set
+     * @param allowed the squares the set is drawn from
+     * @return the set
+     */
+    static int unrank(long rank, int count, int allowed){
+        int[] order = new int[Bitboard.SQUARES];
+        int size = 0;
+        for(int squares = allowed; squares != 0; squares &= squares - 1){
+            order[size++] = Integer.numberOfTrailingZeros(squares);
+        }
+        int set = 0;
+        int position = size - 1;
+        for(int k = count; k > 0; k--){
+            while(CHOOSE[position][k] > rank){
+                position--;
+            }
+            rank -= CHOOSE[position][k];
+            set |= 1 << order[position];
+            position--;
+        }
+        return set;
+    }
+
+    /**
+     * Queries which directory the shared tablebase is in.
+     *
+     * <p>
+     *   This method uses the memoization idiom so the calculation of
+     *   this value is only done once.
+     * </p>
+     *
+     * @return the 'tablebaseDir' property; "tablebase" if it isn't set
+     */
+    public static String getDirectoryName(){
+        if(directoryName == null){
+            final String name = System.getProperty(DIRECTORY_PROPERTY);
+            directoryName = name == null || name.trim().isEmpty() ? DEFAULT_DIRECTORY : name.trim();
+        }
+        return directoryName;
+    }
+}
@@ -0,0 +1,481 @@
+/*
+Filename: GameArchive.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * The archive of finished games. Given a directory, the games are kept on the disk
+ * rather than on the heap, so the server's memory doesn't grow with the number of
+ * games ever played. Without one, they are kept in memory, as they are for a server
+ * that doesn't journal its games.
+ *
+ * A game is written once, when it is archived, in the compact form of
+ * GameModel.writeSnapshot, to the end of a segment file; a new segment is started the
+ * first time a game is archived after the archive is opened, and whenever a segment
+ * is full. Each record is its length, a CRC32 of its body and the body. Where each
+ * game is is kept in an index file that is mapped into memory: the 8 bytes at a game's identifier times 8 hold its segment and
+ * its offset in it, or 0 if it isn't archived, so finding a game is one read of
+ * memory. A game is read from the disk when it is asked for, and the last few read
+ * are kept in memory.
+ */
+public class GameArchive {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(GameArchive.class.getName());
+
+    /** How large a segment may grow before a new one is started, in bytes */
+    static final long SEGMENT_BYTES = 64L * 1024 * 1024;
+    /** The number of games read from the disk that are kept in memory */
+    static final int CACHED_GAMES = 64;
+    /** The number of games the index has room for at first */
+    private static final int INDEX_GAMES = 64 * 1024;
+    /** The shift of the segment in a location; the offset is below it */
+    private static final int SEGMENT_SHIFT = 40;
+    /** The start of the name of every segment file */
+    private static final String SEGMENT_PREFIX = "games-";
+    /** The end of the name of every segment file */
+    private static final String SEGMENT_SUFFIX = ".archive";
+    /** The name of the index file */
+    private static final String INDEX_NAME = "games.index";
+
+    /** These are the games, by identifier, when they are kept in memory; null when they are on the disk */
+    private final ConcurrentHashMap<Integer, GameModel> memory;
+    /** This is the directory the segments and the index are in */
+    private final File directory;
+    /** This is the index file */
+    private final FileChannel indexFile;
+    /** This is the index, mapped into memory; it is replaced when it grows */
+    private volatile MappedByteBuffer index;
+    /** These are the segments opened for reading, by number */
+    private final ConcurrentHashMap<Long, FileChannel> readers = new ConcurrentHashMap<>();
+    /** This is the segment being written; null until the first game is */
+    private FileChannel writer;
+    /** This is the number of the segment being written */
+    private long segment;
+    /** This is the number of bytes written to the segment */
+    private long segmentBytes;
+    /** This is the highest identifier archived */
+    private volatile int maxID;
+    /** This is the number of games archived */
+    private volatile int count;
+    /** These are the games last read from the disk, least recently used first */
+    private final LinkedHashMap<Integer, GameModel> cache = new LinkedHashMap<Integer, GameModel>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, GameModel> eldest){
+            return size() > CACHED_GAMES;
+        }
+    };
+
+    /**
+     * This is the Constructor for a GameArchive kept in memory.
+     */
+    public GameArchive(){
+        this.memory = new ConcurrentHashMap<>();
+        this.directory = null;
+        this.indexFile = null;
+    }
+
+    /**
+     * This is the Constructor for a GameArchive kept on the disk.
+     * @param directory the directory the segments and the index are in; it is made if it doesn't exist.
+     * @throws IOException when the directory or the index can't be made
+     */
+    public GameArchive(File directory) throws IOException{
+        this.memory = null;
+        this.directory = directory;
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            throw new IOException("The archive directory " + directory + " couldn't be made.");
+        }
+        this.indexFile = FileChannel.open(new File(directory, INDEX_NAME).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(indexFile.size(), INDEX_GAMES * 8L);
+        this.index = indexFile.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        int games = 0;
+        int highest = 0;
+        for(int id = 1; id < size / 8; id++){
+            if(index.getLong(id * 8) != 0){
+                games++;
+                highest = id;
+            }
+        }
+        this.count = games;
+        this.maxID = highest;
+        List<Long> segments = segments(directory);
+        this.segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+    }
+
+    /**
+     * adds a finished game to the archive, once
+     * @param game the game
+     * @return true if it was added, false if it was already archived or couldn't be written
+     */
+    public boolean add(GameModel game){
+        int id = game.getGameID();
+        if(memory != null){
+            return memory.putIfAbsent(id, game) == null;
+        }
+        synchronized(this){
+            if(contains(id)){
+                return false;
+            }
+            try {
+                ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+                game.writeSnapshot(new DataOutputStream(body));
+                byte[] bytes = body.toByteArray();
+                CRC32 crc = new CRC32();
+                crc.update(bytes, 0, bytes.length);
+                ByteBuffer record = ByteBuffer.allocate(8 + bytes.length);
+                record.putInt(bytes.length).putInt((int)crc.getValue()).put(bytes).flip();
+
+                if(writer == null){
+                    writer = openSegment(segment);
+                }
+                else if(segmentBytes + record.remaining() > SEGMENT_BYTES){
+                    writer.close();
+                    segment++;
+                    writer = openSegment(segment);
+                    segmentBytes = 0;
+                }
+                long offset = segmentBytes;
+                while(record.hasRemaining()){
+                    writer.write(record);
+                }
+                writer.force(false);
+                segmentBytes += 8 + bytes.length;
+
+                // the record is on the disk before the index points at it
+                MappedByteBuffer slots = indexFor(id);
+                slots.putLong(id * 8, segment << SEGMENT_SHIFT | offset);
+                slots.force();
+                count++;
+                maxID = Math.max(maxID, id);
+            }
+            catch(IOException e){
+                LOG.severe("game " + id + " couldn't be archived: " + e.getMessage());
+                return false;
+            }
+        }
+        synchronized(cache){
+            cache.put(id, game);
+        }
+        return true;
+    }
+
+    /**
+     * checks if a game is archived
+     * @param id the game's identifier
+     * @return true if it is
+     */
+    public boolean contains(int id){
+        return memory != null ? memory.containsKey(id) : location(id) != 0;
+    }
+
+    /**
+     * gets an archived game, reading it from the disk if it isn't one of the last few read
+     * @param id the game's identifier
+     * @return the game, null if it isn't archived or can't be read
+     */
+    public GameModel get(int id){
+        if(memory != null){
+            return memory.get(id);
+        }
+        long location = location(id);
+        if(location == 0){
+            return null;
+        }
+        synchronized(cache){
+            GameModel game = cache.get(id);
+            if(game != null){
+                return game;
+            }
+        }
+        try {
+            GameModel game = read(location >>> SEGMENT_SHIFT, location & ((1L << SEGMENT_SHIFT) - 1));
+            synchronized(cache){
+                cache.put(id, game);
+            }
+            return game;
+        }
+        catch(IOException e){
+            LOG.warning("game " + id + " couldn't be read from the archive: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * gets the number of games archived
+     * @return the number of games
+     */
+    public int size(){
+        return memory != null ? memory.size() : count;
+    }
+
+    /**
+     * gets the identifiers of every archived game, in order
+     * @return the identifiers
+     */
+    public List<Integer> getIDs(){
+        List<Integer> ids;
+        if(memory != null){
+            ids = new ArrayList<>(memory.keySet());
+            Collections.sort(ids);
+            return ids;
+        }
+        int highest = maxID;
+        ids = new ArrayList<>(count);
+        for(int id = 1; id <= highest; id++){
+            if(location(id) != 0){
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * gets the newest archived games, those with the highest identifiers
+     * @param limit the most games to get
+     * @return the games, newest first
+     */
+    public List<GameModel> getRecent(int limit){
+        List<Integer> ids;
+        if(memory != null){
+            ids = new ArrayList<>(memory.keySet());
+            ids.sort(Collections.reverseOrder());
+        }
+        else{
+            ids = new ArrayList<>(limit);
+            for(int id = maxID; id > 0 && ids.size() < limit; id--){
+                if(location(id) != 0){
+                    ids.add(id);
+                }
+            }
+        }
+        List<GameModel> recent = new ArrayList<>(Math.min(limit, ids.size()));
+        for(int i = 0; i < ids.size() && recent.size() < limit; i++){
+            GameModel game = get(ids.get(i));
+            if(game != null){
+                recent.add(game);
+            }
+        }
+        return recent;
+    }
+
+    /**
+     * gets where the archive ends now, for readAll
+     * @return the segment and its length, packed like a location; 0 for an archive kept in memory
+     */
+    public synchronized long getEnd(){
+        return memory != null ? 0 : segment << SEGMENT_SHIFT | segmentBytes;
+    }
+
+    /**
+     * reads every game archived before an end, oldest first, one at a time, without
+     * keeping them
+     * @param end where to stop, from getEnd
+     * @param reader what is given the games
+     */
+    public void readAll(long end, Consumer<GameModel> reader){
+        if(memory != null){
+            return;
+        }
+        long lastSegment = end >>> SEGMENT_SHIFT;
+        long lastOffset = end & ((1L << SEGMENT_SHIFT) - 1);
+        for(long number : segments(directory)){
+            if(number > lastSegment){
+                break;
+            }
+            long offset = 0;
+            try {
+                long length = number == lastSegment ? lastOffset : reader(number).size();
+                while(offset + 8 <= length){
+                    GameModel game = read(number, offset);
+                    reader.accept(game);
+                    offset += 8 + recordLength(number, offset);
+                }
+            }
+            catch(IOException e){
+                // a record torn by a crash ends its segment
+                LOG.warning("the archive segment " + number + " stops at " + offset + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * gets where a game is
+     * @param id the game's identifier
+     * @return its segment and offset, packed; 0 if it isn't archived
+     */
+    private long location(int id){
+        MappedByteBuffer slots = index;
+        if(id <= 0 || (long)id * 8 + 8 > slots.capacity()){
+            return 0;
+        }
+        return slots.getLong(id * 8);
+    }
+
+    /**
+     * gets the index, grown if it has no room for a game; the caller holds this archive's lock
+     * @param id the game's identifier
+     * @return the index
+     * @throws IOException when it can't be grown
+     */
+    private MappedByteBuffer indexFor(int id) throws IOException{
+        MappedByteBuffer slots = index;
+        if((long)id * 8 + 8 > slots.capacity()){
+            long size = Math.max((long)slots.capacity() * 2, ((long)id + 1) * 8);
+            slots = indexFile.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            index = slots;
+        }
+        return slots;
+    }
+
+    /**
+     * reads the game at a location
+     * @param number the number of its segment
+     * @param offset where its record starts
+     * @return the game
+     * @throws IOException when it can't be read, or its record is damaged
+     */
+    private GameModel read(long number, long offset) throws IOException{
+        FileChannel channel = reader(number);
+        ByteBuffer header = ByteBuffer.allocate(8);
+        readFully(channel, header, offset);
+        int length = header.getInt(0);
+        if(length <= 0 || offset + 8 + length > channel.size()){
+            throw new EOFException("The record is cut short.");
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(channel, body, offset + 8);
+        CRC32 crc = new CRC32();
+        crc.update(body.array(), 0, length);
+        if((int)crc.getValue() != header.getInt(4)){
+            throw new IOException("The record is damaged.");
+        }
+        // an archived game has players of its own, apart from the lobby's
+        return GameModel.readSnapshot(new DataInputStream(new ByteArrayInputStream(body.array())), Player::new);
+    }
+
+    /**
+     * gets the length of the body of a record
+     * @param number the number of its segment
+     * @param offset where the record starts
+     * @return the length
+     * @throws IOException when it can't be read
+     */
+    private int recordLength(long number, long offset) throws IOException{
+        ByteBuffer header = ByteBuffer.allocate(4);
+        readFully(reader(number), header, offset);
+        return header.getInt(0);
+    }
+
+    /**
+     * gets a segment opened for reading
+     * @param number the number of the segment
+     * @return the segment
+     * @throws IOException when it can't be opened
+     */
+    private FileChannel reader(long number) throws IOException{
+        FileChannel channel = readers.get(number);
+        if(channel == null){
+            FileChannel opened = FileChannel.open(segmentFile(number).toPath(), StandardOpenOption.READ);
+            channel = readers.putIfAbsent(number, opened);
+            if(channel == null){
+                channel = opened;
+            }
+            else{
+                opened.close();
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * fills a buffer from a segment
+     * @param channel the segment
+     * @param buffer the buffer
+     * @param position where to read from
+     * @throws IOException when it can't be read, or the segment ends first
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException{
+        while(buffer.hasRemaining()){
+            int read = channel.read(buffer, position + buffer.position());
+            if(read < 0){
+                throw new EOFException("The segment ends in the middle of a record.");
+            }
+        }
+    }
+
+    /**
+     * makes a new segment to write to
+     * @param number the number of the segment
+     * @return the segment
+     * @throws IOException when it can't be made
+     */
+    private FileChannel openSegment(long number) throws IOException{
+        return FileChannel.open(segmentFile(number).toPath(),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * gets the file of a segment
+     * @param number the number of the segment
+     * @return the file
+     */
+    private File segmentFile(long number){
+        return new File(directory, SEGMENT_PREFIX + String.format("%010d", number) + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * gets the numbers of the segments in a directory, oldest first
+     * @param directory the directory
+     * @return the numbers
+     */
+    private static List<Long> segments(File directory){
+        List<Long> numbers = new ArrayList<>();
+        String[] names = directory.list();
+        if(names == null){
+            return numbers;
+        }
+        for(String name : names){
+            if(name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)){
+                try {
+                    numbers.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                }
+                catch(NumberFormatException e){
+                    LOG.fine("ignored " + name + " in the archive directory");
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+Filename: GameEvent.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * Something that happened in a game, published by the GameModel on its GameEventBus.
+ * Each kind of event is a class of its own, so a subscriber says which ones it wants
+ * by their class. Events are immutable.
+ */
+public abstract class GameEvent {
+    /** This is the game it happened in */
+    private final GameModel game;
+    /** This is the system time it happened at */
+    private final long time;
+
+    /**
+     * This is the Constructor for a GameEvent.
+     * @param game the game it happened in.
+     */
+    GameEvent(GameModel game){
+        this.game = game;
+        this.time = System.currentTimeMillis();
+    }
+
+    /**
+     * gets the game it happened in; a subscriber must not change it
+     * @return the game
+     */
+    public GameModel getGame(){
+        return game;
+    }
+
+    /**
+     * gets the identifier of the game it happened in
+     * @return the identifier
+     */
+    public int getGameID(){
+        return game.getGameID();
+    }
+
+    /**
+     * gets when it happened
+     * @return the system time, in milliseconds
+     */
+    public long getTime(){
+        return time;
+    }
+
+    /**
+     * A player moved a piece, as part of a turn they haven't submitted yet.
+     */
+    public static final class MoveMade extends GameEvent {
+        /** This is the move, on the moving player's side of the board */
+        private final Move move;
+        /** This is the color of the moving player */
+        private final Player.Color color;
+
+        MoveMade(GameModel game, Move move, Player.Color color){
+            super(game);
+            this.move = move;
+            this.color = color;
+        }
+
+        /**
+         * gets the move
+         * @return the move, on the moving player's side of the board
+         */
+        public Move getMove(){
+            return move;
+        }
+
+        /**
+         * gets who moved
+         * @return the color of the moving player
+         */
+        public Player.Color getColor(){
+            return color;
+        }
+    }
+
+    /**
+     * A player submitted their turn, and it became the other player's turn.
+     */
+    public static final class TurnSubmitted extends GameEvent {
+        /** This is the color of the player who submitted the turn */
+        private final Player.Color color;
+        /** These are the moves of the turn, on that player's side of the board */
+        private final List<Move> moves;
+
+        TurnSubmitted(GameModel game, Player.Color color, List<Move> moves){
+            super(game);
+            this.color = color;
+            this.moves = Collections.unmodifiableList(moves);
+        }
+
+        /**
+         * gets who submitted the turn
+         * @return the color of the player
+         */
+        public Player.Color getColor(){
+            return color;
+        }
+
+        /**
+         * gets whose turn it now is
+         * @return the color of the other player
+         */
+        public Player.Color getActiveColor(){
+            return color == Player.Color.RED ? Player.Color.WHITE : Player.Color.RED;
+        }
+
+        /**
+         * gets the moves of the turn
+         * @return the moves, on the submitting player's side of the board
+         */
+        public List<Move> getMoves(){
+            return moves;
+        }
+    }
+
+    /**
+     * A player won, by taking all of the other player's pieces.
+     */
+    public static final class GameWon extends GameEvent {
+        /** This is the color of the winner */
+        private final Player.Color winner;
+
+        GameWon(GameModel game, Player.Color winner){
+            super(game);
+            this.winner = winner;
+        }
+
+        /**
+         * gets who won
+         * @return the color of the winner
+         */
+        public Player.Color getWinner(){
+            return winner;
+        }
+    }
+
+    /**
+     * A player resigned from the game.
+     */
+    public static final class PlayerResigned extends GameEvent {
+        /** This is the color of the player who resigned */
+        private final Player.Color color;
+
+        PlayerResigned(GameModel game, Player.Color color){
+            super(game);
+            this.color = color;
+        }
+
+        /**
+         * gets who resigned
+         * @return the color of the player who resigned
+         */
+        public Player.Color getColor(){
+            return color;
+        }
+    }
+
+    /**
+     * A spectator started watching the game.
+     */
+    public static final class SpectatorJoined extends GameEvent {
+        /** This is the spectator */
+        private final Player spectator;
+
+        SpectatorJoined(GameModel game, Player spectator){
+            super(game);
+            this.spectator = spectator;
+        }
+
+        /**
+         * gets the spectator
+         * @return the spectator
+         */
+        public Player getSpectator(){
+            return spectator;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+Filename: GameEventBus.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * The bus the games publish their GameEvents on. Publishing only queues the event, so
+ * a turn takes as long no matter how many spectators and subscribers a game has; the events
+ * are delivered to their subscribers later, on the bus's own thread, one at a time and
+ * in the order they were published.
+ *
+ * A subscriber is given the events of a class and its subclasses, so subscribing to
+ * GameEvent gets every event. Subscribers all share the one thread, so one that has
+ * slow work to do, such as writing to the network, should hand it on.
+ */
+public class GameEventBus {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(GameEventBus.class.getName());
+
+    /** These are the subscribers, by the class of the events they want */
+    private final ConcurrentHashMap<Class<?>, List<Consumer<GameEvent>>> subscribers = new ConcurrentHashMap<>();
+    /** This is the thread the events are delivered on */
+    private final ExecutorService dispatcher;
+
+    /**
+     * This is the Constructor for a GameEventBus.
+     */
+    public GameEventBus(){
+        this.dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * has a subscriber given every event of a class, from now on
+     * @param type the class of the events
+     * @param subscriber the subscriber
+     * @param <E> the class of the events
+     */
+    public <E extends GameEvent> void subscribe(Class<E> type, Consumer<? super E> subscriber){
+        subscribers.computeIfAbsent(type, t -> new CopyOnWriteArrayList<>())
+                .add(event -> subscriber.accept(type.cast(event)));
+    }
+
+    /**
+     * queues an event to be delivered to its subscribers
+     * @param event the event
+     */
+    public void publish(GameEvent event){
+        dispatcher.execute(() -> deliver(event));
+    }
+
+    /**
+     * gives an event to everyone subscribed to its class or one of its superclasses
+     * @param event the event
+     */
+    private void deliver(GameEvent event){
+        for(Class<?> type = event.getClass(); type != Object.class; type = type.getSuperclass()){
+            List<Consumer<GameEvent>> list = subscribers.get(type);
+            if(list == null){
+                continue;
+            }
+            for(Consumer<GameEvent> subscriber : list){
+                try {
+                    subscriber.accept(event);
+                }
+                catch(RuntimeException e){
+                    LOG.warning("a subscriber to " + event.getClass().getSimpleName() + " of game "
+                            + event.getGameID() + " failed: " + e);
+                }
+            }
+        }
+    }
+}
@@ -9,7 +9,14 @@ package com.webcheckers.Model;
 
 import com.webcheckers.InvalidMoveException;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 import java.util.logging.Logger;
 /**
  * @author Ashwin Gowda
@@ -18,6 +25,14 @@ import java.util.logging.Logger;
  * @author Julie Sojkowski
  *
  * This class holds all the game-state data for an instance of a WebChecker game.
+ *
+ * When it has a GameEventBus, the game publishes a GameEvent for every move, submitted
+ * turn, win, resignation and new spectator on it; everything that reacts to them, such
+ * as telling the spectators, is done by the bus's subscribers rather than here.
+ *
+ * When it has a MoveJournal, the game also appends every move it accepts, every move
+ * taken back, every submitted turn, a resignation and a win to it, so it can be
+ * rebuilt by replaying them after a restart.
  */
 public class GameModel{
     /** This is the Logger object that is used to record server info in the terminal window */
@@ -28,18 +43,16 @@ public class GameModel{
     private Player redPlayer;
     /** This is the white player in the game */
     private Player whitePlayer;
-    /** This is the board from the red players perspective in the game */
-    private BoardView redBoard;
-    /** This is the board from the white players perspective in the game */
-    private BoardView whiteBoard;
+    /** This is the board the game is played on */
+    private Bitboard board;
+    /** This is the board as it was when the last turn was submitted */
+    private Bitboard submittedBoard;
     /** This is the color of the player who's current turn it is */
     private Player.Color activeColor;
     /** This is the Mode of view this game is in */
     private Mode viewMode;
     /** This is the number used to identify this game Object */
     private int gameID;
-    /** This condition is used to tell if a backup move is being made */
-    private boolean undoingMove;
     /** This condition is used to tell whether a double capture move is possible */
     private boolean dMove;
     /** This condition tells whether or not a move has been made yet for the current turn */
@@ -50,12 +63,18 @@ public class GameModel{
     private ArrayList<Move> moveHistory = new ArrayList<>();
     /** This is an ArrayList that holds all of the moves that have been made this turn */
     private ArrayList<Move> curTurnMoves = new ArrayList<>();
-    /** This is an ArrayList that holds all of the spectators */
-    private ArrayList<Player> spectators = new ArrayList<>();
+    /** This is a list that holds all of the spectators; it can be read while it is changed */
+    private final CopyOnWriteArrayList<Player> spectators = new CopyOnWriteArrayList<>();
     /** This is the system time for when the latest move was made */
-    private long lastMoveTime;
+    private volatile long lastMoveTime;
     /** This is a conditional that checks to see if a turn has been submitted this game yet */
-    private boolean firstTurnSubmitted;
+    private volatile boolean firstTurnSubmitted;
+    /** These are the complete turns the active player can make; null until they are needed */
+    private List<Turn> legalTurns;
+    /** This is the bus the game's events are published on; null to not publish them */
+    private volatile GameEventBus eventBus;
+    /** This is the journal the game's moves are appended to; null to not journal them */
+    private volatile MoveJournal journal;
 
     /**
      * This is the Constructor for a GameModel.
@@ -70,21 +89,22 @@ public class GameModel{
         this.whitePlayer = whitePlayer;
         this.whitePlayer.setViewMode(Player.Mode.PLAY);
         this.activeColor = Player.Color.RED;
-        this.redBoard = new BoardView(Player.Color.RED);
-        this.whiteBoard = new BoardView(Player.Color.WHITE);
+        this.board = new Bitboard();
+        this.submittedBoard = board.copy();
         this.viewMode = viewMode;
         this.gameID = id;
         this.dMove = false;
         this.isFirstMove = true;
         this.resignedColor = null;
-        this.undoingMove = false;
         this.lastMoveTime = 0;
         this.firstTurnSubmitted = false;
     }
 
     public boolean addSpectator(Player player){
        if(player.getViewMode() == Player.Mode.SPECTATOR && player.getGameID() == gameID) {
-           return this.spectators.add(player);
+           this.spectators.add(player);
+           publish(new GameEvent.SpectatorJoined(this, player));
+           return true;
        }
        return false;
     }
@@ -98,7 +118,7 @@ public class GameModel{
         return false;
     }
 
-    public ArrayList<Player> getSpectators() {
+    public List<Player> getSpectators() {
         return spectators;
     }
 
@@ -122,6 +142,33 @@ public class GameModel{
         return this.spectators.remove(player);
     }
 
+    /**
+     * sets the bus the game's events are published on
+     * @param eventBus the bus, null to not publish them
+     */
+    public void setEventBus(GameEventBus eventBus){
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * sets the journal the game's moves are appended to
+     * @param journal the journal, null to not journal them
+     */
+    public void setJournal(MoveJournal journal){
+        this.journal = journal;
+    }
+
+    /**
+     * publishes an event on the game's bus, if it has one
+     * @param event the event
+     */
+    private void publish(GameEvent event){
+        GameEventBus bus = this.eventBus;
+        if(bus != null){
+            bus.publish(event);
+        }
+    }
+
     /**
      * gets the id of the game
      * @return the id of the game
@@ -129,19 +176,65 @@ public class GameModel{
     public int getGameID(){ return gameID; }
 
     /**
-     * get the red player board
-     * @return the red players board
+     * gets a view of the board from one player's side
+     * @param color the color of the player who's pieces are on the bottom side
+     * @return the board view
      */
-    public synchronized BoardView getRedBoard(){
-        return redBoard;
+    public synchronized BoardView getBoardView(Player.Color color){
+        return new BoardView(board, color);
     }
 
     /**
-     * gets the white board
-     * @return the white players board
+     * gets a view of the board as it was when the last turn was submitted,
+     * from one player's side
+     * @param color the color of the player who's pieces are on the bottom side
+     * @return the board view
      */
-    public synchronized BoardView getWhiteBoard(){
-        return whiteBoard;
+    public synchronized BoardView getSubmittedBoardView(Player.Color color){
+        return new BoardView(submittedBoard, color);
+    }
+
+    /**
+     * gets the view of the board that a player in or watching this game should see.
+     * The active player sees the moves they have made this turn; everyone else sees
+     * the board as of the last submitted turn.
+     * @param player the player viewing the board
+     * @return the board view, from the white player's side for the white player
+     * and from the red player's side for everyone else
+     */
+    public synchronized BoardView getBoardViewFor(Player player){
+        Player.Color color = player == whitePlayer ? Player.Color.WHITE : Player.Color.RED;
+        if((player == redPlayer || player == whitePlayer) && color == activeColor){
+            return getBoardView(color);
+        }
+        return getSubmittedBoardView(color);
+    }
+
+    /**
+     * gets a copy of the board as it was when the last turn was submitted, for
+     * looking ahead without changing the game
+     * @return the copy
+     */
+    public synchronized Bitboard getSubmittedPosition(){
+        return submittedBoard.copy();
+    }
+
+    /**
+     * gets the Zobrist hash of the position on the board, including whose turn it is.
+     * The hash is kept up to date as moves are made and undone.
+     * @return the 64-bit hash
+     */
+    public synchronized long getPositionHash(){
+        return activeColor == Player.Color.WHITE ? board.getHash() ^ Zobrist.SIDE : board.getHash();
+    }
+
+    /**
+     * gets the Zobrist hash of the position as it was when the last turn was submitted,
+     * including whose turn it is now
+     * @return the 64-bit hash
+     */
+    public synchronized long getSubmittedPositionHash(){
+        return activeColor == Player.Color.WHITE ? submittedBoard.getHash() ^ Zobrist.SIDE : submittedBoard.getHash();
     }
 
     /** gets the view mode
@@ -179,10 +272,7 @@ public class GameModel{
      * @return the active player board view
      */
     public synchronized BoardView getActiveBoardView(){
-        if(activeColor == Player.Color.RED) {
-            return redBoard;
-        }
-        return whiteBoard;
+        return getBoardView(activeColor);
     }
 
     /**
@@ -289,63 +379,24 @@ public class GameModel{
      */
     public synchronized void setActiveColor(Player.Color currentColor) {
         activeColor = currentColor;
+        legalTurns = null;
     }
 
     /**
      * undoes the most recent move
      */
-    public void undoLastMove(){
-        Position target = getStartingPosition();
-        Position current = getEndingPosition();
-
-        Move undoMove = new Move(current, target);
-
+    public synchronized void undoLastMove(){
         Move pastmove = getMove(0);
-        undoMove.setCurState(pastmove.getdMove(), pastmove.getIsFirstMove());
-        undoMove.setSwitchedType(pastmove.getSwitchedType());
         this.dMove = pastmove.getdMove();
         this.isFirstMove = pastmove.getIsFirstMove();
 
-        if(getActiveColor() == Player.Color.RED){
-            Player cur_player = getRedPlayer();
-
-            undoingMove = true;
-            try{
-                makeMove(undoMove, cur_player);
-                if(undoMove.isCaptureMove()){
-                    int capRow = target.getRow() - ((target.getRow() - current.getRow())/2);
-                    int capCell = target.getCell() - ((target.getCell() - current.getCell())/2);
-                    Space capturedSpace = redBoard.getSpaceInRowList(capRow, capCell);
-                    capturedSpace.setPiece(pastmove.getCapturedPiece());
-                    redBoard.addPiece(Player.Color.WHITE);
-                    whiteBoard.addPiece(Player.Color.WHITE);
-                }
-            }
-            catch(InvalidMoveException e){
-                LOG.fine("Invalid Move, can not undo");
-            }
+        unmakeMove(pastmove);
+        moveHistory.remove(moveHistory.size() - 1);
+        curTurnMoves.remove(curTurnMoves.size() - 1);
+        MoveJournal log = this.journal;
+        if(log != null){
+            log.appendUndo(gameID);
         }
-        else{
-            Player cur_player = getWhitePlayer();
-
-            undoingMove = true;
-            try{
-                makeMove(undoMove, cur_player);
-                if(undoMove.isCaptureMove()){
-                    int capRow = target.getRow() - ((target.getRow() - current.getRow())/2);
-                    int capCell = target.getCell() - ((target.getCell() - current.getCell())/2);
-                    Space capturedSpace = whiteBoard.getSpaceInRowList(capRow, capCell);
-                    capturedSpace.setPiece(pastmove.getCapturedPiece());
-                    redBoard.addPiece(Player.Color.RED);
-                    whiteBoard.addPiece(Player.Color.RED);
-                }
-            }
-            catch(InvalidMoveException e){
-                LOG.fine("Invalid Move, can not undo");
-            }
-        }
-
-        undoingMove = false;
     }
 
 
@@ -354,10 +405,10 @@ public class GameModel{
      * @return the name of the player that won
      */
     public String playerWon(){
-        if(getActiveBoardView().getRedPlayerPieces() <= 0){
+        if(board.count(Player.Color.RED) <= 0){
             return this.whitePlayer.getName();
         }
-        else if(getActiveBoardView().getWhitePlayerPieces() <= 0){
+        else if(board.count(Player.Color.WHITE) <= 0){
             return this.redPlayer.getName();
         }
         else {
@@ -370,6 +421,13 @@ public class GameModel{
      * @param color the color of the resigned player.
      */
     public synchronized void resign(Player.Color color){
+        if(this.resignedColor == null){
+            MoveJournal log = this.journal;
+            if(log != null){
+                log.appendResign(gameID, color);
+            }
+            publish(new GameEvent.PlayerResigned(this, color));
+        }
         this.resignedColor = color;
     }
 
@@ -378,277 +436,320 @@ public class GameModel{
      * @param move the move to add
      * @param player the player to add the move too
      */
-    public void addMove(Move move, Player player){
+    public synchronized void addMove(Move move, Player player){
         Player.Color colorToAdd = player.getColor();
         move.setPlayerColor(colorToAdd);
         moveHistory.add(move);
         curTurnMoves.add(move);
+        MoveJournal log = this.journal;
+        if(log != null){
+            log.appendMove(gameID, colorToAdd, move);
+        }
     }
 
     /**
      * resets the current turns moves to an empty list
      */
-    public void resetCurTurnMoves(){
+    public synchronized void resetCurTurnMoves(){
         this.curTurnMoves.clear();
     }
 
     /**
-     * This method makes a move on the inputted player's board.
+     * This method makes a move on the board. The move's positions are on the
+     * active player's side of the board.
      * @param move the move to make
-     * @param player the player that made the move
      * @return "valid" if the move is valid
      * @throws InvalidMoveException when the move is invalid
      */
-    public String makeMove(Move move, Player player) throws InvalidMoveException{
-        Position start = move.getStart();
-        Position end = move.getEnd();
-        String s = " ";
-        if(move.isCaptureMove()) {
-            if (player == redPlayer){
-
-                // change the piece location in the red board
-                int startrow = 0;
-                int endrow = 0;
-                int startcell = 0;
-                int endcell = 0;
-                if(player.getColor() != activeColor){
-                    startrow = (Math.abs(start.getRow() - 8) -1);
-                    endrow = (Math.abs(end.getRow() - 8) -1);
-                    startcell = (Math.abs(start.getCell() - 8) -1);
-                    endcell = (Math.abs(end.getCell() - 8) -1);
-                }
-                else{
-                    startrow = start.getRow();
-                    endrow = end.getRow();
-                    startcell = start.getCell();
-                    endcell = end.getCell();
-                }
-
-                Space startSpace = redBoard.getSpaceInRowList(startrow, startcell);
-                //LOG.fine("start: " + startSpace.getPiece() + " row: " + start.getRow() + " col: " + start.getCell());
-                Space endSpace = redBoard.getSpaceInRowList(endrow, endcell);
-                Piece pieceToChangePositions = startSpace.getPiece();
-                if(player.getColor() == activeColor){
-                    if(endrow == 0 && pieceToChangePositions.getType() == Piece.Type.SINGLE){
-                        move.setSwitchedType(true);
-                        pieceToChangePositions.setType(Piece.Type.KING);
-                    }
-                }
-                else{
-                    if(endrow == 7 && pieceToChangePositions.getType() == Piece.Type.SINGLE){
-                        move.setSwitchedType(true);
-                        pieceToChangePositions.setType(Piece.Type.KING);
-                    }
-                }
-                startSpace.setPiece(null);
-                endSpace.setPiece(pieceToChangePositions);
-
-                int capRow = endrow - ((endrow - startrow)/2);
-                int capCell = endcell - ((endcell - startcell)/2);
-                Space capturedSpace = redBoard.getSpaceInRowList(capRow, capCell);
-                move.setCapturedPiece(capturedSpace.getPiece());
-                capturedSpace.setPiece(null);
-                if(activeColor == Player.Color.RED){
-                    redBoard.removePiece(Player.Color.WHITE);
-                }
-                else{
-                    redBoard.removePiece(Player.Color.RED);
-                }
-                //LOG.fine("end: " + endSpace.getPiece() + " row: " + end.getRow() + " col: " + end.getCell());
-
-                if(undoingMove){
-                    if(move.getSwitchedType()){
-                        pieceToChangePositions.setType(Piece.Type.SINGLE);
-                    }
-                    moveHistory.remove(moveHistory.size() - 1);
-                    curTurnMoves.remove(curTurnMoves.size() - 1);
-                }
-
-                return "valid";
+    public synchronized String makeMove(Move move) throws InvalidMoveException{
+        int from = Bitboard.square(move.getStart(), activeColor);
+        int to = Bitboard.square(move.getEnd(), activeColor);
+        if(from < 0 || to < 0 || board.isEmpty(from) || !board.isEmpty(to)){
+            throw new InvalidMoveException("There is no piece that can make this move.");
+        }
+
+        if(move.isCaptureMove()){
+            int captured = Bitboard.between(from, to);
+            if(captured < 0){
+                throw new InvalidMoveException("There is no piece that can make this move.");
             }
-            else if (player == whitePlayer) {
-
-                // change the piece location in the white board
-                int startrow = 0;
-                int endrow = 0;
-                int startcell = 0;
-                int endcell = 0;
-                if(player.getColor() != activeColor){
-                    startrow = (Math.abs(start.getRow() - 8) -1);
-                    endrow = (Math.abs(end.getRow() - 8) -1);
-                    startcell = (Math.abs(start.getCell() - 8) -1);
-                    endcell = (Math.abs(end.getCell() - 8) -1);
-                }
-                else{
-                    startrow = start.getRow();
-                    endrow = end.getRow();
-                    startcell = start.getCell();
-                    endcell = end.getCell();
-                }
-
-                Space startSpace = whiteBoard.getSpaceInRowList(startrow, startcell);
-                Space endSpace = whiteBoard.getSpaceInRowList(endrow, endcell);
-                Piece pieceToChangePositions = startSpace.getPiece();
-                if(player.getColor() == activeColor){
-                    if(endrow == 0 && pieceToChangePositions.getType() == Piece.Type.SINGLE){
-                        move.setSwitchedType(true);
-                        pieceToChangePositions.setType(Piece.Type.KING);
-                    }
-                }
-                else{
-                    if(endrow == 7 && pieceToChangePositions.getType() == Piece.Type.SINGLE){
-                        move.setSwitchedType(true);
-                        pieceToChangePositions.setType(Piece.Type.KING);
-                    }
-                }
-                startSpace.setPiece(null);
-                endSpace.setPiece(pieceToChangePositions);
-
-                int capRow = endrow - ((endrow - startrow)/2);
-                int capCell = endcell - ((endcell - startcell)/2);
-                Space capturedSpace = whiteBoard.getSpaceInRowList(capRow, capCell);
-                move.setCapturedPiece(capturedSpace.getPiece());
-                capturedSpace.setPiece(null);
-                if(activeColor == Player.Color.RED){
-                    whiteBoard.removePiece(Player.Color.WHITE);
-                }
-                else{
-                    whiteBoard.removePiece(Player.Color.RED);
-                }
-
-                if(undoingMove){
-                    if(move.getSwitchedType()){
-                        pieceToChangePositions.setType(Piece.Type.SINGLE);
-                    }
-                    moveHistory.remove(moveHistory.size() - 1);
-                    curTurnMoves.remove(curTurnMoves.size() - 1);
-                }
-
-                return "valid";
+            move.setCapturedPiece(board.getPiece(captured));
+            board.remove(captured);
+        }
+        board.move(from, to);
+        if(!board.isKing(to) && (Bitboard.kingRow(activeColor) & (1 << to)) != 0){
+            move.setSwitchedType(true);
+            board.crown(to);
+        }
+        publish(new GameEvent.MoveMade(this, move, activeColor));
+        return "valid";
+    }
+
+    /**
+     * This method takes a move back off of the board. The move's positions are on
+     * the active player's side of the board.
+     * @param move the move to take back, as it was made
+     */
+    public synchronized void unmakeMove(Move move){
+        int from = Bitboard.square(move.getStart(), activeColor);
+        int to = Bitboard.square(move.getEnd(), activeColor);
+
+        board.move(to, from);
+        if(move.getSwitchedType()){
+            board.uncrown(from);
+        }
+        Piece captured = move.getCapturedPiece();
+        if(move.isCaptureMove() && captured != null){
+            board.put(Bitboard.between(from, to), captured.getColor(), captured.getType() == Piece.Type.KING);
+        }
+    }
+
+    /**
+     * gets every complete turn the active player can make this turn. A capture must
+     * be made if one is available and a multiple jump must be completed, so only those
+     * turns are returned when there are any.
+     * @return the legal turns, on the red player's side of the board
+     */
+    public synchronized List<Turn> getLegalTurns(){
+        if(legalTurns == null){
+            legalTurns = Collections.unmodifiableList(LegalMoveGenerator.legalTurns(submittedBoard, activeColor));
+        }
+        return legalTurns;
+    }
+
+    /**
+     * gets the legal turns that begin with the moves made so far this turn followed
+     * by one more move.
+     * @param move the next move, on the active player's side of the board
+     * @return the legal turns that begin that way; empty if the move isn't part of one
+     */
+    public synchronized List<Turn> getTurnsStartingWith(Move move){
+        int[] path = getPath(curTurnMoves, move);
+        List<Turn> turns = new ArrayList<>();
+        if(path == null){
+            return turns;
+        }
+        for(Turn turn : getLegalTurns()){
+            if(turn.startsWith(path)){
+                turns.add(turn);
             }
         }
-        else{
-            if(player == redPlayer){
-
-                // change the piece location in the red board
-                int startrow = 0;
-                int endrow = 0;
-                int startcell = 0;
-                int endcell = 0;
-                if(player.getColor() != activeColor){
-                    startrow = (Math.abs(start.getRow() - 8) -1);
-                    endrow = (Math.abs(end.getRow() - 8) -1);
-                    startcell = (Math.abs(start.getCell() - 8) -1);
-                    endcell = (Math.abs(end.getCell() - 8) -1);
-                }
-                else{
-                    startrow = start.getRow();
-                    endrow = end.getRow();
-                    startcell = start.getCell();
-                    endcell = end.getCell();
-                }
-
-                Space startSpace = redBoard.getSpaceInRowList(startrow, startcell);
-                //LOG.fine("start: " + startSpace.getPiece() + " row: " + start.getRow() + " col: " + start.getCell());
-                Space endSpace = redBoard.getSpaceInRowList(endrow, endcell);
-                Piece pieceToChangePositions = startSpace.getPiece();
-                if(player.getColor() == activeColor){
-                    if(endrow == 0 && pieceToChangePositions.getType() == Piece.Type.SINGLE){
-                        move.setSwitchedType(true);
-                        pieceToChangePositions.setType(Piece.Type.KING);
-                    }
-                }
-                else{
-                    if(endrow == 7 && pieceToChangePositions.getType() == Piece.Type.SINGLE){
-                        move.setSwitchedType(true);
-                        pieceToChangePositions.setType(Piece.Type.KING);
-                    }
-                }
-                startSpace.setPiece(null);
-                endSpace.setPiece(pieceToChangePositions);
-                //LOG.fine("end: " + endSpace.getPiece() + " row: " + end.getRow() + " col: " + end.getCell());
-
-                if(undoingMove){
-                    if(move.getSwitchedType()){
-                        pieceToChangePositions.setType(Piece.Type.SINGLE);
-                    }
-                    moveHistory.remove(moveHistory.size() - 1);
-                    curTurnMoves.remove(curTurnMoves.size() - 1);
-                }
-
-                return "valid";
-
-            } else if (player == whitePlayer) {
-
-                // change the piece location in the white board
-                int startrow = 0;
-                int endrow = 0;
-                int startcell = 0;
-                int endcell = 0;
-                if(player.getColor() != activeColor){
-                    startrow = (Math.abs(start.getRow() - 8) -1);
-                    endrow = (Math.abs(end.getRow() - 8) -1);
-                    startcell = (Math.abs(start.getCell() - 8) -1);
-                    endcell = (Math.abs(end.getCell() - 8) -1);
-                }
-                else{
-                    startrow = start.getRow();
-                    endrow = end.getRow();
-                    startcell = start.getCell();
-                    endcell = end.getCell();
-                }
-
-                Space startSpace = whiteBoard.getSpaceInRowList(startrow, startcell);
-                Space endSpace = whiteBoard.getSpaceInRowList(endrow, endcell);
-                Piece pieceToChangePositions = startSpace.getPiece();
-                if(player.getColor() == activeColor){
-                    if(endrow == 0 && pieceToChangePositions.getType() == Piece.Type.SINGLE){
-                        move.setSwitchedType(true);
-                        pieceToChangePositions.setType(Piece.Type.KING);
-                    }
-                }
-                else{
-                    if(endrow == 7 && pieceToChangePositions.getType() == Piece.Type.SINGLE){
-                        move.setSwitchedType(true);
-                        pieceToChangePositions.setType(Piece.Type.KING);
-                    }
-                }
-                startSpace.setPiece(null);
-                endSpace.setPiece(pieceToChangePositions);
-
-                if(undoingMove){
-                    if(move.getSwitchedType()){
-                        pieceToChangePositions.setType(Piece.Type.SINGLE);
-                    }
-                    moveHistory.remove(moveHistory.size() - 1);
-                    curTurnMoves.remove(curTurnMoves.size() - 1);
-                }
-
-                return "valid";
+        return turns;
+    }
+
+    /**
+     * checks if a list of moves makes up one complete legal turn
+     * @param moves the moves, on the active player's side of the board
+     * @return the turn, null if the moves aren't a legal turn
+     */
+    public synchronized Turn findLegalTurn(List<Move> moves){
+        if(moves.isEmpty()){
+            return null;
+        }
+        int[] path = getPath(moves.subList(0, moves.size() - 1), moves.get(moves.size() - 1));
+        if(path == null){
+            return null;
+        }
+        for(Turn turn : getLegalTurns()){
+            if(turn.getLength() == path.length - 1 && turn.startsWith(path)){
+                return turn;
             }
         }
-        if(undoingMove){
-            moveHistory.remove(moveHistory.size() - 1);
-            curTurnMoves.remove(curTurnMoves.size() - 1);
+        return null;
+    }
+
+    /**
+     * works out the squares a piece visits in a list of moves
+     * @param moves the moves made before the last one
+     * @param last the last move
+     * @return the square numbers, null if a move doesn't start where the last one ended
+     */
+    private int[] getPath(List<Move> moves, Move last){
+        int[] path = new int[moves.size() + 2];
+        path[0] = Bitboard.square(moves.isEmpty() ? last.getStart() : moves.get(0).getStart(), activeColor);
+        for(int i = 0; i < moves.size(); i++){
+            Move move = i + 1 < moves.size() ? moves.get(i + 1) : last;
+            path[i + 1] = Bitboard.square(moves.get(i).getEnd(), activeColor);
+            if(Bitboard.square(move.getStart(), activeColor) != path[i + 1]){
+                return null;
+            }
         }
+        path[moves.size() + 1] = Bitboard.square(last.getEnd(), activeColor);
+        return path;
+    }
 
-        return "valid";
+    /**
+     * This method makes and submits a whole turn at once, after checking that it is
+     * one of the active player's legal turns.
+     * @param moves the moves of the turn, on the player's side of the board
+     * @param player the player making the turn
+     * @throws InvalidMoveException when it isn't the player's turn or the moves aren't a legal turn
+     */
+    public synchronized void playTurn(List<Move> moves, Player player) throws InvalidMoveException{
+        Player.Color color = player == redPlayer ? Player.Color.RED : Player.Color.WHITE;
+        if((player != redPlayer && player != whitePlayer) || color != activeColor){
+            throw new InvalidMoveException("It isn't your turn.");
+        }
+        if(!curTurnMoves.isEmpty()){
+            throw new InvalidMoveException("You already made a move.");
+        }
+        if(findLegalTurn(moves) == null){
+            throw new InvalidMoveException("That isn't a legal turn.");
+        }
+        for(int i = 0; i < moves.size(); i++){
+            Move move = moves.get(i);
+            move.setCurState(i > 0, i == 0);
+            move.setCurrentdMove(i < moves.size() - 1);
+            makeMove(move);
+            addMove(move, player);
+        }
+        submitTurn();
+    }
 
+    /**
+     * This method ends the active player's turn: the moves made this turn become
+     * what the other player sees, and it becomes the other player's turn.
+     * @throws InvalidMoveException when the moves made this turn aren't a complete legal turn
+     */
+    public synchronized void submitTurn() throws InvalidMoveException{
+        if(!getLegalTurns().isEmpty()){
+            if(curTurnMoves.isEmpty()){
+                throw new InvalidMoveException("You must make a move before submitting your turn.");
+            }
+            if(findLegalTurn(curTurnMoves) == null){
+                throw new InvalidMoveException("You haven't finished your turn.");
+            }
+        }
+        List<Move> turn = new ArrayList<>(curTurnMoves);
+        resetCurTurnMoves();
+        this.dMove = false;
+        this.isFirstMove = true;
+        this.submittedBoard = board.copy();
+        this.legalTurns = null;
+        this.firstTurnSubmitted = true;
+        this.lastMoveTime = System.currentTimeMillis();
+        Player.Color color = activeColor;
+        if(activeColor == Player.Color.RED){
+            this.activeColor = Player.Color.WHITE;
+        }
+        else{
+            this.activeColor = Player.Color.RED;
+        }
+        MoveJournal log = this.journal;
+        if(log != null){
+            log.appendSubmit(gameID);
+        }
+        publish(new GameEvent.TurnSubmitted(this, color, turn));
+        if(board.count(activeColor) <= 0){
+            publish(new GameEvent.GameWon(this, color));
+        }
     }
 
     /**
      * This method is used to manually end the game.
      * @param color the color of the player who won.
      */
-    public void endTheGame(Player.Color color){
+    public synchronized void endTheGame(Player.Color color){
         if(color == Player.Color.RED){
-            redBoard.endTheGame(Player.Color.WHITE);
-            whiteBoard.endTheGame(Player.Color.WHITE);
+            board.clear(Player.Color.WHITE);
         }
         else{
-            redBoard.endTheGame(Player.Color.RED);
-            whiteBoard.endTheGame(Player.Color.RED);
+            board.clear(Player.Color.RED);
+        }
+        this.submittedBoard = board.copy();
+        this.legalTurns = null;
+        MoveJournal log = this.journal;
+        if(log != null){
+            log.appendWin(gameID, color);
+        }
+        publish(new GameEvent.GameWon(this, color));
+    }
+
+    /**
+     * writes the state of the game for a snapshot: the players' names, both boards, whose
+     * turn it is and every move made, in a few bytes each
+     * @param out where to write it
+     * @throws IOException when it can't be written
+     */
+    public synchronized void writeSnapshot(DataOutput out) throws IOException{
+        out.writeInt(gameID);
+        out.writeUTF(redPlayer.getName());
+        out.writeUTF(whitePlayer.getName());
+        out.writeByte(viewMode.ordinal());
+        out.writeInt(board.getRed());
+        out.writeInt(board.getWhite());
+        out.writeInt(board.getKings());
+        out.writeInt(submittedBoard.getRed());
+        out.writeInt(submittedBoard.getWhite());
+        out.writeInt(submittedBoard.getKings());
+        out.writeByte(activeColor.ordinal());
+        out.writeByte(resignedColor == null ? -1 : resignedColor.ordinal());
+        out.writeBoolean(dMove);
+        out.writeBoolean(isFirstMove);
+        out.writeBoolean(firstTurnSubmitted);
+        out.writeLong(lastMoveTime);
+        // the moves of this turn are the last ones made
+        out.writeInt(moveHistory.size());
+        out.writeInt(curTurnMoves.size());
+        for(Move move : moveHistory){
+            out.writeByte(move.getStart().getRow() << 4 | move.getStart().getCell());
+            out.writeByte(move.getEnd().getRow() << 4 | move.getEnd().getCell());
+            Piece captured = move.getCapturedPiece();
+            out.writeByte((move.getdMove() ? 1 : 0)
+                    | (move.getIsFirstMove() ? 2 : 0)
+                    | (move.getCurrentdMove() ? 4 : 0)
+                    | (move.getSwitchedType() ? 8 : 0)
+                    | (captured != null ? 16 : 0)
+                    | (captured != null && captured.getType() == Piece.Type.KING ? 32 : 0));
+            out.writeByte(move.getPlayerColor() == null ? -1 : move.getPlayerColor().ordinal());
+            out.writeByte(captured == null ? -1 : captured.getColor().ordinal());
+        }
+    }
+
+    /**
+     * makes a game from the state written by writeSnapshot
+     * @param in where to read it
+     * @param players gives the Player with a name
+     * @return the game
+     * @throws IOException when it can't be read
+     */
+    public static GameModel readSnapshot(DataInput in, Function<String, Player> players) throws IOException{
+        int id = in.readInt();
+        Player red = players.apply(in.readUTF());
+        Player white = players.apply(in.readUTF());
+        GameModel game = new GameModel(red, white, Mode.values()[in.readByte()], id);
+        game.board = new Bitboard(in.readInt(), in.readInt(), in.readInt());
+        game.submittedBoard = new Bitboard(in.readInt(), in.readInt(), in.readInt());
+        game.activeColor = Player.Color.values()[in.readByte()];
+        byte resigned = in.readByte();
+        game.resignedColor = resigned < 0 ? null : Player.Color.values()[resigned];
+        game.dMove = in.readBoolean();
+        game.isFirstMove = in.readBoolean();
+        game.firstTurnSubmitted = in.readBoolean();
+        game.lastMoveTime = in.readLong();
+        int moves = in.readInt();
+        int turnMoves = in.readInt();
+        for(int i = 0; i < moves; i++){
+            int start = in.readUnsignedByte();
+            int end = in.readUnsignedByte();
+            int flags = in.readUnsignedByte();
+            byte color = in.readByte();
+            byte capturedColor = in.readByte();
+            Move move = new Move(new Position(start >> 4, start & 15), new Position(end >> 4, end & 15));
+            move.setCurState((flags & 1) != 0, (flags & 2) != 0);
+            move.setCurrentdMove((flags & 4) != 0);
+            move.setSwitchedType((flags & 8) != 0);
+            if((flags & 16) != 0){
+                move.setCapturedPiece(new Piece(Player.Color.values()[capturedColor],
+                        (flags & 32) != 0 ? Piece.Type.KING : Piece.Type.SINGLE));
+            }
+            move.setPlayerColor(color < 0 ? null : Player.Color.values()[color]);
+            game.moveHistory.add(move);
+            if(i >= moves - turnMoves){
+                game.curTurnMoves.add(move);
+            }
         }
+        return game;
     }
 
     public GameModel copyGame(GameModel gameToCopy){
@@ -656,23 +757,40 @@ public class GameModel{
         newGame.redPlayer = gameToCopy.redPlayer;
         newGame.whitePlayer = gameToCopy.whitePlayer;
         newGame.activeColor = gameToCopy.activeColor;
-        newGame.redBoard = gameToCopy.redBoard;
-        newGame.whiteBoard = gameToCopy.whiteBoard;
+        newGame.board = gameToCopy.board.copy();
+        newGame.submittedBoard = gameToCopy.submittedBoard.copy();
         newGame.viewMode = gameToCopy.viewMode;
         newGame.gameID = gameToCopy.gameID;
         newGame.dMove = gameToCopy.dMove;
         newGame.isFirstMove = gameToCopy.isFirstMove;
         newGame.resignedColor = gameToCopy.resignedColor;
-        newGame.undoingMove = gameToCopy.undoingMove;
         newGame.moveHistory = gameToCopy.moveHistory;
         newGame.curTurnMoves = gameToCopy.curTurnMoves;
         return newGame;
     }
 
+    /**
+     * This method sets the game up in any position, with no moves made yet. It is used
+     * to check the rules from positions other than the start of a game.
+     * @param position the pieces on the board; it is copied
+     * @param color the color of the player to move
+     */
+    public synchronized void setUpPosition(Bitboard position, Player.Color color){
+        this.board = position.copy();
+        this.submittedBoard = position.copy();
+        this.activeColor = color;
+        this.dMove = false;
+        this.isFirstMove = true;
+        this.moveHistory.clear();
+        this.curTurnMoves.clear();
+        this.legalTurns = null;
+    }
+
     public void resetGame(){
-        this.redBoard = new BoardView(Player.Color.RED);
-        this.whiteBoard = new BoardView(Player.Color.WHITE);
+        this.board = new Bitboard();
+        this.submittedBoard = board.copy();
         this.activeColor = Player.Color.RED;
+        this.legalTurns = null;
     }
 
 }
@@ -0,0 +1,203 @@
+/*
+Filename: LegalMoveGenerator.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class generates the legal moves of a position using the MoveTable lookup tables.
+ * It follows the rules written out in Move: a capture must be made if one is available,
+ * a multiple jump must be completed, and a man that is crowned ends the turn.
+ *
+ * Whole turns come back either as Turn objects or packed into longs as described in Turn.
+ */
+public final class LegalMoveGenerator {
+    /** The most steps a side can have: 12 kings with 4 directions each */
+    static final int MAX_STEPS = 48;
+    /** The most turns the packed generator reports for one position */
+    public static final int MAX_TURNS = 256;
+    /** The most squares a multiple jump can visit: 12 captures and the starting square */
+    private static final int MAX_PATH = 13;
+
+    /**
+     * This class only holds static methods, so it can't be constructed.
+     */
+    private LegalMoveGenerator(){
+    }
+
+    /**
+     * This method checks if one piece can jump an opponent's piece.
+     * @param board the board to move on
+     * @param square the square of the piece
+     * @param color the color of the piece
+     * @param king whether the piece moves like a king
+     * @return true if the piece has a jump available
+     */
+    public static boolean canJump(Bitboard board, int square, Player.Color color, boolean king){
+        Player.Color other = color == Player.Color.RED ? Player.Color.WHITE : Player.Color.RED;
+        int opponents = board.getPieces(other);
+        int empty = board.getEmpty() | (1 << square);
+        for(int direction : MoveTable.DIRECTIONS[MoveTable.kind(color, king)]){
+            int over = MoveTable.NEIGHBOUR[direction][square];
+            int land = MoveTable.JUMP[direction][square];
+            if(land >= 0 && (opponents & (1 << over)) != 0 && (empty & (1 << land)) != 0){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method finds every complete legal turn for one side, including whole
+     * multiple jumps and promotions.
+     * @param board the board to move on
+     * @param color the color of the side to move
+     * @return the legal turns; empty if the side can't move
+     */
+    public static List<Turn> legalTurns(Bitboard board, Player.Color color){
+        Collector collector = new Collector(new long[MAX_TURNS], new ArrayList<>());
+        collect(board, color, collector);
+        return collector.turns;
+    }
+
+    /**
+     * This method finds every complete legal turn for one side and packs them into
+     * longs, without creating any objects. It is meant for search.
+     * @param board the board to move on
+     * @param color the color of the side to move
+     * @param turns the array to write the packed turns to; it should hold MAX_TURNS
+     * @return the number of turns written
+     */
+    public static int generateTurns(Bitboard board, Player.Color color, long[] turns){
+        Collector collector = new Collector(turns, null);
+        collect(board, color, collector);
+        return collector.count;
+    }
+
+    /**
+     * works out the turns of a position and hands them to a collector
+     * @param board the board to move on
+     * @param color the color of the side to move
+     * @param out the collector
+     */
+    private static void collect(Bitboard board, Player.Color color, Collector out){
+        Player.Color other = color == Player.Color.RED ? Player.Color.WHITE : Player.Color.RED;
+        int own = board.getPieces(color);
+        int opponents = board.getPieces(other);
+        int empty = board.getEmpty();
+        int kings = board.getKings();
+        int kingRow = Bitboard.kingRow(color);
+
+        for(int pieces = own; pieces != 0; pieces &= pieces - 1){
+            int from = Integer.numberOfTrailingZeros(pieces);
+            out.path[0] = from;
+            addJumps(out, from, from, MoveTable.kind(color, (kings & (1 << from)) != 0), 0,
+                    opponents, empty | (1 << from), kingRow, 1);
+        }
+        if(out.count > 0){
+            return;
+        }
+        for(int pieces = own; pieces != 0; pieces &= pieces - 1){
+            int from = Integer.numberOfTrailingZeros(pieces);
+            int kind = MoveTable.kind(color, (kings & (1 << from)) != 0);
+            out.path[0] = from;
+            for(int direction : MoveTable.DIRECTIONS[kind]){
+                int to = MoveTable.NEIGHBOUR[direction][from];
+                if(to >= 0 && (empty & (1 << to)) != 0){
+                    out.path[1] = to;
+                    out.add(from, to, 0, kind != MoveTable.KING && (kingRow & (1 << to)) != 0, 2);
+                }
+            }
+        }
+    }
+
+    /**
+     * follows every jump that can be made from a square. The captured pieces stay on
+     * the board until the turn is over, so they can't be jumped twice or landed on.
+     * @param out the collector
+     * @param from the square the turn started on
+     * @param square the square the piece is on now
+     * @param kind the kind of the piece, from MoveTable
+     * @param captured the mask of squares captured so far
+     * @param opponents the opponent's pieces
+     * @param empty the empty squares, including the square the turn started on
+     * @param kingRow the row the piece is crowned on
+     * @param length the number of squares in the path so far
+     */
+    private static void addJumps(Collector out, int from, int square, int kind, int captured,
+                                 int opponents, int empty, int kingRow, int length){
+        boolean jumped = false;
+        for(int direction : MoveTable.DIRECTIONS[kind]){
+            int over = MoveTable.NEIGHBOUR[direction][square];
+            int land = MoveTable.JUMP[direction][square];
+            if(land < 0 || (opponents & ~captured & (1 << over)) == 0 || (empty & (1 << land)) == 0){
+                continue;
+            }
+            jumped = true;
+            out.path[length] = land;
+            if(kind != MoveTable.KING && (kingRow & (1 << land)) != 0){
+                out.add(from, land, captured | (1 << over), true, length + 1);
+            }
+            else{
+                addJumps(out, from, land, kind, captured | (1 << over), opponents, empty, kingRow, length + 1);
+            }
+        }
+        if(!jumped && captured != 0){
+            out.add(from, square, captured, false, length);
+        }
+    }
+
+    /**
+     * This class gathers the turns found by the generator.
+     */
+    private static final class Collector {
+        /** These are the packed turns found so far */
+        private final long[] keys;
+        /** These are the turns found so far, or null if only the packed turns are wanted */
+        private final List<Turn> turns;
+        /** This is the path of the turn being followed */
+        private final int[] path = new int[MAX_PATH];
+        /** This is the number of turns found so far */
+        private int count;
+
+        private Collector(long[] keys, List<Turn> turns){
+            this.keys = keys;
+            this.turns = turns;
+        }
+
+        /**
+         * adds a turn. Every path is kept in the turns, since a player may take any of
+         * them, but a packed turn is only added once for all the paths that leave the
+         * same position, since search doesn't need to tell them apart.
+         */
+        private void add(int from, int to, int captured, boolean promotes, int length){
+            if(turns != null){
+                turns.add(new Turn(Arrays.copyOf(path, length), captured, promotes));
+            }
+            long key = Turn.key(from, to, captured);
+            if(captured != 0){
+                for(int i = 0; i < count; i++){
+                    if((keys[i] & Turn.KEY_MASK) == key){
+                        return;
+                    }
+                }
+            }
+            if(count == keys.length){
+                return;
+            }
+            keys[count++] = promotes ? key | Turn.PROMOTES : key;
+        }
+    }
+}
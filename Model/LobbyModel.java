@@ -7,7 +7,20 @@ Spark_Version: 2.8.0
 
 package com.webcheckers.Model;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
 /**
  * @author Ashwin Gowda
  * @author Garrett Rudolfs
@@ -15,14 +28,46 @@ import java.util.ArrayList;
  * @author Julie Sojkowski
  *
  * This class holds all the game-state data for a WebChecker's lobby.
+ *
+ * The players are kept in a concurrent map keyed by name, so signing in, signing out
+ * and looking a player up take the same time however many players there are.
+ *
+ * The lists on the home page, the players waiting for a game (game identifier 0) and
+ * the games being played, are kept up to date as players sign in and out and games
+ * start and end: a Player tells the lobby whenever its game identifier or mode changes.
+ * Pages are given immutable snapshots of the lists. A snapshot is made again only
+ * after the list has changed, so showing a page costs no more than its entries.
+ *
+ * For a lobby too big for one page, the players are also kept sorted by name, so
+ * the browser can page through them, or search them by the start of their names,
+ * a page at a time; see getPage.
+ *
+ * The players can be written to a snapshot, with writeSnapshot, and read back after a
+ * restart with readSnapshot.
  */
 public class LobbyModel {
-    /** This is the list of Player's who are in the lobby */
-    private static ArrayList<Player> playerList = new ArrayList<>(10);
+    /** These are the Player's who are in the lobby, by name */
+    private static final ConcurrentHashMap<String, Player> players = new ConcurrentHashMap<>();
+    /** These are the Player's who are in the lobby, sorted by name, for paging through them */
+    private static final ConcurrentSkipListMap<String, Player> sortedPlayers = new ConcurrentSkipListMap<>();
+    /** This is the lock the sorted players and the indexes below are changed under */
+    private static final Object indexLock = new Object();
+    /** These are the Player's who are waiting for a game, by name, in the order they started waiting */
+    private static final LinkedHashMap<String, Player> waiting = new LinkedHashMap<>();
+    /** These are the two players of every game, by game identifier; a slot is null until they join */
+    private static final HashMap<Integer, Player[]> playing = new HashMap<>();
+    /** This is the game each playing Player is indexed under */
+    private static final HashMap<Player, Integer> playingIn = new HashMap<>();
+    /** These are the games with both players, as "red vs. white", by game identifier, oldest first */
+    private static final LinkedHashMap<Integer, String> pairings = new LinkedHashMap<>();
+    /** This is the snapshot of the waiting players' names, null when they have changed since */
+    private static volatile List<String> waitingView = Collections.emptyList();
+    /** This is the snapshot of the pairings, null when they have changed since */
+    private static volatile List<String> gamesView = Collections.emptyList();
 
     /**
      * This is the Constructor for LobbyModel. It currently has nothing in it
-     * since playerList is static. It probably should hold playerList.
+     * since the players are static. It probably should hold them.
      */
     public LobbyModel(){
     }
@@ -33,10 +78,6 @@ public class LobbyModel {
      * @return true if the player is added, false if not
      */
     public static boolean addPlayer(Player player){
-        // return false if it is already a player
-        if(isPlayer(player)) {
-            return false;
-        }
         // return false if the length of the string is less than one
         if(player.getName().length() <1) {
             return false;}
@@ -48,17 +89,171 @@ public class LobbyModel {
         if(player.getName().contains("\"")) return false;
         if(player.getName().contains("vs.")) return false;
 
-        // name has passed the requirements, add them to the list and return true
-        playerList.add(player);
+        // return false if it is already a player
+        if(players.putIfAbsent(player.getName(), player) != null){
+            return false;
+        }
+        // name has passed the requirements, index them and return true
+        synchronized(indexLock){
+            // a sign-out may have removed them already; they mustn't be left in the index
+            if(players.get(player.getName()) == player){
+                sortedPlayers.put(player.getName(), player);
+            }
+        }
+        updatePlayer(player);
         return true;
     }
 
+    /**
+     * re-indexes a player; called whenever its game identifier or mode changes
+     * @param player the player, ignored if they aren't in the lobby
+     */
+    static void updatePlayer(Player player){
+        synchronized(indexLock){
+            if(players.get(player.getName()) != player){
+                return;
+            }
+            unindex(player);
+            if(player.getGameID() == 0){
+                waiting.put(player.getName(), player);
+                waitingView = null;
+            }
+            else if(player.getViewMode() == Player.Mode.PLAY){
+                int gameID = player.getGameID();
+                Player[] pair = playing.computeIfAbsent(gameID, id -> new Player[2]);
+                int slot = pair[0] == null ? 0 : pair[1] == null ? 1 : -1;
+                if(slot >= 0){
+                    pair[slot] = player;
+                    playingIn.put(player, gameID);
+                    if(pair[0] != null && pair[1] != null){
+                        pairings.put(gameID, pair[0].getName() + " vs. " + pair[1].getName());
+                        gamesView = null;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * takes a player out of the indexes; the caller holds indexLock
+     * @param player the player
+     */
+    private static void unindex(Player player){
+        if(waiting.remove(player.getName(), player)){
+            waitingView = null;
+        }
+        Integer gameID = playingIn.remove(player);
+        if(gameID != null){
+            Player[] pair = playing.get(gameID);
+            pair[pair[0] == player ? 0 : 1] = null;
+            if(pair[0] == null && pair[1] == null){
+                playing.remove(gameID);
+            }
+            if(pairings.remove(gameID) != null){
+                gamesView = null;
+            }
+        }
+    }
+
+    /**
+     * gets the names of the players waiting for a game, in the order they started waiting
+     * @return an unmodifiable snapshot of the names
+     */
+    public static List<String> getWaitingView(){
+        List<String> view = waitingView;
+        if(view == null){
+            synchronized(indexLock){
+                // made once after a change, however many pages are shown before the next one
+                if(waitingView == null){
+                    waitingView = Collections.unmodifiableList(Arrays.asList(waiting.keySet().toArray(new String[0])));
+                }
+                view = waitingView;
+            }
+        }
+        return view;
+    }
+
+    /**
+     * gets the first names of the players waiting for a game, but one
+     * @param player the player not to include
+     * @param limit the most names to get
+     * @return the names, in the order they started waiting
+     */
+    public static List<String> getWaitingPage(Player player, int limit){
+        List<String> view = getWaitingView();
+        ArrayList<String> names = new ArrayList<>(Math.min(limit, view.size()));
+        for(int i = 0; i < view.size() && names.size() < limit; i++){
+            if(player == null || !view.get(i).equals(player.getName())){
+                names.add(view.get(i));
+            }
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * gets a page of the players whose names start with a prefix, in name order
+     * @param prefix the start of the names, "" for every player
+     * @param after the cursor of the previous page, null for the first page
+     * @param limit the most players on the page
+     * @return the page
+     */
+    public static LobbyPage getPage(String prefix, String after, int limit){
+        // the page starts after the cursor, or at the first name with the prefix
+        NavigableMap<String, Player> rest = after != null && after.compareTo(prefix) >= 0
+                ? sortedPlayers.tailMap(after, false) : sortedPlayers.tailMap(prefix, true);
+        ArrayList<LobbyPage.Entry> entries = new ArrayList<>(Math.min(limit, 64));
+        String next = null;
+        for(Player player : rest.values()){
+            if(!player.getName().startsWith(prefix)){
+                break;
+            }
+            if(entries.size() == limit){
+                next = entries.get(limit - 1).getName();
+                break;
+            }
+            entries.add(new LobbyPage.Entry(player));
+        }
+        return new LobbyPage(entries, next);
+    }
+
+    /**
+     * gets the games being played, as "red vs. white", oldest first
+     * @return an unmodifiable snapshot of the games
+     */
+    public static List<String> getGamesView(){
+        List<String> view = gamesView;
+        if(view == null){
+            synchronized(indexLock){
+                if(gamesView == null){
+                    gamesView = Collections.unmodifiableList(Arrays.asList(pairings.values().toArray(new String[0])));
+                }
+                view = gamesView;
+            }
+        }
+        return view;
+    }
+
+    /**
+     * gets the names of the players waiting for a game, but one
+     * @param player the player not to include
+     * @return the names, in the order they started waiting
+     */
+    public static List<String> getWaitingView(Player player){
+        List<String> view = getWaitingView();
+        if(player == null || player.getGameID() != 0 || !view.contains(player.getName())){
+            return view;
+        }
+        ArrayList<String> names = new ArrayList<>(view);
+        names.remove(player.getName());
+        return Collections.unmodifiableList(names);
+    }
+
     /**
      * gets the player list
-     * @return the list of players
+     * @return a copy of the list of players
      */
     public ArrayList<Player> getPlayerList(){
-        return playerList;
+        return new ArrayList<>(players.values());
     }
 
     /**
@@ -66,7 +261,7 @@ public class LobbyModel {
      * @return int: the size of the  player
      */
     public static int getNumberPlayers(){
-        return playerList.size();
+        return players.size();
     }
 
     /**
@@ -75,12 +270,7 @@ public class LobbyModel {
      * @return true if they are a player in the lobby, false if not
      */
     public static boolean isPlayer(Player player){
-        for( Player p : playerList ){
-            if(p.getName().equals(player.getName())){
-                return true;
-            }
-        }
-        return false;
+        return players.containsKey(player.getName());
     }
 
     /**
@@ -88,7 +278,9 @@ public class LobbyModel {
      * Used for unit testing
      */
     public static void removeAllPlayers(){
-        playerList.clear();
+        for(Player player : players.values()){
+            removePlayer(player);
+        }
     }
 
     /**
@@ -97,7 +289,14 @@ public class LobbyModel {
      * @return true if the player was removed, false if not
      */
     public static boolean removePlayer(Player player){
-            return playerList.remove(player);
+        if(player == null || !players.remove(player.getName(), player)){
+            return false;
+        }
+        synchronized(indexLock){
+            sortedPlayers.remove(player.getName(), player);
+            unindex(player);
+        }
+        return true;
     }
 
     /**
@@ -106,95 +305,89 @@ public class LobbyModel {
      * @return true if the player was removed, false if not
      */
     public static boolean removePlayerByName(String name){
-        boolean condition = false;
-        for(int i = 0; i < playerList.size(); i++){
-            if(playerList.get(i).getName().compareTo(name) == 0){
-                playerList.remove(i);
-                condition = true;
-                break;
-            }
-        }
-        return condition;
+        return removePlayer(players.get(name));
     }
 
     /**
      * gets a string name of all the users
      * used to get the player  list on the hime page
      * @param player the player not to include in the  list
+     * @param s "inGame" for the games being played, "notInGame" for the players
+     * waiting for a game, anything else for every player
      * @return the list of players
      */
     public static String[] getAllUsers(Player player, String s) {
-        String[] nameList = new String[playerList.size() - 1];
-        int indexOf = playerList.indexOf(player);
+        List<String> nameList;
         // get users in a game
         if (s.compareTo("inGame") == 0){
-
-            ArrayList<String> playerInGameList = new ArrayList<>();
-            ArrayList<Player> tempPlayerList = new ArrayList<>();
-            for (int i = 0; i < playerList.size(); i++) {
-                if (indexOf != i) { // is not the current player
-                    if (playerList.get(i).getGameID() != 0) {
-                        tempPlayerList.add(playerList.get(i));
-                    }
-                }
-            }
-
-            for (int n = 0; n < playerList.size(); n++) {
-                if(playerList.get(n).getGameID() != 0 && playerList.get(n).getViewMode() == Player.Mode.PLAY) {
-                    for (int m = 0; m < tempPlayerList.size(); m++) {
-                        if(tempPlayerList.get(m).getGameID() != 0 && tempPlayerList.get(m).getViewMode() == Player.Mode.PLAY) {
-                            if (playerList.get(n).getGameID() == tempPlayerList.get(m).getGameID() &&
-                                    playerList.get(n).getName().compareTo(tempPlayerList.get(m).getName()) != 0) {
-                                String a = playerList.get(n).getName() + " vs. " + tempPlayerList.get(m).getName();
-                                tempPlayerList.remove(tempPlayerList.get(m));
-                                tempPlayerList.remove(playerList.get(n));
-
-                                playerInGameList.add(a);
-                            }
-                        }
-                    }
-                }
-            }
-            if(playerInGameList.size() == 0){
-                return new String[1];
-            }
-            nameList = new String[playerInGameList.size()];
-            int j = 0;
-            for (int n = 0; n < playerInGameList.size(); n++) {
-                nameList[j] = playerInGameList.get(n);
-                j++;
-            }
-            return nameList;
+            nameList = getGamesView();
         }
         // get users not in game
         else if (s.compareTo("notInGame") == 0){
-
-            ArrayList<Player> playerInGameList = new ArrayList<>(playerList.size());
-            for (int n = 0; n < playerList.size(); n++) {
-                if ((indexOf != n) && (playerList.get(n).getGameID() == 0)) { // is not the current player
-                    playerInGameList.add(playerList.get(n));
+            nameList = getWaitingView(player);
+        }
+        // get all users
+        else{
+            ArrayList<String> names = new ArrayList<>(players.size());
+            for(Player p : players.values()){
+                if(p != player){ // is not the current player
+                    names.add(p.getName());
                 }
             }
-            if(playerInGameList.size() == 0){
-                return new String[1];
-            }
-            nameList = new String[playerInGameList.size()];
-            int j = 0;
-            for (int i = 0; i < playerInGameList.size(); i++) {
-                nameList[j] = playerInGameList.get(i).getName();
-                j++;
-            }
-            return nameList;
+            return names.toArray(new String[0]);
         }
-        // get all users
-        int j = 0;
-        for (int i = 0; i < playerList.size(); i++) {
-            if ((indexOf != i) && (j < nameList.length)) { // is not the current player
-                nameList[j] = playerList.get(i).getName();
-                j++;
+        if(nameList.isEmpty()){
+            return new String[1];
+        }
+        return nameList.toArray(new String[0]);
+    }
+
+    /**
+     * writes every player in the lobby for a snapshot, the ones waiting for a game first,
+     * in the order they started waiting
+     * @param out where to write them
+     * @throws IOException when they can't be written
+     */
+    public static void writeSnapshot(DataOutput out) throws IOException{
+        LinkedHashSet<Player> ordered;
+        synchronized(indexLock){
+            ordered = new LinkedHashSet<>(waiting.values());
+        }
+        ordered.addAll(players.values());
+        out.writeInt(ordered.size());
+        for(Player player : ordered){
+            out.writeUTF(player.getName());
+            out.writeInt(player.getGameID());
+            out.writeByte(player.getViewMode() == null ? -1 : player.getViewMode().ordinal());
+            out.writeByte(player.getColor().ordinal());
+            out.writeBoolean(player.getIsInGame());
+        }
+    }
+
+    /**
+     * reads the players written by writeSnapshot; they aren't added to the lobby
+     * @param in where to read them
+     * @return the players, in the order they were written
+     * @throws IOException when they can't be read
+     */
+    public static List<Player> readSnapshot(DataInput in) throws IOException{
+        int count = in.readInt();
+        List<Player> read = new ArrayList<>(count);
+        for(int i = 0; i < count; i++){
+            Player player = new Player(in.readUTF());
+            int gameID = in.readInt();
+            byte mode = in.readByte();
+            player.setColor(Player.Color.values()[in.readByte()]);
+            if(in.readBoolean()){
+                player.setIsInGame();
             }
+            if(mode >= 0){
+                player.setViewMode(Player.Mode.values()[mode]);
+            }
+            player.setGameID(gameID);
+            read.add(player);
         }
-        return nameList;
+        return read;
     }
 
     /**
@@ -203,11 +396,6 @@ public class LobbyModel {
      * @return the player or null if they do not exist
      */
     public Player getPlayer(String name){
-        for(Player player: playerList){
-            if(0 == name.compareTo(player.getName())){
-                return player;
-            }
-        }
-        return null;
+        return players.get(name);
     }
 }
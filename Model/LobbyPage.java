@@ -0,0 +1,97 @@
+/*
+Filename: LobbyPage.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * One page of the lobby's players, in name order, as sent to the browser as JSON.
+ * The next page starts after the name in the cursor; there are no more pages when
+ * the cursor is null. It is immutable.
+ */
+public final class LobbyPage {
+    /** What a player waiting for a game is doing */
+    public static final String WAITING = "waiting";
+    /** What a player in a game is doing */
+    public static final String PLAYING = "playing";
+    /** What a spectator or a player replaying a game is doing */
+    public static final String WATCHING = "watching";
+
+    /**
+     * One player on the page.
+     */
+    public static final class Entry {
+        /** This is the name of the player */
+        private final String name;
+        /** This is what the player is doing: WAITING, PLAYING or WATCHING */
+        private final String status;
+
+        /**
+         * This is the Constructor for an Entry.
+         * @param player the player.
+         */
+        Entry(Player player){
+            this.name = player.getName();
+            this.status = player.getGameID() == 0 ? WAITING
+                    : player.getViewMode() == Player.Mode.PLAY ? PLAYING : WATCHING;
+        }
+
+        /**
+         * gets the name of the player
+         * @return the name
+         */
+        public String getName(){
+            return name;
+        }
+
+        /**
+         * gets what the player is doing
+         * @return WAITING, PLAYING or WATCHING
+         */
+        public String getStatus(){
+            return status;
+        }
+    }
+
+    /** These are the players on the page */
+    private final List<Entry> players;
+    /** This is the cursor of the next page, null if this is the last one */
+    private final String next;
+
+    /**
+     * This is the Constructor for a LobbyPage.
+     * @param players the players on the page.
+     * @param next the cursor of the next page, null if this is the last one.
+     */
+    LobbyPage(List<Entry> players, String next){
+        this.players = Collections.unmodifiableList(players);
+        this.next = next;
+    }
+
+    /**
+     * gets the players on the page
+     * @return the players, in name order
+     */
+    public List<Entry> getPlayers(){
+        return players;
+    }
+
+    /**
+     * gets the cursor of the next page
+     * @return the last name on this page, null if this is the last page
+     */
+    public String getNext(){
+        return next;
+    }
+}
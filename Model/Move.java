@@ -32,6 +32,8 @@ A king follows the same move rules as a single piece except that a king can move
 
 import com.webcheckers.InvalidMoveException;
 
+import java.util.List;
+
 /**
  * @author Ashwin Gowda
  * @author Garrett Rudolfs
@@ -167,88 +169,58 @@ public class Move {
                 throw new InvalidMoveException("You already made a move.");
             }
         }
+        Bitboard bits = board.getBitboard();
+        Player.Color color = game.getActiveColor();
+        int from = board.toSquare(start.getRow(), start.getCell());
+        int to = board.toSquare(end.getRow(), end.getCell());
+        if(from < 0 || to < 0 || bits.getColor(from) != color){
+            throw new InvalidMoveException("You can only move your own pieces.");
+        }
+        boolean king = bits.isKing(from);
+        List<Turn> turns = game.getTurnsStartingWith(this);
+        boolean captureRequired = !game.getLegalTurns().isEmpty() && game.getLegalTurns().get(0).isCapture();
+
         if(isNormalMove() && !game.getdMove()){
-            for(Row row: board.getRows()){
-                for(Space space: row.getSpaces()){
-                    if(space.getPiece() != null){
-                        if(space.getPiece().getColor() == game.getActiveColor()){
-                            if(captureMoveAvailable(game, board, row.getIndex(), space.getCellIdx(),
-                                    board.getRow(row.getIndex()).getSpace(space.getCellIdx()).getPiece().getType())){
-                                throw new InvalidMoveException("You must make a capture move since you can.");
-                            }
-                        }
-                    }
-                }
+            if(captureRequired){
+                throw new InvalidMoveException("You must make a capture move since you can.");
             }
-            if(board.getRow(start.getRow()).getSpace(start.getCell()).getPiece().getType() == Piece.Type.SINGLE){
-                if(end.getRow() > start.getRow()){
-                    //is not a valid move
-                    throw new InvalidMoveException("Piece cannot be moved backward.");
-                }
-                else{
-                    game.setIsFirstMove(false);
-                    return(board.getRow(end.getRow()).getSpace(end.getCell()).isValid());
-                }
+            if(!king && end.getRow() > start.getRow()){
+                //is not a valid move
+                throw new InvalidMoveException("Piece cannot be moved backward.");
             }
-            else{
-                game.setIsFirstMove(false);
-                return(board.getRow(end.getRow()).getSpace(end.getCell()).isValid());
+            if(turns.isEmpty()){
+                return false;
             }
+            game.setIsFirstMove(false);
+            return true;
         }
         else if(isCaptureMove()){
-            if(board.getRow(start.getRow()).getSpace(start.getCell()).getPiece().getType() == Piece.Type.SINGLE){
-                if(end.getRow() > start.getRow()){
-                    throw new InvalidMoveException("Piece can't be moved backwards.");
-                }
-                else{
-                    int capturedPieceRow = end.getRow() - ((end.getRow() - start.getRow())/2);
-                    int capturedPieceCell = end.getCell() - ((end.getCell() - start.getCell())/2);
-                    if(board.getRow(capturedPieceRow).getSpace(capturedPieceCell).getPiece() != null){
-                        if(board.getRow(capturedPieceRow).getSpace(capturedPieceCell).getPiece().getColor() != game.getActiveColor()){
-                            game.setIsFirstMove(false);
-                            if(end.getRow() == 0){
-                                game.setdMove(captureMoveAvailable(game, board, end.getRow(), end.getCell(),
-                                        Piece.Type.KING));
-                                this.setCurrentdMove(captureMoveAvailable(game, board, end.getRow(), end.getCell(),
-                                        Piece.Type.KING));
-                            }
-                            else{
-                                game.setdMove(captureMoveAvailable(game, board, end.getRow(), end.getCell(),
-                                        Piece.Type.SINGLE));
-                                this.setCurrentdMove(captureMoveAvailable(game, board, end.getRow(), end.getCell(),
-                                        Piece.Type.SINGLE));
-                            }
-                            return(board.getRow(end.getRow()).getSpace(end.getCell()).isValid());
-                        }
-                        else{
-                            throw new InvalidMoveException("Piece isn't allowed to capture a " + game.getActiveColor() + " piece.");
-                        }
-                    }
-                    else{
-                        throw new InvalidMoveException("Piece can't capture a piece that doesn't exist.");
-                    }
-                }
+            if(!king && end.getRow() > start.getRow()){
+                throw new InvalidMoveException("Piece can't be moved backwards.");
             }
-            else{
-                int capturedPieceRow = end.getRow() - ((end.getRow() - start.getRow())/2);
-                int capturedPieceCell = end.getCell() - ((end.getCell() - start.getCell())/2);
-                if(board.getRow(capturedPieceRow).getSpace(capturedPieceCell).getPiece() != null){
-                    if(board.getRow(capturedPieceRow).getSpace(capturedPieceCell).getPiece().getColor() != game.getActiveColor()){
-                        game.setIsFirstMove(false);
-                        game.setdMove(captureMoveAvailable(game, board, end.getRow(), end.getCell(),
-                                board.getRow(start.getRow()).getSpace(start.getCell()).getPiece().getType()));
-                        this.setCurrentdMove(captureMoveAvailable(game, board, end.getRow(), end.getCell(),
-                                board.getRow(start.getRow()).getSpace(start.getCell()).getPiece().getType()));
-                        return(board.getRow(end.getRow()).getSpace(end.getCell()).isValid());
-                    }
-                    else{
-                        throw new InvalidMoveException("Piece isn't allowed to capture a " + game.getActiveColor() + " piece.");
-                    }
-                }
-                else{
-                    throw new InvalidMoveException("Piece can't capture a piece that doesn't exist.");
+            int captured = Bitboard.between(from, to);
+            if(captured < 0 || bits.isEmpty(captured)){
+                throw new InvalidMoveException("Piece can't capture a piece that doesn't exist.");
+            }
+            if(bits.getColor(captured) == color){
+                throw new InvalidMoveException("Piece isn't allowed to capture a " + color + " piece.");
+            }
+            if(turns.isEmpty()){
+                if(game.getdMove()){
+                    throw new InvalidMoveException("You must keep jumping with the same piece.");
                 }
+                return false;
             }
+            game.setIsFirstMove(false);
+            // the turn goes on if one of the turns it could be part of has more jumps
+            int made = game.getCurTurnMoves().size() + 1;
+            boolean moreCaptures = false;
+            for(Turn turn : turns){
+                moreCaptures |= turn.getLength() > made;
+            }
+            game.setdMove(moreCaptures);
+            this.setCurrentdMove(moreCaptures);
+            return true;
         }
         else{
             throw new InvalidMoveException("Piece must be moved to a different space.");
@@ -305,85 +277,11 @@ public class Move {
      * @return whether a capture move can be made from the given space or not.
      */
     public boolean captureMoveAvailable(GameModel game, BoardView board, int row, int cell, Piece.Type type){
-        if(type == Piece.Type.SINGLE){
-            int check1cell = cell - 1;
-            int check1row = row - 1;
-            int check2cell = cell + 1;
-            int check2row = row - 1;
-            if(check1cell <= 6 && check1cell >= 1 && check1row <=6 && check1row >=1){
-                if(board.getRow(check1row).getSpace(check1cell).getPiece() != null){
-                    if(board.getRow(check1row).getSpace(check1cell).getPiece().getColor() != game.getActiveColor()){
-                        if(board.getRow(check1row - 1).getSpace(check1cell - 1).isValid()){
-                            return true;
-                        }
-                    }
-                }
-            }
-            if(check2cell <= 6 && check2cell >= 1 && check2row <=6 && check2row >=1){
-                if(board.getRow(check2row).getSpace(check2cell).getPiece() != null){
-                    if(board.getRow(check2row).getSpace(check2cell).getPiece().getColor() != game.getActiveColor()){
-                        if(board.getRow(check2row - 1).getSpace(check2cell + 1).isValid()){
-                            return true;
-                        }
-                    }
-                }
-            }
-            return false;
-        }
-        else{
-            int check1cell = cell - 1;
-            int check1row = row - 1;
-            int check2cell = cell + 1;
-            int check2row = row - 1;
-            int check3cell = cell - 1;
-            int check3row = row + 1;
-            int check4cell = cell + 1;
-            int check4row = row + 1;
-            if(!(check1cell - 1 == start.getCell() && check1row - 1 == start.getRow())){
-                if(check1cell <= 6 && check1cell >= 1 && check1row <=6 && check1row >=1){
-                    if(board.getRow(check1row).getSpace(check1cell).getPiece() != null){
-                        if(board.getRow(check1row).getSpace(check1cell).getPiece().getColor() != game.getActiveColor()){
-                            if(board.getRow(check1row - 1).getSpace(check1cell - 1).isValid()){
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
-            if(!(check2cell + 1 == start.getCell() && check2row - 1 == start.getRow())){
-                if(check2cell <= 6 && check2cell >= 1 && check2row <=6 && check2row >=1){
-                    if(board.getRow(check2row).getSpace(check2cell).getPiece() != null){
-                        if(board.getRow(check2row).getSpace(check2cell).getPiece().getColor() != game.getActiveColor()){
-                            if(board.getRow(check2row - 1).getSpace(check2cell + 1).isValid()){
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
-            if(!(check3cell - 1 == start.getCell() && check3row + 1 == start.getRow())){
-                if(check3cell <= 6 && check3cell >= 1 && check3row <=6 && check3row >=1){
-                    if(board.getRow(check3row).getSpace(check3cell).getPiece() != null){
-                        if(board.getRow(check3row).getSpace(check3cell).getPiece().getColor() != game.getActiveColor()){
-                            if(board.getRow(check3row + 1).getSpace(check3cell - 1).isValid()){
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
-            if(!(check4cell + 1 == start.getCell() && check4row + 1 == start.getRow())){
-                if(check4cell <= 6 && check4cell >= 1 && check4row <=6 && check4row >=1){
-                    if(board.getRow(check4row).getSpace(check4cell).getPiece() != null){
-                        if(board.getRow(check4row).getSpace(check4cell).getPiece().getColor() != game.getActiveColor()){
-                            if(board.getRow(check4row + 1).getSpace(check4cell + 1).isValid()){
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
+        int square = board.toSquare(row, cell);
+        if(square < 0){
             return false;
         }
+        return LegalMoveGenerator.canJump(board.getBitboard(), square, game.getActiveColor(),
+                type == Piece.Type.KING);
     }
 }
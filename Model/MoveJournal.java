@@ -0,0 +1,657 @@
+/*
+Filename: MoveJournal.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * The journal every live game writes what it does to, so the games in progress can be
+ * rebuilt after the server restarts or crashes: a game starting, every move accepted,
+ * every move taken back, every turn submitted, a resignation, a win, and the game
+ * being ended. Records are only ever appended, to segment files in one directory,
+ * and a new segment is started whenever the journal is opened or a segment is full.
+ *
+ * Appending a record only copies it into a buffer. One writer thread writes whatever
+ * has been buffered and then forces it to the disk, so all the moves made while one
+ * batch is being forced share the next force: thousands of moves a second cost one
+ * fsync per batch rather than one each. sync() waits until everything appended so
+ * far is on the disk.
+ *
+ * Each record is its length, a CRC32 of its body, and the body: its type, the game's
+ * identifier and what it is about. A record that was torn by a crash fails its check,
+ * and reading its segment stops there.
+ *
+ * So that it doesn't grow forever, roll() starts a new segment on demand, and once
+ * everything before a segment is kept somewhere else, such as in a snapshot, the
+ * segments before it are deleted with deleteBefore(). A mark record says where a
+ * game's state was taken for the snapshot that starts at a segment.
+ */
+public class MoveJournal implements Closeable {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(MoveJournal.class.getName());
+
+    /** How large a segment may grow before a new one is started, in bytes */
+    static final long SEGMENT_BYTES = 64L * 1024 * 1024;
+    /** The largest body a record can have, in bytes, with two names of the longest length */
+    private static final int MAX_RECORD_BYTES = 5 + 2 * (2 + 0xFFFF);
+    /** The start of the name of every segment file */
+    private static final String SEGMENT_PREFIX = "moves-";
+    /** The end of the name of every segment file */
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final byte START = 1;
+    private static final byte MOVE = 2;
+    private static final byte UNDO = 3;
+    private static final byte SUBMIT = 4;
+    private static final byte RESIGN = 5;
+    private static final byte WIN = 6;
+    private static final byte END = 7;
+    private static final byte MARK = 8;
+
+    /**
+     * What is told the records of a journal as it is read, in the order they were appended.
+     */
+    public interface Reader {
+        /**
+         * a game started
+         * @param gameID the game's identifier
+         * @param red the name of the red player
+         * @param white the name of the white player
+         */
+        void start(int gameID, String red, String white);
+
+        /**
+         * a move was accepted
+         * @param gameID the game's identifier
+         * @param color the color of the player who moved
+         * @param start where the piece started, on that player's side of the board
+         * @param end where the piece ended, on that player's side of the board
+         */
+        void move(int gameID, Player.Color color, Position start, Position end);
+
+        /**
+         * the last move of the turn was taken back
+         * @param gameID the game's identifier
+         */
+        void undo(int gameID);
+
+        /**
+         * a turn was submitted
+         * @param gameID the game's identifier
+         */
+        void submit(int gameID);
+
+        /**
+         * a player resigned
+         * @param gameID the game's identifier
+         * @param color the color of the player who resigned
+         */
+        void resign(int gameID, Player.Color color);
+
+        /**
+         * the game was ended with a winner
+         * @param gameID the game's identifier
+         * @param color the color of the winner
+         */
+        void win(int gameID, Player.Color color);
+
+        /**
+         * the game was taken off the server
+         * @param gameID the game's identifier
+         */
+        void end(int gameID);
+
+        /**
+         * the game's state was taken for a snapshot; everything after this is newer than it
+         * @param gameID the game's identifier
+         * @param segment the segment the snapshot starts at
+         */
+        void mark(int gameID, long segment);
+    }
+
+    /** This is the directory the segments are in */
+    private final File directory;
+    /** This guards the buffers and the counts, and is waited on for the writer */
+    private final Object lock = new Object();
+    /** These are the records appended but not yet handed to the writer */
+    private Buffer pending = new Buffer();
+    /** This is the buffer the writer hands back, so the two are swapped rather than copied */
+    private Buffer spare = new Buffer();
+    /** This is the number of records appended */
+    private long appended;
+    /** This is the number of records on the disk */
+    private long durable;
+    /** This is the error the writer failed with; null if it hasn't */
+    private IOException failure;
+    /** This condition tells whether the journal has been closed */
+    private boolean closed;
+    /** This condition tells whether a new segment has been asked for and not yet started */
+    private boolean rollRequested;
+    /** This is where in the pending records the new segment asked for starts */
+    private int rollOffset;
+    /** This is the number of the segment started when one was last asked for */
+    private long rolledTo;
+    /** This is the number of the segment being written */
+    private long segment;
+    /** This is the segment being written */
+    private FileOutputStream out;
+    /** This is the number of bytes written to the segment */
+    private long segmentBytes;
+    /** This is the thread the records are written on */
+    private final Thread writer;
+
+    /**
+     * This is the Constructor for a MoveJournal. It starts a new segment after the ones
+     * already in the directory, which should have been read first.
+     * @param directory the directory the segments are in; it is made if it doesn't exist.
+     * @throws IOException when the directory or the new segment can't be made
+     */
+    public MoveJournal(File directory) throws IOException{
+        this.directory = directory;
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            throw new IOException("The journal directory " + directory + " couldn't be made.");
+        }
+        List<Long> segments = segments(directory);
+        this.segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        this.out = new FileOutputStream(segmentFile(directory, segment));
+        this.writer = new Thread(this::writeLoop, "move-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * reads the records in a journal's directory, oldest first
+     * @param directory the directory the segments are in
+     * @param firstSegment the number of the first segment to read; the ones before it are skipped
+     * @param reader what is told the records
+     * @return the number of records read
+     * @throws IOException when a segment can't be read
+     */
+    public static long read(File directory, long firstSegment, Reader reader) throws IOException{
+        long count = 0;
+        for(long number : segments(directory)){
+            if(number < firstSegment){
+                continue;
+            }
+            File file = segmentFile(directory, number);
+            try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))){
+                while(true){
+                    byte[] body;
+                    try {
+                        int length = in.readInt();
+                        int crc = in.readInt();
+                        if(length < 5 || length > MAX_RECORD_BYTES){
+                            LOG.warning("the journal segment " + file.getName() + " has a bad record after " + count + " records");
+                            break;
+                        }
+                        body = new byte[length];
+                        in.readFully(body);
+                        if(crc(body) != crc){
+                            LOG.warning("the journal segment " + file.getName() + " has a torn record after " + count + " records");
+                            break;
+                        }
+                    }
+                    catch(EOFException e){
+                        break;
+                    }
+                    dispatch(ByteBuffer.wrap(body), reader);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * tells a reader one record
+     * @param body the body of the record
+     * @param reader the reader
+     */
+    private static void dispatch(ByteBuffer body, Reader reader){
+        byte type = body.get();
+        int gameID = body.getInt();
+        switch(type){
+            case START:
+                reader.start(gameID, getName(body), getName(body));
+                break;
+            case MOVE:
+                Player.Color color = Player.Color.values()[body.get()];
+                Position start = new Position(body.get(), body.get());
+                Position end = new Position(body.get(), body.get());
+                reader.move(gameID, color, start, end);
+                break;
+            case UNDO:
+                reader.undo(gameID);
+                break;
+            case SUBMIT:
+                reader.submit(gameID);
+                break;
+            case RESIGN:
+                reader.resign(gameID, Player.Color.values()[body.get()]);
+                break;
+            case WIN:
+                reader.win(gameID, Player.Color.values()[body.get()]);
+                break;
+            case END:
+                reader.end(gameID);
+                break;
+            case MARK:
+                reader.mark(gameID, body.getLong());
+                break;
+            default:
+                LOG.warning("skipped a journal record of unknown type " + type);
+        }
+    }
+
+    /**
+     * appends that a game started
+     * @param gameID the game's identifier
+     * @param red the name of the red player
+     * @param white the name of the white player
+     * @throws IllegalArgumentException when a name is longer than a record can hold
+     */
+    public void appendStart(int gameID, String red, String white){
+        byte[] redName = red.getBytes(StandardCharsets.UTF_8);
+        byte[] whiteName = white.getBytes(StandardCharsets.UTF_8);
+        if(redName.length > 0xFFFF || whiteName.length > 0xFFFF){
+            throw new IllegalArgumentException("A player's name is too long to journal.");
+        }
+        ByteBuffer body = record(START, gameID, 4 + redName.length + whiteName.length);
+        body.putShort((short)redName.length).put(redName);
+        body.putShort((short)whiteName.length).put(whiteName);
+        append(body);
+    }
+
+    /**
+     * appends that a move was accepted
+     * @param gameID the game's identifier
+     * @param color the color of the player who moved
+     * @param move the move, on that player's side of the board
+     */
+    public void appendMove(int gameID, Player.Color color, Move move){
+        ByteBuffer body = record(MOVE, gameID, 5);
+        body.put((byte)color.ordinal());
+        body.put((byte)move.getStart().getRow()).put((byte)move.getStart().getCell());
+        body.put((byte)move.getEnd().getRow()).put((byte)move.getEnd().getCell());
+        append(body);
+    }
+
+    /**
+     * appends that the last move of the turn was taken back
+     * @param gameID the game's identifier
+     */
+    public void appendUndo(int gameID){
+        append(record(UNDO, gameID, 0));
+    }
+
+    /**
+     * appends that a turn was submitted
+     * @param gameID the game's identifier
+     */
+    public void appendSubmit(int gameID){
+        append(record(SUBMIT, gameID, 0));
+    }
+
+    /**
+     * appends that a player resigned
+     * @param gameID the game's identifier
+     * @param color the color of the player who resigned
+     */
+    public void appendResign(int gameID, Player.Color color){
+        append(record(RESIGN, gameID, 1).put((byte)color.ordinal()));
+    }
+
+    /**
+     * appends that the game was ended with a winner
+     * @param gameID the game's identifier
+     * @param color the color of the winner
+     */
+    public void appendWin(int gameID, Player.Color color){
+        append(record(WIN, gameID, 1).put((byte)color.ordinal()));
+    }
+
+    /**
+     * appends that the game was taken off the server
+     * @param gameID the game's identifier
+     */
+    public void appendEnd(int gameID){
+        append(record(END, gameID, 0));
+    }
+
+    /**
+     * appends that a game's state was taken for a snapshot
+     * @param gameID the game's identifier
+     * @param segment the segment the snapshot starts at
+     */
+    public void appendMark(int gameID, long segment){
+        append(record(MARK, gameID, 8).putLong(segment));
+    }
+
+    /**
+     * starts a new segment; everything appended before this is in the segments before it,
+     * and everything appended after it is in it or later ones
+     * @return the number of the new segment
+     * @throws IOException when the new segment can't be made
+     */
+    public long roll() throws IOException{
+        synchronized(lock){
+            try {
+                while(rollRequested){
+                    lock.wait();
+                }
+                if(closed){
+                    throw new IOException("The journal is closed.");
+                }
+                rollRequested = true;
+                rollOffset = pending.size();
+                lock.notifyAll();
+                while(rollRequested){
+                    lock.wait();
+                }
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted waiting for the journal");
+            }
+            if(failure != null){
+                throw failure;
+            }
+            return rolledTo;
+        }
+    }
+
+    /**
+     * deletes the segments before a segment, once what is in them is kept somewhere else
+     * @param segment the number of the first segment to keep
+     * @return the number of segments deleted
+     */
+    public int deleteBefore(long segment){
+        int deleted = 0;
+        for(long number : segments(directory)){
+            if(number >= segment){
+                break;
+            }
+            if(segmentFile(directory, number).delete()){
+                deleted++;
+            }
+            else{
+                LOG.warning("the journal segment " + number + " couldn't be deleted");
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * waits until every record appended so far is on the disk
+     * @throws IOException when the records couldn't be written, or the wait was interrupted
+     */
+    public void sync() throws IOException{
+        synchronized(lock){
+            long target = appended;
+            while(durable < target && failure == null){
+                try {
+                    lock.wait();
+                }
+                catch(InterruptedException e){
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted waiting for the journal");
+                }
+            }
+            if(failure != null){
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * writes what is left and stops the writer
+     * @throws IOException when what is left couldn't be written
+     */
+    @Override
+    public void close() throws IOException{
+        synchronized(lock){
+            if(closed){
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        synchronized(lock){
+            out.close();
+            if(failure != null){
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * starts the body of a record
+     * @param type the type of the record
+     * @param gameID the game's identifier
+     * @param size the size of what follows the identifier, in bytes
+     * @return the body, to be filled in
+     */
+    private static ByteBuffer record(byte type, int gameID, int size){
+        ByteBuffer record = ByteBuffer.allocate(8 + 5 + size);
+        record.position(8);
+        return record.put(type).putInt(gameID);
+    }
+
+    /**
+     * adds the length and check to a record and buffers it for the writer
+     * @param record the record, with its body filled in
+     */
+    private void append(ByteBuffer record){
+        byte[] bytes = record.array();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 8, bytes.length - 8);
+        record.putInt(0, bytes.length - 8);
+        record.putInt(4, (int)crc.getValue());
+        synchronized(lock){
+            if(closed){
+                LOG.warning("a record was appended to the journal after it was closed");
+                return;
+            }
+            pending.write(bytes, 0, bytes.length);
+            appended++;
+            if(pending.size() == bytes.length){
+                // the writer only waits when there was nothing to write
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * writes the buffered records, a batch at a time, and forces each batch to the disk
+     */
+    private void writeLoop(){
+        while(true){
+            Buffer batch;
+            long count;
+            int rollAt;
+            synchronized(lock){
+                while(pending.size() == 0 && !rollRequested && !closed){
+                    try {
+                        lock.wait();
+                    }
+                    catch(InterruptedException e){
+                        LOG.warning("the journal writer was interrupted");
+                    }
+                }
+                if(pending.size() == 0 && !rollRequested){
+                    return;
+                }
+                batch = pending;
+                pending = spare;
+                count = appended;
+                rollAt = rollRequested ? rollOffset : -1;
+            }
+            try {
+                if(rollAt >= 0){
+                    // what was appended before the roll goes in the old segment, the rest in the new one
+                    write(batch, 0, rollAt);
+                    startSegment();
+                    write(batch, rollAt, batch.size());
+                }
+                else{
+                    write(batch, 0, batch.size());
+                }
+                if(segmentBytes >= SEGMENT_BYTES){
+                    startSegment();
+                }
+            }
+            catch(IOException e){
+                LOG.severe("the journal couldn't be written: " + e.getMessage());
+                synchronized(lock){
+                    failure = e;
+                }
+            }
+            batch.reset();
+            synchronized(lock){
+                spare = batch;
+                durable = count;
+                if(rollAt >= 0){
+                    rollRequested = false;
+                    rolledTo = segment;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * writes part of a batch to the segment and forces it to the disk; runs on the writer thread
+     * @param batch the batch
+     * @param from where the part starts
+     * @param to where the part ends
+     * @throws IOException when it can't be written
+     */
+    private void write(Buffer batch, int from, int to) throws IOException{
+        if(from < to){
+            batch.writeTo(out, from, to);
+            out.getChannel().force(false);
+            segmentBytes += to - from;
+        }
+    }
+
+    /**
+     * closes the segment and starts the next one; runs on the writer thread
+     * @throws IOException when the new segment can't be made
+     */
+    private void startSegment() throws IOException{
+        out.close();
+        segment++;
+        out = new FileOutputStream(segmentFile(directory, segment));
+        segmentBytes = 0;
+    }
+
+    /**
+     * gets the numbers of the segments in a directory, oldest first
+     * @param directory the directory
+     * @return the numbers
+     */
+    private static List<Long> segments(File directory){
+        List<Long> numbers = new ArrayList<>();
+        String[] names = directory.list();
+        if(names == null){
+            return numbers;
+        }
+        for(String name : names){
+            if(name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)){
+                try {
+                    numbers.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                }
+                catch(NumberFormatException e){
+                    LOG.fine("ignored " + name + " in the journal directory");
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    /**
+     * gets the file of a segment
+     * @param directory the directory the segments are in
+     * @param number the number of the segment
+     * @return the file
+     */
+    private static File segmentFile(File directory, long number){
+        return new File(directory, SEGMENT_PREFIX + String.format("%010d", number) + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * reads a name written by appendStart
+     * @param body the body of the record
+     * @return the name
+     */
+    private static String getName(ByteBuffer body){
+        byte[] name = new byte[body.getShort() & 0xFFFF];
+        body.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * gets the CRC32 of a record's body
+     * @param body the body
+     * @return the check
+     */
+    private static int crc(byte[] body){
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        return (int)crc.getValue();
+    }
+
+    /**
+     * This class is a buffer of records that can write part of itself.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        private Buffer(){
+            super(64 * 1024);
+        }
+
+        /**
+         * writes part of what is buffered
+         * @param out where to write it
+         * @param from where the part starts
+         * @param to where the part ends
+         * @throws IOException when it can't be written
+         */
+        private synchronized void writeTo(OutputStream out, int from, int to) throws IOException{
+            out.write(buf, from, to - from);
+        }
+    }
+}
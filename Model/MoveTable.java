@@ -0,0 +1,80 @@
+/*
+Filename: MoveTable.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class holds lookup tables of the neighbours and jump landing squares of each
+ * of the 32 playable squares, so move generation never has to work out coordinates
+ * or check the edges of the board. Squares are numbered as in Bitboard.
+ */
+public final class MoveTable {
+    /** The direction toward row 0 and cell 0 */
+    public static final int UP_LEFT = 0;
+    /** The direction toward row 0 and cell 7 */
+    public static final int UP_RIGHT = 1;
+    /** The direction toward row 7 and cell 0 */
+    public static final int DOWN_LEFT = 2;
+    /** The direction toward row 7 and cell 7 */
+    public static final int DOWN_RIGHT = 3;
+
+    /** The kind of piece that is a red man */
+    public static final int RED_MAN = 0;
+    /** The kind of piece that is a white man */
+    public static final int WHITE_MAN = 1;
+    /** The kind of piece that is a king of either color */
+    public static final int KING = 2;
+
+    /** The directions each kind of piece can move in */
+    static final int[][] DIRECTIONS = {
+            {UP_LEFT, UP_RIGHT},
+            {DOWN_LEFT, DOWN_RIGHT},
+            {UP_LEFT, UP_RIGHT, DOWN_LEFT, DOWN_RIGHT}
+    };
+
+    /** The square next to each square in each direction; -1 if it is off the board */
+    static final int[][] NEIGHBOUR = new int[4][Bitboard.SQUARES];
+    /** The square a jump from each square in each direction lands on; -1 if it is off the board */
+    static final int[][] JUMP = new int[4][Bitboard.SQUARES];
+
+    static {
+        int[] rowStep = {-1, -1, 1, 1};
+        int[] cellStep = {-1, 1, -1, 1};
+        for(int square = 0; square < Bitboard.SQUARES; square++){
+            int row = Bitboard.row(square);
+            int cell = Bitboard.cell(square);
+            for(int direction = 0; direction < 4; direction++){
+                NEIGHBOUR[direction][square] = Bitboard.square(row + rowStep[direction], cell + cellStep[direction]);
+                JUMP[direction][square] = Bitboard.square(row + 2 * rowStep[direction], cell + 2 * cellStep[direction]);
+            }
+        }
+    }
+
+    /**
+     * This class only holds static tables, so it can't be constructed.
+     */
+    private MoveTable(){
+    }
+
+    /**
+     * gets the kind of a piece for looking up the tables
+     * @param color the color of the piece
+     * @param king whether the piece is a king
+     * @return RED_MAN, WHITE_MAN or KING
+     */
+    public static int kind(Player.Color color, boolean king){
+        if(king){
+            return KING;
+        }
+        return color == Player.Color.RED ? RED_MAN : WHITE_MAN;
+    }
+}
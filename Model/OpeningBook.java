@@ -0,0 +1,246 @@
+/*
+Filename: OpeningBook.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class is an opening book learned from finished games. For each position reached
+ * in the first BOOK_TURNS turns of a game it remembers which turns were played and how
+ * often the side that played them went on to win, draw or lose, so the computer can
+ * answer the opening straight from the book instead of searching.
+ *
+ * Positions are keyed by their Zobrist hash, with Zobrist.SIDE mixed in when white is
+ * to move, as in GameModel.getPositionHash(). The turns of a position are kept in one
+ * long[] of pairs: the turn's key, as described in Turn, then its counts packed into a
+ * long, COUNT_BITS bits each for wins, draws and losses.
+ *
+ * A game is added when it is archived. Lookups take no locks; adding a game copies the
+ * arrays it changes and swaps them in, so a lookup always sees a whole entry.
+ */
+public class OpeningBook {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(OpeningBook.class.getName());
+    /** The number of turns from the start of a game that are kept in the book */
+    public static final int BOOK_TURNS = 16;
+    /** The fewest times a turn has to have been played for the book to suggest it */
+    static final int MIN_GAMES = 2;
+    /** The returned turn when the book has nothing to suggest */
+    public static final long NO_TURN = -1;
+    /** The number of bits of each count */
+    private static final int COUNT_BITS = 21;
+    /** The largest count; counts stop there */
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    /** The shift of the count of wins */
+    private static final int WINS = 0;
+    /** The shift of the count of draws */
+    private static final int DRAWS = COUNT_BITS;
+    /** The shift of the count of losses */
+    private static final int LOSSES = 2 * COUNT_BITS;
+
+    /** These are the turns played from each position, by the position's hash */
+    private final ConcurrentHashMap<Long, long[]> positions = new ConcurrentHashMap<>();
+    /** This is the number of games added */
+    private int games;
+
+    /**
+     * This method adds the opening of a finished game to the book. The game is replayed
+     * from its move history; it stops at the first turn that isn't a whole legal turn,
+     * such as a turn that wasn't finished when the game ended.
+     * @param game the finished game
+     */
+    public synchronized void addGame(GameModel game){
+        Player.Color winner = getWinner(game);
+        List<Move> history = game.getMoveHistory();
+        Bitboard board = new Bitboard();
+        Player.Color color = Player.Color.RED;
+        int next = 0;
+        for(int turns = 0; turns < BOOK_TURNS && next < history.size(); turns++){
+            // the steps of one turn are the moves in a row made by the same player
+            List<Move> steps = new ArrayList<>();
+            while(next < history.size() && history.get(next).getPlayerColor() == color){
+                steps.add(history.get(next++));
+            }
+            Turn turn = find(board, color, steps);
+            if(turn == null){
+                break;
+            }
+            int shift = winner == null ? DRAWS : winner == color ? WINS : LOSSES;
+            record(hash(board, color), turn.getKey(), shift);
+            board.play(turn.getKey() | (turn.isPromotion() ? Turn.PROMOTES : 0));
+            color = color == Player.Color.RED ? Player.Color.WHITE : Player.Color.RED;
+        }
+        games++;
+        LOG.fine("opening book has " + positions.size() + " positions from " + games + " games");
+    }
+
+    /**
+     * This method picks the turn the book likes best in a position: the turn with the
+     * best score, counting a draw as half a win, of those played at least MIN_GAMES times.
+     * @param board the position
+     * @param color the color of the side to move
+     * @return the turn's key, NO_TURN if the book has no turn that wins at least half the time
+     */
+    public long getBestTurn(Bitboard board, Player.Color color){
+        long[] entry = positions.get(hash(board, color));
+        if(entry == null){
+            return NO_TURN;
+        }
+        long best = NO_TURN;
+        double bestScore = 0.5;
+        for(int i = 0; i < entry.length; i += 2){
+            long counts = entry[i + 1];
+            long played = count(counts, WINS) + count(counts, DRAWS) + count(counts, LOSSES);
+            if(played < MIN_GAMES){
+                continue;
+            }
+            double score = (count(counts, WINS) + count(counts, DRAWS) / 2.0) / played;
+            if(score >= bestScore){
+                bestScore = score;
+                best = entry[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * gets the counts of a turn from a position
+     * @param board the position
+     * @param color the color of the side to move
+     * @param key the key of the turn
+     * @return the number of wins, draws and losses of the side that played it; all
+     * zero if it isn't in the book
+     */
+    public int[] getCounts(Bitboard board, Player.Color color, long key){
+        long[] entry = positions.get(hash(board, color));
+        if(entry != null){
+            for(int i = 0; i < entry.length; i += 2){
+                if(entry[i] == key){
+                    long counts = entry[i + 1];
+                    return new int[]{count(counts, WINS), count(counts, DRAWS), count(counts, LOSSES)};
+                }
+            }
+        }
+        return new int[3];
+    }
+
+    /**
+     * gets the number of positions in the book
+     * @return the number of positions
+     */
+    public int size(){
+        return positions.size();
+    }
+
+    /**
+     * gets the number of games that have been added
+     * @return the number of games
+     */
+    public synchronized int getGames(){
+        return games;
+    }
+
+    /**
+     * adds one to a count of a turn, copying the entry so lookups never see it half changed
+     * @param hash the hash of the position
+     * @param key the key of the turn
+     * @param shift the shift of the count
+     */
+    private void record(long hash, long key, int shift){
+        long[] entry = positions.get(hash);
+        long[] changed;
+        int i = 0;
+        if(entry == null){
+            changed = new long[2];
+        }
+        else{
+            while(i < entry.length && entry[i] != key){
+                i += 2;
+            }
+            changed = i < entry.length ? entry.clone() : Arrays.copyOf(entry, entry.length + 2);
+        }
+        changed[i] = key;
+        if(((changed[i + 1] >>> shift) & COUNT_MASK) != COUNT_MASK){
+            changed[i + 1] += 1L << shift;
+        }
+        positions.put(hash, changed);
+    }
+
+    /**
+     * finds the legal turn made up of some moves
+     * @param board the position before the turn
+     * @param color the color of the side that made the moves
+     * @param steps the moves, on that side's side of the board
+     * @return the turn, null if the moves aren't a whole legal turn
+     */
+    private static Turn find(Bitboard board, Player.Color color, List<Move> steps){
+        if(steps.isEmpty()){
+            return null;
+        }
+        int[] path = new int[steps.size() + 1];
+        path[0] = Bitboard.square(steps.get(0).getStart(), color);
+        for(int i = 0; i < steps.size(); i++){
+            path[i + 1] = Bitboard.square(steps.get(i).getEnd(), color);
+        }
+        for(Turn turn : LegalMoveGenerator.legalTurns(board, color)){
+            if(Arrays.equals(turn.getPath(), path)){
+                return turn;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * works out who won a finished game
+     * @param game the game
+     * @return the color of the winner, null if nobody won
+     */
+    private static Player.Color getWinner(GameModel game){
+        Player.Color resigned = game.playerResigned();
+        if(resigned != null){
+            return resigned == Player.Color.RED ? Player.Color.WHITE : Player.Color.RED;
+        }
+        Bitboard board = game.getSubmittedPosition();
+        if(board.count(Player.Color.WHITE) == 0){
+            return Player.Color.RED;
+        }
+        if(board.count(Player.Color.RED) == 0){
+            return Player.Color.WHITE;
+        }
+        return null;
+    }
+
+    /**
+     * gets the key of a position in the book
+     * @param board the position
+     * @param color the color of the side to move
+     * @return the hash of the position and the side to move
+     */
+    private static long hash(Bitboard board, Player.Color color){
+        return color == Player.Color.WHITE ? board.getHash() ^ Zobrist.SIDE : board.getHash();
+    }
+
+    /**
+     * gets one count out of packed counts
+     * @param counts the packed counts
+     * @param shift the shift of the count
+     * @return the count
+     */
+    private static int count(long counts, int shift){
+        return (int) ((counts >>> shift) & COUNT_MASK);
+    }
+}
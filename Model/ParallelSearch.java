@@ -0,0 +1,142 @@
+/*
+Filename: ParallelSearch.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class searches for a turn on several threads at once ("lazy SMP"). The main
+ * AlphaBetaSearch forks helper searches onto a work-stealing ForkJoinPool; every search
+ * shares one TranspositionTable, so the helpers fill it with results the main search
+ * can use, and the main search's turn is played. They also share one EndgameTablebase.
+ *
+ * Helpers only run on threads of the pool that are idle. When every thread is busy,
+ * as when many computer games are being played at once, the helpers are never stolen
+ * and the main search runs alone, so the pool's size caps the threads used by all
+ * searches together.
+ */
+public class ParallelSearch {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(ParallelSearch.class.getName());
+
+    /** These are the threads the searches run on */
+    private final ForkJoinPool pool;
+    /** This is the table shared by every search */
+    private final TranspositionTable table;
+    /** This is the tablebase shared by every search; may be null */
+    private final EndgameTablebase tablebase;
+    /** This is the number of helper searches forked next to the main search */
+    private final int helpers;
+    /** This is the number of positions the last search looked at, on all threads */
+    private long nodes;
+    /** This is the depth the main search finished last time */
+    private int completedDepth;
+
+    /**
+     * This is the Constructor for a ParallelSearch.
+     * @param pool the threads the searches run on.
+     * @param table the table shared by every search.
+     * @param tablebase the tablebase shared by every search; null for none.
+     */
+    public ParallelSearch(ForkJoinPool pool, TranspositionTable table, EndgameTablebase tablebase){
+        this.pool = pool;
+        this.table = table;
+        this.tablebase = tablebase;
+        this.helpers = pool.getParallelism() - 1;
+    }
+
+    /**
+     * This method searches for the best turn for one side.
+     * @param board the position to search; it isn't changed
+     * @param color the color of the side to move
+     * @param millis how long the search may take, in milliseconds
+     * @return the best turn, packed as described in Turn; AlphaBetaSearch.NO_TURN if
+     * the side can't move
+     */
+    public long search(Bitboard board, Player.Color color, long millis){
+        SearchTask task = new SearchTask(board, color, millis);
+        if(ForkJoinTask.getPool() == pool){
+            return task.invoke();
+        }
+        return pool.invoke(task);
+    }
+
+    /**
+     * gets the number of positions the last search looked at
+     * @return the number of nodes, on all threads
+     */
+    public long getNodes(){
+        return nodes;
+    }
+
+    /**
+     * gets the depth of the deepest search the main search finished last time
+     * @return the depth in turns
+     */
+    public int getCompletedDepth(){
+        return completedDepth;
+    }
+
+    /**
+     * This class is the task that runs the main search and forks the helpers.
+     */
+    private class SearchTask extends RecursiveTask<Long> {
+        /** This is the version of the task's serialized form */
+        private static final long serialVersionUID = 1L;
+        /** This is the position to search */
+        private final Bitboard board;
+        /** This is the color of the side to move */
+        private final Player.Color color;
+        /** This is how long the search may take, in milliseconds */
+        private final long millis;
+
+        private SearchTask(Bitboard board, Player.Color color, long millis){
+            this.board = board;
+            this.color = color;
+            this.millis = millis;
+        }
+
+        @Override
+        protected Long compute(){
+            List<AlphaBetaSearch> searches = new ArrayList<>(helpers);
+            List<ForkJoinTask<Long>> forked = new ArrayList<>(helpers);
+            for(int i = 1; i <= helpers; i++){
+                AlphaBetaSearch helper = new AlphaBetaSearch(table, tablebase, i);
+                searches.add(helper);
+                forked.add(ForkJoinTask.adapt(() -> helper.search(board, color, millis)).fork());
+            }
+
+            AlphaBetaSearch main = new AlphaBetaSearch(table, tablebase, 0);
+            long best = main.search(board, color, millis);
+
+            // helpers nobody stole are run here, and stop right away
+            long total = main.getNodes();
+            for(int i = 0; i < helpers; i++){
+                searches.get(i).stop();
+            }
+            for(int i = 0; i < helpers; i++){
+                forked.get(i).join();
+                total += searches.get(i).getNodes();
+            }
+            nodes = total;
+            completedDepth = main.getCompletedDepth();
+            LOG.fine("searched " + total + " nodes on " + (helpers + 1) + " searches to depth " + completedDepth);
+            return best;
+        }
+    }
+}
@@ -13,7 +13,9 @@ package com.webcheckers.Model;
  * @author Joseph Becker
  * @author Julie Sojkowski
  *
- * This class holds all the game-state data for a single Piece in the WebChecker's game.
+ * This class describes a single Piece in the WebChecker's game. The board itself is
+ * held by a Bitboard, so a Piece is a description of what is on a Space rather than
+ * the piece itself; changing it does not change the board.
  */
 public class Piece{
     /** This enum holds the different types of Piece there are */
@@ -32,6 +34,16 @@ public class Piece{
         this.type = Type.SINGLE;
     }
 
+    /**
+     * This is the Constructor for a Piece object of a given type.
+     * @param color the Color of the Piece.
+     * @param type the Type of the Piece.
+     */
+    public Piece(Player.Color color, Type type){
+        this.color = color;
+        this.type = type;
+    }
+
     /**
      * gets the color of a piece
      * @return Player.Color the color
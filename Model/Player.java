@@ -27,9 +27,9 @@ public class Player {
     /** This is the Color of the Player */
     private Color color;
     /** This is the mode of the Player */
-    private Mode viewMode;
+    private volatile Mode viewMode;
     /** This is the identifier for the game the player is in, if they are in a game */
-    private int gameID;
+    private volatile int gameID;
 
     private Boolean lastMove;
 
@@ -50,6 +50,8 @@ public class Player {
      */
     public void setViewMode(Mode mode){
         this.viewMode = mode;
+        // only the players of a game are listed as playing it, not its spectators
+        LobbyModel.updatePlayer(this);
     }
 
     public boolean getNewMove(){
@@ -144,6 +146,8 @@ public class Player {
      */
     public void setGameID(int gameID){
         this.gameID = gameID;
+        // the lobby lists the games being played and the players waiting for one
+        LobbyModel.updatePlayer(this);
     }
 
     /**
@@ -17,44 +17,22 @@ import java.util.List;
  * @author Joseph Becker
  * @author Julie Sojkowski
  *
- * This class holds all the game-state data for a Row of the board in a WebCheckers's game.
+ * This class is a view of a Row of the board in a WebCheckers's game.
  */
 public class Row implements Iterable<Space>{
-    /** This is a list of the spaces in this row */
-    private List<Space> spaces;
+    /** This is the board view this Row belongs to */
+    private final BoardView board;
     /** This is the position of this Row on the WebChecker's game's board */
-    private int index;
+    private final int index;
 
     /**
-     * Creates an ArrayList of spaces alternating black or white, and sets pieces
-     * on spaces of the Row where necessary.
-     * @param rowStartBlack if the row should start black or not
-     * @param index the x coordinate of the row
-     * @param pieceColor the color of the piece on the for the space in the row to have (if applicable)
+     * Creates a view of one row of a board.
+     * @param board the board view the row belongs to
+     * @param index the y coordinate of the row
      */
-    public Row(boolean rowStartBlack, int index, Player.Color pieceColor){
-        this.spaces = new ArrayList<>(8);
+    public Row(BoardView board, int index){
+        this.board = board;
         this.index = index;
-        if(rowStartBlack){
-            for(int i = 1; i <= 8; i++){
-                if(i%2 == 1){
-                    spaces.add(new Space(Space.Color.BLACK, i - 1, pieceColor));
-                }
-                else{
-                    spaces.add(new Space(Space.Color.WHITE, i - 1, pieceColor));
-                }
-            }
-        }
-        else{
-            for(int i = 1; i <= 8; i++){
-                if(i%2 == 1){
-                    spaces.add(new Space(Space.Color.WHITE, i - 1, pieceColor));
-                }
-                else{
-                    spaces.add(new Space(Space.Color.BLACK, i - 1, pieceColor));
-                }
-            }
-        }
     }
 
     /**
@@ -62,6 +40,10 @@ public class Row implements Iterable<Space>{
      * @return the list of spaces
      */
     public List<Space> getSpaces() {
+        List<Space> spaces = new ArrayList<>(BoardView.SIZE);
+        for(int i = 0; i < BoardView.SIZE; i++){
+            spaces.add(new Space(board, index, i));
+        }
         return spaces;
     }
 
@@ -71,14 +53,14 @@ public class Row implements Iterable<Space>{
      * @return the space at teh index
      */
     public Space getSpace(int i) {
-        return spaces.get(i);
+        return new Space(board, index, i);
     }
 
     /**
-     * get the x coordinate of a space
-     * @return  the x coordinate for the space
+     * get the y coordinate of the row
+     * @return  the y coordinate for the row
      */
-    public synchronized int getIndex(){
+    public int getIndex(){
         return index;
     }
 
@@ -87,7 +69,7 @@ public class Row implements Iterable<Space>{
      * @return the iterator
      */
     @Override
-    public synchronized Iterator<Space> iterator(){
-        return this.spaces.iterator();
+    public Iterator<Space> iterator(){
+        return getSpaces().iterator();
     }
 }
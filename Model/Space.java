@@ -13,48 +13,44 @@ package com.webcheckers.Model;
  * @author Joseph Becker
  * @author Julie Sojkowski
  *
- * This class holds all the game-state data for a Space on the board in a WebCheckers's game.
+ * This class is a view of a Space on the board in a WebCheckers's game.
  */
 public class Space{
     /** This enum holds the different colors a Space can be */
     public enum Color {BLACK, WHITE}
+    /** This is the board view this Space belongs to */
+    private final BoardView board;
+    /** This is the row index for this space on the board */
+    private final int row;
     /** This is the column index for this space on the board */
-    private int cellIdx;
-    /** This is the Color of this Space */
-    private Color color;
-    /** This is the Piece on this Space if there is one */
-    private Piece piece;
+    private final int cellIdx;
 
     /**
-     * This is the Constructor for a Space object.
-     * @param spaceColor the Color of this Space.
+     * This is the Constructor for a Space view.
+     * @param board the board view the Space belongs to.
+     * @param row the row index for this space on the board.
      * @param cellIdx the column index for this space on the board.
-     * @param pieceColor the Color of the Piece in this Space if there is one.
      */
-    public Space(Color spaceColor, int cellIdx, Player.Color pieceColor){
+    public Space(BoardView board, int row, int cellIdx){
+        this.board = board;
+        this.row = row;
         this.cellIdx = cellIdx;
-        this.color = spaceColor;
-        if(spaceColor == Color.BLACK && pieceColor != null){
-            this.piece = new Piece(pieceColor);
-        }
-        else{
-            this.piece = null;
-        }
     }
 
     /**
      * chekcks if a space is valid to move to
      * @return ture if the color is black and there is no piece on it
      */
-    public synchronized boolean isValid(){
-        return (this.color == Color.BLACK && this.piece == null);
+    public boolean isValid(){
+        int square = board.toSquare(row, cellIdx);
+        return square >= 0 && board.getBitboard().isEmpty(square);
     }
 
     /**
      * gets the x coordinate of a space
      * @return the x coordinate of the space
      */
-    public synchronized int getCellIdx(){
+    public int getCellIdx(){
         return cellIdx;
     }
 
@@ -62,23 +58,35 @@ public class Space{
      * gets the piece on the space
      * @return the piece, null if there is none
      */
-    public synchronized Piece getPiece(){
-        return this.piece;
+    public Piece getPiece(){
+        int square = board.toSquare(row, cellIdx);
+        if(square < 0){
+            return null;
+        }
+        return board.getBitboard().getPiece(square);
     }
 
     /**
      * sets the piece on the space
-     * @param piece the piece to put on the square
+     * @param piece the piece to put on the square, null to empty it
      * @return the piece moved
      */
-    public synchronized Piece setPiece(Piece piece){
-        this.piece = piece;
-        return this.piece;
+    public Piece setPiece(Piece piece){
+        int square = board.toSquare(row, cellIdx);
+        if(square >= 0){
+            if(piece == null){
+                board.getBitboard().remove(square);
+            }
+            else{
+                board.getBitboard().put(square, piece.getColor(), piece.getType() == Piece.Type.KING);
+            }
+        }
+        return piece;
     }
 
     /**
      * gets the color of the space
      * @return the color of the space
      */
-    public synchronized Color getColor() {return this.color;}
+    public Color getColor() {return ((row + cellIdx) & 1) == 1 ? Color.BLACK : Color.WHITE;}
 }
@@ -0,0 +1,379 @@
+/*
+Filename: TablebaseGenerator.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class solves every endgame with up to a given number of pieces and writes the
+ * files EndgameTablebase reads. It is run offline:
+ *
+ *     java com.webcheckers.Model.TablebaseGenerator [directory] [pieces]
+ *
+ * The directory defaults to the 'tablebaseDir' property and the pieces to 6.
+ *
+ * The moves come from LegalMoveGenerator, so the rules are the same as in Move. A side
+ * that can't move has lost; a position neither side can force a win from is a draw.
+ *
+ * Slices are solved from the fewest pieces up, and from the fewest men up within the
+ * same number of pieces, so a capture or a crowning always leads to a slice that is
+ * already solved. A simple move turns the position over to the other side, so each
+ * slice is solved together with the slice that has the colors swapped.
+ *
+ * A pair of slices is solved backwards from its ends. First every position's moves
+ * are looked at once, in parallel: moves that capture or crown leave the pair and their
+ * results are looked up, and the rest are counted. Then positions are settled in order of
+ * distance. When a position is settled as lost, every position that moves to it is won
+ * one turn later. When a position is settled as won, every position that moves to it has
+ * one fewer move left to try, and loses once it has none. The positions that move to a
+ * position are found by taking the last move back. Positions left at the end are draws.
+ */
+public class TablebaseGenerator {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(TablebaseGenerator.class.getName());
+    /** The number of pieces solved when none is given */
+    static final int DEFAULT_PIECES = 6;
+    /** The most pieces that can be solved; a 7 piece slice has more positions than a queued number can hold */
+    static final int MAX_PIECES = 6;
+
+    /** This is the directory the files are written to */
+    private final File directory;
+    /** This is the most pieces of any position solved */
+    private final int pieces;
+    /** This is the tablebase of the slices already solved */
+    private EndgameTablebase solved;
+    /** The count of moves left of a position that can't lose, because a move from it draws */
+    private static final byte ESCAPE = (byte) 0xFF;
+    /** The win distance of a position with no move to a solved loss */
+    private static final int NONE = 0xFF;
+    /** The bits of a queued position that hold its number; the top bits hold its slice */
+    private static final int INDEX_MASK = (1 << 30) - 1;
+
+    /** These are the turn lists of each thread */
+    private final ThreadLocal<long[]> turnLists = ThreadLocal.withInitial(() -> new long[LegalMoveGenerator.MAX_TURNS]);
+
+    /**
+     * This is the Constructor for a TablebaseGenerator.
+     * @param directory the directory the files are written to.
+     * @param pieces the most pieces of any position solved.
+     */
+    public TablebaseGenerator(File directory, int pieces){
+        if(pieces < 2 || pieces > MAX_PIECES){
+            throw new IllegalArgumentException("pieces must be from 2 to " + MAX_PIECES);
+        }
+        this.directory = directory;
+        this.pieces = pieces;
+    }
+
+    /**
+     * This method solves every slice with up to the given number of pieces. Slices that
+     * already have a file are kept, so an interrupted run can be picked up again.
+     * @throws IOException when a file can't be written
+     */
+    public void generate() throws IOException{
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            throw new IOException("can't make the directory " + directory);
+        }
+        List<Integer> materials = new ArrayList<>();
+        for(int total = 2; total <= pieces; total++){
+            for(int redMen = 0; redMen <= total; redMen++){
+                for(int redKings = 0; redMen + redKings <= total; redKings++){
+                    for(int whiteMen = 0; redMen + redKings + whiteMen <= total; whiteMen++){
+                        int whiteKings = total - redMen - redKings - whiteMen;
+                        if(redMen + redKings > 0 && whiteMen + whiteKings > 0){
+                            materials.add(EndgameTablebase.material(redMen, redKings, whiteMen, whiteKings));
+                        }
+                    }
+                }
+            }
+        }
+        materials.sort(Comparator.comparingInt(EndgameTablebase::pieces)
+                .thenComparingInt(m -> EndgameTablebase.redMen(m) + EndgameTablebase.whiteMen(m)));
+
+        for(int material : materials){
+            int flipped = EndgameTablebase.flip(material);
+            File file = new File(directory, EndgameTablebase.fileName(material));
+            if(file.isFile() && file.length() == EndgameTablebase.size(material)){
+                continue;
+            }
+            if(EndgameTablebase.size(material) > INDEX_MASK + 1L){
+                // its positions can't be numbered in the bits a queued position has
+                throw new IllegalStateException(EndgameTablebase.fileName(material) + " has too many positions to solve");
+            }
+            solved = new EndgameTablebase(directory);
+            long start = System.currentTimeMillis();
+            byte[] values = new byte[(int) EndgameTablebase.size(material)];
+            byte[] flippedValues = flipped == material ? values : new byte[(int) EndgameTablebase.size(flipped)];
+            solve(material, values, flipped, flippedValues);
+            write(material, values);
+            if(flipped != material){
+                write(flipped, flippedValues);
+            }
+            LOG.info("solved " + EndgameTablebase.fileName(material) + " in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    /**
+     * solves a pair of slices
+     */
+    private void solve(int material, byte[] values, int flipped, byte[] flippedValues){
+        Pair pair = new Pair(material, values, flipped, flippedValues);
+        for(int side = 0; side < pair.sides; side++){
+            final int s = side;
+            IntStream.range(0, pair.values[s].length).parallel().forEach(index -> start(pair, s, index));
+        }
+        for(int side = 0; side < pair.sides; side++){
+            for(int index = 0; index < pair.values[side].length; index++){
+                int win = pair.winIn[side][index] & 0xFF;
+                if(win != NONE){
+                    pair.push(pair.wins, win, side, index);
+                }
+                else if(pair.remaining[side][index] == 0){
+                    // no moves at all is a loss right away; otherwise every move leaves the pair and loses
+                    int longest = pair.longest[side][index] & 0xFF;
+                    pair.push(pair.losses, longest == 0 ? 0 : longest + 1, side, index);
+                }
+            }
+            pair.winIn[side] = null;
+        }
+
+        Bitboard board = new Bitboard(0, 0, 0);
+        for(int distance = 0; distance < pair.losses.size() || distance < pair.wins.size(); distance++){
+            int stored = Math.min(distance, EndgameTablebase.MAX_DISTANCE);
+            IntList losses = distance < pair.losses.size() ? pair.losses.get(distance) : null;
+            for(int i = 0; losses != null && i < losses.size; i++){
+                int side = losses.items[i] >>> 30;
+                int index = losses.items[i] & INDEX_MASK;
+                if(pair.values[side][index] != EndgameTablebase.DRAW){
+                    continue;
+                }
+                pair.values[side][index] = (byte) (EndgameTablebase.LOSS | stored);
+                // every position that can move here wins
+                for(int p : predecessors(pair, side, index, board)){
+                    pair.push(pair.wins, distance + 1, pair.other(side), p);
+                }
+            }
+            IntList wins = distance < pair.wins.size() ? pair.wins.get(distance) : null;
+            for(int i = 0; wins != null && i < wins.size; i++){
+                int side = wins.items[i] >>> 30;
+                int index = wins.items[i] & INDEX_MASK;
+                if(pair.values[side][index] != EndgameTablebase.DRAW){
+                    continue;
+                }
+                pair.values[side][index] = (byte) stored;
+                // a position loses once every move from it leads to a win for the opponent
+                int other = pair.other(side);
+                for(int p : predecessors(pair, side, index, board)){
+                    if(pair.values[other][p] != EndgameTablebase.DRAW || pair.remaining[other][p] == ESCAPE){
+                        continue;
+                    }
+                    pair.longest[other][p] = (byte) Math.max(pair.longest[other][p] & 0xFF, stored);
+                    if(--pair.remaining[other][p] == 0){
+                        pair.push(pair.losses, Math.max(distance, pair.longest[other][p] & 0xFF) + 1, other, p);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * looks at the moves from a position before the pair is solved. Moves that capture
+     * or crown lead to slices that are already solved, so their results are known now;
+     * the other moves stay in the pair and are counted.
+     * @param pair the pair being solved
+     * @param side the slice of the position in the pair
+     * @param index the number of the position
+     */
+    private void start(Pair pair, int side, int index){
+        Bitboard board = new Bitboard(0, 0, 0);
+        if(!EndgameTablebase.position(pair.materials[side], index, board)){
+            // not a real position; it is never queued
+            pair.winIn[side][index] = (byte) NONE;
+            pair.remaining[side][index] = ESCAPE;
+            return;
+        }
+        long[] turns = turnLists.get();
+        int count = LegalMoveGenerator.generateTurns(board, Player.Color.RED, turns);
+        int inside = 0;
+        int longest = 0;
+        int win = NONE;
+        boolean escape = false;
+        for(int i = 0; i < count; i++){
+            if(Turn.captured(turns[i]) == 0 && (turns[i] & Turn.PROMOTES) == 0){
+                inside++;
+                continue;
+            }
+            Bitboard next = board.copy();
+            next.play(turns[i]);
+            // the opponent moves next; turn the board around so they are red
+            int red = Integer.reverse(next.getWhite());
+            int white = Integer.reverse(next.getRed());
+            int value = red == 0 ? EndgameTablebase.LOSS
+                    : solved.probe(new Bitboard(red, white, Integer.reverse(next.getKings())), Player.Color.RED);
+            if(EndgameTablebase.isLoss(value)){
+                win = Math.min(win, EndgameTablebase.distance(value) + 1);
+            }
+            else if(EndgameTablebase.isWin(value)){
+                longest = Math.max(longest, EndgameTablebase.distance(value));
+            }
+            else{
+                escape = true;
+            }
+        }
+        pair.winIn[side][index] = (byte) win;
+        pair.longest[side][index] = (byte) longest;
+        // a position with a winning move can't lose
+        pair.remaining[side][index] = escape || win != NONE ? ESCAPE : (byte) inside;
+    }
+
+    /**
+     * finds the positions in the pair that reach a position with a simple move
+     * @param pair the pair being solved
+     * @param side the slice of the position in the pair
+     * @param index the number of the position
+     * @param board a board to work on
+     * @return the numbers of the positions, all in the other slice of the pair
+     */
+    private int[] predecessors(Pair pair, int side, int index, Bitboard board){
+        EndgameTablebase.position(pair.materials[side], index, board);
+        // turn the board around, so red is the side that just moved
+        int red = Integer.reverse(board.getWhite());
+        int white = Integer.reverse(board.getRed());
+        int kings = Integer.reverse(board.getKings());
+        int empty = ~(red | white);
+        int[] found = new int[LegalMoveGenerator.MAX_STEPS];
+        int count = 0;
+        for(int pieces = red; pieces != 0; pieces &= pieces - 1){
+            int to = Integer.numberOfTrailingZeros(pieces);
+            boolean king = (kings & (1 << to)) != 0;
+            // red men move toward row 0, so they came from the row below
+            int[] directions = king ? MoveTable.DIRECTIONS[MoveTable.KING] : MoveTable.DIRECTIONS[MoveTable.WHITE_MAN];
+            for(int direction : directions){
+                int from = MoveTable.NEIGHBOUR[direction][to];
+                if(from < 0 || (empty & (1 << from)) == 0){
+                    continue;
+                }
+                int before = red & ~(1 << to) | (1 << from);
+                int beforeKings = king ? kings & ~(1 << to) | (1 << from) : kings;
+                board.set(new Bitboard(before, white, beforeKings));
+                // the move wasn't allowed if a capture could have been made instead
+                if(!board.canCapture(Player.Color.RED)){
+                    found[count++] = (int) EndgameTablebase.index(before, white, beforeKings);
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * This class holds the work of solving a pair of slices.
+     */
+    private static final class Pair {
+        /** This is the number of different slices in the pair; 1 if the colors swap to the same one */
+        private final int sides;
+        /** These are the materials of the slices */
+        private final int[] materials;
+        /** These are the results, by slice */
+        private final byte[][] values;
+        /** These are the numbers of moves left inside the pair that haven't been settled as wins */
+        private final byte[][] remaining;
+        /** These are the longest wins the moves settled so far lead to */
+        private final byte[][] longest;
+        /** These are the shortest wins through moves that leave the pair */
+        private final byte[][] winIn;
+        /** These are the positions waiting to be settled as wins, by distance */
+        private final List<IntList> wins = new ArrayList<>();
+        /** These are the positions waiting to be settled as losses, by distance */
+        private final List<IntList> losses = new ArrayList<>();
+
+        private Pair(int material, byte[] values, int flipped, byte[] flippedValues){
+            this.sides = material == flipped ? 1 : 2;
+            this.materials = new int[]{material, flipped};
+            this.values = new byte[][]{values, flippedValues};
+            this.remaining = new byte[sides][];
+            this.longest = new byte[sides][];
+            this.winIn = new byte[sides][];
+            for(int side = 0; side < sides; side++){
+                remaining[side] = new byte[this.values[side].length];
+                longest[side] = new byte[this.values[side].length];
+                winIn[side] = new byte[this.values[side].length];
+            }
+        }
+
+        /**
+         * gets the slice simple moves from a slice lead to
+         */
+        private int other(int side){
+            return sides == 1 ? 0 : 1 - side;
+        }
+
+        /**
+         * queues a position to be settled
+         */
+        private void push(List<IntList> queue, int distance, int side, int index){
+            while(queue.size() <= distance){
+                queue.add(new IntList());
+            }
+            queue.get(distance).add((side << 30) | index);
+        }
+    }
+
+    /**
+     * This class is a growable list of ints.
+     */
+    private static final class IntList {
+        private int[] items = new int[16];
+        private int size;
+
+        private void add(int item){
+            if(size == items.length){
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+        }
+    }
+
+    /**
+     * writes the file of a slice
+     */
+    private void write(int material, byte[] values) throws IOException{
+        File file = new File(directory, EndgameTablebase.fileName(material));
+        File temporary = new File(directory, file.getName() + ".tmp");
+        try(OutputStream out = new FileOutputStream(temporary)){
+            out.write(values);
+        }
+        if(!temporary.renameTo(file)){
+            throw new IOException("can't rename " + temporary + " to " + file);
+        }
+    }
+
+    /**
+     * Entry point for the tablebase generator.
+     * @param args the directory to write to and the most pieces to solve, both optional.
+     */
+    public static void main(String[] args) throws IOException{
+        File directory = new File(args.length > 0 ? args[0] : EndgameTablebase.getDirectoryName());
+        int pieces = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PIECES;
+        new TablebaseGenerator(directory, pieces).generate();
+    }
+}
@@ -0,0 +1,270 @@
+/*
+Filename: TranspositionTable.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class remembers the results of searching positions, keyed by their Zobrist
+ * hash, so a position reached again in a different order isn't searched twice.
+ *
+ * The entries are kept off the Java heap in a direct ByteBuffer, so a large table
+ * doesn't slow down garbage collection. One table is shared by every search on the
+ * server, so its memory stays the same however many computer games are being played;
+ * its size is set in megabytes with the 'transpositionTableMB' system property.
+ *
+ * The table can be shared by any number of searching threads without locks. Each
+ * entry is two longs: the hash XOR the data, then the data. An entry is only used
+ * when the two give back the position's hash, so an entry that another thread was
+ * writing at the same time just looks like a miss.
+ *
+ * Entries come in buckets of two. The first keeps the deepest search of the positions
+ * that land in the bucket, unless it is left over from a search that has finished; the
+ * second always takes the newest result. Every search started gets the next generation,
+ * and the table remembers which searches are still running, so the computer games
+ * searching at the same time never age out each other's entries.
+ *
+ * The data of an entry is packed into a long: bits 0-19 hold the score plus
+ * SCORE_OFFSET, bits 20-26 the depth, bits 27-28 the bound, bits 29-37 one more than
+ * the index of the best turn in the list LegalMoveGenerator makes for the position,
+ * and bits 38-45 the generation of the search that stored it.
+ */
+public class TranspositionTable {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(TranspositionTable.class.getName());
+    /** The bound of a score that is exact */
+    public static final int EXACT = 1;
+    /** The bound of a score that is at least the real score */
+    public static final int LOWER = 2;
+    /** The bound of a score that is at most the real score */
+    public static final int UPPER = 3;
+    /** The data of a position that isn't in the table */
+    public static final long MISS = 0;
+    /** The size of the shared table when the property isn't set, in megabytes */
+    static final int DEFAULT_SIZE_MB = 16;
+    /** The largest shared table, in megabytes; a ByteBuffer holds at most 2GB */
+    static final int MAX_SIZE_MB = 1024;
+    /** This is added to scores so they are stored as positive numbers */
+    private static final int SCORE_OFFSET = 1 << 19;
+    /** The number of bytes in an entry */
+    private static final int ENTRY_BYTES = 16;
+    /** The number of bytes in a bucket */
+    private static final int BUCKET_BYTES = 2 * ENTRY_BYTES;
+    /** The mask of the generation bits of the data, once shifted down */
+    private static final int GENERATION_MASK = 0xFF;
+
+    // The system property, read once
+    private static final String SIZE_PROPERTY = "transpositionTableMB";
+    private static Integer sizeMB = null;
+    private static TranspositionTable shared = null;
+
+    /** These are the entries */
+    private final ByteBuffer entries;
+    /** This is the mask of the bits of a hash that pick a bucket */
+    private final int mask;
+    /** This is the number of searches started so far */
+    private long searches;
+    /** These are the numbers of the searches still running */
+    private final TreeSet<Long> running = new TreeSet<>();
+    /** This is the generation of the newest search; it tells old entries from new ones */
+    private volatile int generation;
+    /** This is how many generations before the newest the oldest running search started */
+    private volatile int window;
+
+    /**
+     * This is the Constructor for a TranspositionTable.
+     * @param size the number of entries; rounded down to a power of two, at least two.
+     */
+    public TranspositionTable(int size){
+        int buckets = Integer.highestOneBit(Math.max(size / 2, 1));
+        this.entries = ByteBuffer.allocateDirect(buckets * BUCKET_BYTES).order(ByteOrder.nativeOrder());
+        this.mask = buckets - 1;
+    }
+
+    /**
+     * gets the table shared by every search on the server, making it the first time
+     * it is asked for
+     * @return the shared table
+     */
+    public static synchronized TranspositionTable getShared(){
+        if(shared == null){
+            int bytes = getSizeMB() << 20;
+            shared = new TranspositionTable(bytes / ENTRY_BYTES);
+            LOG.config("transposition table has " + shared.size() + " entries");
+        }
+        return shared;
+    }
+
+    /**
+     * starts a new generation for a search; entries stored before the oldest search
+     * still running give way to new ones even if they were searched deeper
+     * @return the number of the search, to hand to endSearch
+     */
+    public synchronized long newSearch(){
+        long search = searches++;
+        running.add(search);
+        generation = (int) search & GENERATION_MASK;
+        window = (int) Math.min(search - running.first(), GENERATION_MASK);
+        return search;
+    }
+
+    /**
+     * ends a search, so its entries can give way to the searches after it
+     * @param search the number newSearch gave the search
+     */
+    public synchronized void endSearch(long search){
+        running.remove(search);
+        window = running.isEmpty() ? 0 : (int) Math.min(searches - 1 - running.first(), GENERATION_MASK);
+    }
+
+    /**
+     * looks up a position
+     * @param hash the hash of the position, including the side to move
+     * @return the data of the entry, MISS if the position isn't in the table
+     */
+    public long probe(long hash){
+        int bucket = ((int) hash & mask) * BUCKET_BYTES;
+        for(int offset = bucket; offset < bucket + BUCKET_BYTES; offset += ENTRY_BYTES){
+            long data = entries.getLong(offset + 8);
+            if((entries.getLong(offset) ^ data) == hash && data != MISS){
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * remembers the result of searching a position
+     * @param hash the hash of the position, including the side to move
+     * @param depth the depth the position was searched to
+     * @param score the score of the position
+     * @param bound EXACT, LOWER or UPPER
+     * @param turnIndex the index of the best turn, -1 if there isn't one
+     */
+    public void store(long hash, int depth, int score, int bound, int turnIndex){
+        int current = generation;
+        int bucket = ((int) hash & mask) * BUCKET_BYTES;
+        long data = (score + SCORE_OFFSET)
+                | ((long) Math.min(depth, 127) << 20)
+                | ((long) bound << 27)
+                | ((long) (turnIndex + 1) << 29)
+                | ((long) current << 38);
+
+        long deepData = entries.getLong(bucket + 8);
+        boolean samePosition = (entries.getLong(bucket) ^ deepData) == hash;
+        int offset = bucket + ENTRY_BYTES;
+        // an entry is in use while the search that stored it, or one started after it, is running
+        boolean stale = ((current - generation(deepData)) & GENERATION_MASK) > window;
+        if(samePosition || deepData == MISS || depth >= depth(deepData) || stale){
+            offset = bucket;
+        }
+        entries.putLong(offset, hash ^ data);
+        entries.putLong(offset + 8, data);
+    }
+
+    /**
+     * gets the score of an entry
+     * @param data the data of the entry
+     * @return the score
+     */
+    public static int score(long data){
+        return (int) (data & 0xFFFFF) - SCORE_OFFSET;
+    }
+
+    /**
+     * gets the depth of an entry
+     * @param data the data of the entry
+     * @return the depth the position was searched to
+     */
+    public static int depth(long data){
+        return (int) (data >>> 20) & 0x7F;
+    }
+
+    /**
+     * gets the bound of an entry
+     * @param data the data of the entry
+     * @return EXACT, LOWER or UPPER
+     */
+    public static int bound(long data){
+        return (int) (data >>> 27) & 0x3;
+    }
+
+    /**
+     * gets the best turn of an entry
+     * @param data the data of the entry
+     * @return the index of the turn, -1 if there isn't one
+     */
+    public static int turnIndex(long data){
+        return (int) ((data >>> 29) & 0x1FF) - 1;
+    }
+
+    /**
+     * gets the generation of the search that stored an entry
+     * @param data the data of the entry
+     * @return the generation
+     */
+    static int generation(long data){
+        return (int) (data >>> 38) & GENERATION_MASK;
+    }
+
+    /**
+     * gets the number of entries in the table
+     * @return the number of entries
+     */
+    public int size(){
+        return (mask + 1) * 2;
+    }
+
+    /**
+     * Queries how big the table every computer game shares is.
+     *
+     * <p>
+     *   This method uses the memoization idiom so the calculation of
+     *   this value is only done once.
+     * </p>
+     *
+     * @return the 'transpositionTableMB' property in megabytes; DEFAULT_SIZE_MB if the
+     * property isn't set or isn't a number from 1 to MAX_SIZE_MB
+     */
+    public static int getSizeMB(){
+        if(sizeMB == null){
+            sizeMB = _getSizeMB();
+        }
+        return sizeMB;
+    }
+
+    /**
+     * The explicit, private property lookup method.
+     */
+    private static int _getSizeMB(){
+        final String sizeStr = System.getProperty(SIZE_PROPERTY);
+        if(sizeStr == null){
+            return DEFAULT_SIZE_MB;
+        }
+        try {
+            int megabytes = Integer.parseInt(sizeStr.trim());
+            if(megabytes > 0 && megabytes <= MAX_SIZE_MB){
+                return megabytes;
+            }
+        }
+        catch(NumberFormatException e){
+            // fall through to the warning
+        }
+        LOG.warning(String.format("Bad '%s' value, '%s'; must be a number of megabytes from 1 to %d.",
+                SIZE_PROPERTY, sizeStr, MAX_SIZE_MB));
+        return DEFAULT_SIZE_MB;
+    }
+}
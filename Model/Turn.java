@@ -0,0 +1,198 @@
+/*
+Filename: Turn.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class holds one complete legal turn of a WebCheckers game: a simple move, or a
+ * single or multiple jump, from the square the piece starts on to the square it ends on.
+ *
+ * A turn is identified by a key packed into a long: bits 0-4 hold the square it starts
+ * on, bits 5-9 the square it ends on and bits 10-41 the mask of captured squares. Two
+ * turns with the same key leave the board in the same position. Move generation for
+ * search packs turns the same way and sets the PROMOTES bit on turns that crown a man.
+ */
+public class Turn {
+    /** This bit is set on packed turns that crown a man */
+    public static final long PROMOTES = 1L << 42;
+    /** The bits of a packed turn that make up its key */
+    public static final long KEY_MASK = PROMOTES - 1;
+
+    /** These are the squares the piece visits, starting with the square it starts on */
+    private final int[] path;
+    /** This is the mask of the squares of the pieces that are captured */
+    private final int captured;
+    /** This condition tells whether the piece is crowned at the end of the turn */
+    private final boolean promotes;
+
+    /**
+     * This is the Constructor for a Turn.
+     * @param path the squares the piece visits, starting with the square it starts on.
+     * @param captured the mask of the squares of the captured pieces.
+     * @param promotes whether the piece is crowned at the end of the turn.
+     */
+    public Turn(int[] path, int captured, boolean promotes){
+        this.path = path;
+        this.captured = captured;
+        this.promotes = promotes;
+    }
+
+    /**
+     * packs a turn into a key
+     * @param from the square the turn starts on
+     * @param to the square the turn ends on
+     * @param captured the mask of the captured squares
+     * @return the key
+     */
+    public static long key(int from, int to, int captured){
+        return from | ((long) to << 5) | ((captured & 0xFFFFFFFFL) << 10);
+    }
+
+    /**
+     * gets the square a packed turn starts on
+     * @param turn the packed turn
+     * @return the square number
+     */
+    public static int from(long turn){
+        return (int) (turn & 0x1F);
+    }
+
+    /**
+     * gets the square a packed turn ends on
+     * @param turn the packed turn
+     * @return the square number
+     */
+    public static int to(long turn){
+        return (int) ((turn >>> 5) & 0x1F);
+    }
+
+    /**
+     * gets the captured squares of a packed turn
+     * @param turn the packed turn
+     * @return the mask of captured squares
+     */
+    public static int captured(long turn){
+        return (int) (turn >>> 10);
+    }
+
+    /**
+     * gets the key of this turn
+     * @return the packed key
+     */
+    public long getKey(){
+        return key(getStart(), getEnd(), captured);
+    }
+
+    /**
+     * gets the squares the piece visits
+     * @return the square numbers, starting with the square the piece starts on
+     */
+    public int[] getPath(){
+        return path.clone();
+    }
+
+    /**
+     * gets the square the piece starts on
+     * @return the square number
+     */
+    public int getStart(){
+        return path[0];
+    }
+
+    /**
+     * gets the square the piece ends on
+     * @return the square number
+     */
+    public int getEnd(){
+        return path[path.length - 1];
+    }
+
+    /**
+     * gets the number of steps in this turn
+     * @return 1 for a simple move or single jump, more for a multiple jump
+     */
+    public int getLength(){
+        return path.length - 1;
+    }
+
+    /**
+     * gets the captured squares
+     * @return the mask of the squares of the captured pieces
+     */
+    public int getCaptured(){
+        return captured;
+    }
+
+    /**
+     * checks if this turn captures any pieces
+     * @return true if it is a jump
+     */
+    public boolean isCapture(){
+        return captured != 0;
+    }
+
+    /**
+     * checks if the piece is crowned at the end of this turn
+     * @return true if a man becomes a king
+     */
+    public boolean isPromotion(){
+        return promotes;
+    }
+
+    /**
+     * checks if this turn visits the given squares first
+     * @param squares the squares, starting with the square the piece starts on
+     * @return true if the path of this turn starts with the squares
+     */
+    public boolean startsWith(int[] squares){
+        if(squares.length > path.length){
+            return false;
+        }
+        for(int i = 0; i < squares.length; i++){
+            if(path[i] != squares[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * gets the positions the piece visits, as seen by one player
+     * @param perspective the color of the player who's board the positions are on
+     * @return the positions, starting with the position the piece starts on
+     */
+    public List<Position> getPositions(Player.Color perspective){
+        List<Position> positions = new ArrayList<>(path.length);
+        for(int square : path){
+            int seen = perspective == Player.Color.WHITE ? Bitboard.mirror(square) : square;
+            positions.add(new Position(Bitboard.row(seen), Bitboard.cell(seen)));
+        }
+        return positions;
+    }
+
+    /**
+     * gets the steps of this turn as Moves, as seen by one player
+     * @param perspective the color of the player who's board the moves are on
+     * @return one Move per step
+     */
+    public List<Move> getMoves(Player.Color perspective){
+        List<Position> positions = getPositions(perspective);
+        List<Move> moves = new ArrayList<>(getLength());
+        for(int i = 1; i < positions.size(); i++){
+            moves.add(new Move(positions.get(i - 1), positions.get(i)));
+        }
+        return moves;
+    }
+}
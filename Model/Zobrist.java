@@ -0,0 +1,102 @@
+/*
+Filename: Zobrist.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.Model;
+
+import java.util.SplittableRandom;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class holds the random keys used to hash WebCheckers positions. A position's
+ * hash is the XOR of the key of every piece on its square, plus the SIDE key when
+ * it is the white player's turn, so moving, capturing or crowning a piece only
+ * changes the hash by a couple of XORs.
+ *
+ * The keys come from a fixed seed, so a position hashes the same way every time the
+ * server runs.
+ */
+public final class Zobrist {
+    /** The kind of piece that is a red man */
+    static final int RED_MAN = 0;
+    /** The kind of piece that is a red king */
+    static final int RED_KING = 1;
+    /** The kind of piece that is a white man */
+    static final int WHITE_MAN = 2;
+    /** The kind of piece that is a white king */
+    static final int WHITE_KING = 3;
+
+    /** The key that is mixed in when it is the white player's turn */
+    public static final long SIDE;
+    /** The key of each kind of piece on each square */
+    private static final long[][] PIECES = new long[4][Bitboard.SQUARES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EEDC4EC4E25L);
+        for(long[] keys : PIECES){
+            for(int square = 0; square < Bitboard.SQUARES; square++){
+                keys[square] = random.nextLong();
+            }
+        }
+        SIDE = random.nextLong();
+    }
+
+    /**
+     * This class only holds static keys, so it can't be constructed.
+     */
+    private Zobrist(){
+    }
+
+    /**
+     * gets the kind of a piece for looking up its key
+     * @param color the color of the piece
+     * @param king whether the piece is a king
+     * @return RED_MAN, RED_KING, WHITE_MAN or WHITE_KING
+     */
+    static int kind(Player.Color color, boolean king){
+        return (color == Player.Color.RED ? RED_MAN : WHITE_MAN) + (king ? 1 : 0);
+    }
+
+    /**
+     * gets the key of a piece on a square
+     * @param kind the kind of the piece
+     * @param square the square number
+     * @return the key
+     */
+    public static long key(int kind, int square){
+        return PIECES[kind][square];
+    }
+
+    /**
+     * hashes a whole board from scratch
+     * @param red the mask of squares holding red pieces
+     * @param white the mask of squares holding white pieces
+     * @param kings the mask of squares holding kings
+     * @return the hash of the pieces, without the side to move
+     */
+    public static long hash(int red, int white, int kings){
+        return hash(RED_MAN, red & ~kings) ^ hash(RED_KING, red & kings)
+                ^ hash(WHITE_MAN, white & ~kings) ^ hash(WHITE_KING, white & kings);
+    }
+
+    /**
+     * hashes every piece of one kind
+     * @param kind the kind of the pieces
+     * @param squares the mask of squares holding them
+     * @return the XOR of their keys
+     */
+    static long hash(int kind, int squares){
+        long hash = 0;
+        for(; squares != 0; squares &= squares - 1){
+            hash ^= PIECES[kind][Integer.numberOfTrailingZeros(squares)];
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,332 @@
+/*
+Filename: ComputerOpponent.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.appl;
+
+import com.webcheckers.InvalidMoveException;
+import com.webcheckers.Model.*;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * The controller object for a computer player in one game. When it is the computer's
+ * turn it searches for a turn with ParallelSearch, on a work-stealing pool of threads
+ * shared by every computer game, then plays it on another thread, so neither the request
+ * that submitted the human's turn nor the search threads wait for the game. In the opening it plays from the OpeningBook when the book
+ * has a turn for the position, and only searches when it doesn't.
+ *
+ * The time the computer takes for each turn is set in milliseconds with the
+ * 'computerMoveTime' system property. The number of threads all computer games search
+ * on together is set with the 'searchThreads' system property; it defaults to half the
+ * processors, so the searches can't take every thread from the web server.
+ */
+public class ComputerOpponent {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(ComputerOpponent.class.getName());
+    /** This is the name the computer player has in the lobby */
+    public static final String NAME = "Computer";
+    /** This is the time a turn takes when the property isn't set, in milliseconds */
+    static final long DEFAULT_MOVE_TIME = 1000;
+    // The system properties, read once
+    private static final String MOVE_TIME_PROPERTY = "computerMoveTime";
+    private static Long moveTimeMillis = null;
+    private static final String SEARCH_THREADS_PROPERTY = "searchThreads";
+    private static Integer searchThreads = null;
+
+    /** These are the threads every computer player searches on */
+    private static final ForkJoinPool SEARCH_POOL = new ForkJoinPool(getSearchThreads());
+    /** These are the threads the chosen turns are played on; they wait for the game's mailbox, so the search threads never do */
+    private static final ExecutorService TURN_THREADS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "computer-turns");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** This is the game the computer is playing */
+    private final GameModel game;
+    /** This is the mailbox the computer's turns are played through */
+    private final GameMailbox mailbox;
+    /** This is the Player the computer plays as */
+    private final Player player;
+    /** This is the book of openings from finished games; null to always search */
+    private final OpeningBook book;
+    /** This is the time each turn takes, in milliseconds */
+    private final long moveTime;
+    /** This condition tells whether the computer is working on a turn */
+    private final AtomicBoolean thinking = new AtomicBoolean(false);
+
+    /**
+     * This is the Constructor for ComputerOpponent.
+     * @param mailbox the mailbox of the game the computer is playing.
+     * @param player the Player the computer plays as; one of the game's players.
+     * @param book the book of openings to play from; null to always search.
+     * @param moveTime the time each turn takes, in milliseconds.
+     */
+    public ComputerOpponent(GameMailbox mailbox, Player player, OpeningBook book, long moveTime){
+        this.mailbox = mailbox;
+        this.game = mailbox.getGame();
+        this.player = player;
+        this.book = book;
+        this.moveTime = moveTime;
+    }
+
+    /**
+     * This is the Constructor for a ComputerOpponent that takes the configured time for each turn.
+     * @param mailbox the mailbox of the game the computer is playing.
+     * @param player the Player the computer plays as; one of the game's players.
+     * @param book the book of openings to play from; null to always search.
+     */
+    public ComputerOpponent(GameMailbox mailbox, Player player, OpeningBook book){
+        this(mailbox, player, book, getMoveTime());
+    }
+
+    /**
+     * checks if a player is the computer
+     * @param name the name of the player
+     * @return true if it is the computer's name
+     */
+    public static boolean isComputer(String name){
+        return NAME.equals(name);
+    }
+
+    /**
+     * gets the Player the computer plays as
+     * @return the player
+     */
+    public Player getPlayer(){
+        return player;
+    }
+
+    /**
+     * This method starts the computer's turn if it is the computer's turn and the game
+     * isn't over. It returns right away; the turn is played in the background.
+     * @return true if a turn was started
+     */
+    public boolean takeTurn(){
+        if(!isMyTurn() || !thinking.compareAndSet(false, true)){
+            return false;
+        }
+        SEARCH_POOL.execute(() -> {
+            long chosen;
+            try {
+                chosen = chooseTurn();
+            }
+            catch(RuntimeException | Error e){
+                thinking.set(false);
+                throw e;
+            }
+            // waiting for the mailbox inside the pool would make it add threads past its limit
+            TURN_THREADS.execute(() -> {
+                try {
+                    playTurn(chosen);
+                }
+                finally {
+                    thinking.set(false);
+                }
+            });
+        });
+        return true;
+    }
+
+    /**
+     * checks if the computer should move
+     * @return true if it's the computer's turn in a game that isn't over
+     */
+    private boolean isMyTurn(){
+        return game.getActiveColor() == player.getColor()
+                && game.playerResigned() == null
+                && game.playerWon() == null;
+    }
+
+    /**
+     * picks a turn from the opening book, or searches for one; runs on the search threads
+     * @return the turn, packed as described in Turn; AlphaBetaSearch.NO_TURN to resign
+     */
+    private long chooseTurn(){
+        Player.Color color = player.getColor();
+        Bitboard position = game.getSubmittedPosition();
+        long best = book == null ? OpeningBook.NO_TURN : book.getBestTurn(position, color);
+        if(best != OpeningBook.NO_TURN && !isLegal(position, color, best)){
+            // the book is keyed by hash, so another position can share this one's entry
+            LOG.warning("computer in game " + game.getGameID() + " found a turn in the opening book that isn't legal");
+            best = OpeningBook.NO_TURN;
+        }
+        if(best != OpeningBook.NO_TURN){
+            LOG.fine("computer in game " + game.getGameID() + " played from the opening book");
+        }
+        else{
+            TranspositionTable table = TranspositionTable.getShared();
+            long number = table.newSearch();
+            ParallelSearch search = new ParallelSearch(SEARCH_POOL, table, EndgameTablebase.getShared());
+            try {
+                best = search.search(position, color, moveTime);
+            }
+            finally {
+                table.endSearch(number);
+            }
+            LOG.fine("computer in game " + game.getGameID() + " searched " + search.getNodes()
+                    + " nodes to depth " + search.getCompletedDepth());
+        }
+
+        return best;
+    }
+
+    /**
+     * plays the chosen turn through the game's mailbox, waiting for it if a route has it
+     * @param chosen the turn, packed as described in Turn; AlphaBetaSearch.NO_TURN to resign
+     */
+    private void playTurn(long chosen){
+        try {
+            // the search ran on the position as it was; the turn is played through the mailbox
+            mailbox.send(g -> {
+                play(g, chosen);
+                return null;
+            });
+        }
+        catch(InvalidMoveException e){
+            LOG.warning("computer in game " + game.getGameID() + " made an invalid turn: " + e.getMessage());
+        }
+    }
+
+    /**
+     * checks if a turn can be played in a position
+     * @param position the position
+     * @param color the color of the side to move
+     * @param turn the turn, packed as described in Turn
+     * @return true if it is one of the position's legal turns
+     */
+    private static boolean isLegal(Bitboard position, Player.Color color, long turn){
+        long[] turns = new long[LegalMoveGenerator.MAX_TURNS];
+        int count = LegalMoveGenerator.generateTurns(position, color, turns);
+        for(int i = 0; i < count; i++){
+            if((turns[i] & Turn.KEY_MASK) == (turn & Turn.KEY_MASK)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * plays the turn the computer chose
+     * @param game the game, which the caller has to itself
+     * @param best the turn, packed as described in Turn; AlphaBetaSearch.NO_TURN to resign
+     * @throws InvalidMoveException when the turn isn't legal
+     */
+    private void play(GameModel game, long best) throws InvalidMoveException{
+        Player.Color color = player.getColor();
+        if(best == AlphaBetaSearch.NO_TURN){
+            // the computer has pieces left but none of them can move
+            game.resign(color);
+            return;
+        }
+        List<Turn> turns = game.getLegalTurns();
+        for(Turn turn : turns){
+            if(turn.getKey() == (best & Turn.KEY_MASK)){
+                game.playTurn(turn.getMoves(color), player);
+                return;
+            }
+        }
+        // a stale or colliding table entry; moving anyway keeps the game from stalling
+        LOG.warning("computer in game " + game.getGameID() + " chose a turn that isn't legal; playing the first legal turn");
+        if(turns.isEmpty()){
+            game.resign(color);
+            return;
+        }
+        game.playTurn(turns.get(0).getMoves(color), player);
+    }
+
+    /**
+     * Queries how long the computer takes for each turn.
+     *
+     * <p>
+     *   This method uses the memoization idiom so the calculation of
+     *   this value is only done once.
+     * </p>
+     *
+     * @return the 'computerMoveTime' property in milliseconds; DEFAULT_MOVE_TIME
+     * if the property isn't set or isn't a positive number
+     */
+    public static long getMoveTime(){
+        if(moveTimeMillis == null){
+            moveTimeMillis = _getMoveTime();
+        }
+        return moveTimeMillis;
+    }
+
+    /**
+     * The explicit, private property lookup method.
+     */
+    private static long _getMoveTime(){
+        final String moveTimeStr = System.getProperty(MOVE_TIME_PROPERTY);
+        if(moveTimeStr == null){
+            return DEFAULT_MOVE_TIME;
+        }
+        try {
+            long millis = Long.parseLong(moveTimeStr.trim());
+            if(millis > 0){
+                return millis;
+            }
+        }
+        catch(NumberFormatException e){
+            // fall through to the warning
+        }
+        LOG.warning(String.format("Bad '%s' value, '%s'; must be a positive number of milliseconds.",
+                MOVE_TIME_PROPERTY, moveTimeStr));
+        return DEFAULT_MOVE_TIME;
+    }
+
+    /**
+     * Queries how many threads all computer players search on together.
+     *
+     * <p>
+     *   This method uses the memoization idiom so the calculation of
+     *   this value is only done once.
+     * </p>
+     *
+     * @return the 'searchThreads' property; half the processors if the property
+     * isn't set or isn't a positive number
+     */
+    public static int getSearchThreads(){
+        if(searchThreads == null){
+            searchThreads = _getSearchThreads();
+        }
+        return searchThreads;
+    }
+
+    /**
+     * The explicit, private property lookup method.
+     */
+    private static int _getSearchThreads(){
+        final int defaultThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        final String threadsStr = System.getProperty(SEARCH_THREADS_PROPERTY);
+        if(threadsStr == null){
+            return defaultThreads;
+        }
+        try {
+            int threads = Integer.parseInt(threadsStr.trim());
+            if(threads > 0){
+                return threads;
+            }
+        }
+        catch(NumberFormatException e){
+            // fall through to the warning
+        }
+        LOG.warning(String.format("Bad '%s' value, '%s'; must be a positive number of threads.",
+                SEARCH_THREADS_PROPERTY, threadsStr));
+        return defaultThreads;
+    }
+}
@@ -7,10 +7,22 @@ Spark_Version: 2.8.0
 
 package com.webcheckers.appl;
 
+import com.webcheckers.InvalidMoveException;
 import com.webcheckers.Model.*;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
 
 /**
  * @author Ashwin Gowda
@@ -20,22 +32,161 @@ import java.util.HashMap;
  *
  * The controller object for games stored on the server.
  * This class is an example of the Pure Fabrication principle.
+ *
+ * Games are kept in concurrent maps keyed by their identifier, so every route can
+ * look a game up without waiting on a lock, and games can end in any order. New
+ * identifiers are handed out by an atomic counter, starting at 1; 0 means "no game".
+ *
+ * Given a journal directory, every game started is written to a MoveJournal, and the
+ * games that were in progress when the server stopped are rebuilt when the GameCenter
+ * is made, from the last snapshot the Snapshotter took and the journal written since.
+ * Their players are put back in the lobby, and get their game back when they sign in
+ * again with the same name.
  */
 public class GameCenter {
-    /** This is a list of the games currently being played on the Web Server */
-    private ArrayList<GameModel> games;
-    /** This is a list of games that have ended */
-    private HashMap<Integer, GameModel> archive;
-    /** This is the number of games that have been removed from the Web Server */
-    private int removedGames;
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(GameCenter.class.getName());
+    /** The directory in the journal's directory the archive is kept in */
+    static final String ARCHIVE_DIRECTORY = "archive";
+    /** These are the games currently being played on the Web Server, by identifier */
+    private final ConcurrentHashMap<Integer, GameModel> games;
+    /** These are the games that have ended, by identifier */
+    private final GameArchive archive;
+    /** This is the last game identifier handed out */
+    private final AtomicInteger lastGameID;
+    /** These are the mailboxes every change to a game goes through, by identifier */
+    private final ConcurrentHashMap<Integer, GameMailbox> mailboxes;
+    /** These are the computer players, by the identifier of the game they are playing */
+    private final ConcurrentHashMap<Integer, ComputerOpponent> computers;
+    /** This is the bus every game publishes its events on */
+    private final GameEventBus eventBus;
+    /** These are the counts of the games' events */
+    private final GameMetrics metrics;
+    /** This is the book of openings learned from the archived games */
+    private final OpeningBook openingBook;
+    /** This is the thread finished games are archived on, so the event bus never waits for the disk */
+    private final ExecutorService archiver;
+    /** These are the players of the games rebuilt from the journal who haven't signed in again, by name */
+    private final ConcurrentHashMap<String, Player> restoredPlayers;
+    /** This is the journal the games are written to; null while it is replayed, or if there is none */
+    private MoveJournal journal;
+    /** This takes the snapshots of the games; null if there is no journal */
+    private Snapshotter snapshotter;
+    /** This lock is held to start a game, and held alone by a snapshot while it starts a journal segment and lists the games */
+    private final ReentrantReadWriteLock starting = new ReentrantReadWriteLock();
+    /** This condition tells whether the games are being rebuilt; they publish no events until they are done */
+    private boolean rebuilding;
 
     /**
-     * Construct a new GameCenter.
+     * Construct a new GameCenter that doesn't journal its games, and keeps the archived ones in memory.
      */
     public GameCenter() {
-        this.games = new ArrayList<>();
-        this.archive = new HashMap<>();
-        this.removedGames = 0;
+        this(new GameArchive());
+    }
+
+    /**
+     * Construct a new GameCenter.
+     * @param archive the archive of the finished games.
+     */
+    private GameCenter(GameArchive archive) {
+        this.games = new ConcurrentHashMap<>();
+        this.archive = archive;
+        this.lastGameID = new AtomicInteger(0);
+        this.mailboxes = new ConcurrentHashMap<>();
+        this.computers = new ConcurrentHashMap<>();
+        this.eventBus = new GameEventBus();
+        this.openingBook = new OpeningBook();
+        this.metrics = new GameMetrics(eventBus);
+        this.archiver = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.restoredPlayers = new ConcurrentHashMap<>();
+        // the spectators are told about a turn once the player has been answered
+        eventBus.subscribe(GameEvent.MoveMade.class, event -> setNewMove(event.getGame(), false));
+        eventBus.subscribe(GameEvent.TurnSubmitted.class, event -> setNewMove(event.getGame(), true));
+        // a game is archived, and the opening book learns it, as soon as it is over, even if it has ended since
+        eventBus.subscribe(GameEvent.GameWon.class, event -> archiver.execute(() -> archiveGame(event.getGame())));
+        eventBus.subscribe(GameEvent.PlayerResigned.class, event -> archiver.execute(() -> archiveGame(event.getGame())));
+    }
+
+    /**
+     * Construct a new GameCenter that journals its games, takes snapshots of them and keeps
+     * the archived ones on the disk, rebuilding the games that were in progress from the
+     * last snapshot and the journal first.
+     * @param journalDirectory the directory the journal and the snapshots are in; the archive is in its archive directory.
+     * @throws UncheckedIOException when the journal or the archive can't be read or opened
+     */
+    public GameCenter(File journalDirectory) {
+        this(openArchive(new File(journalDirectory, ARCHIVE_DIRECTORY)));
+        // the opening book learns the games archived before now in the background
+        long archived = archive.getEnd();
+        // what the rebuilt games do was counted and archived the first time
+        this.rebuilding = true;
+        try {
+            long start = System.nanoTime();
+            // the journal only changes the games in the snapshot after their mark
+            Set<Integer> snapshotGames = new HashSet<>();
+            long segment = Snapshotter.load(journalDirectory, this, snapshotGames);
+            long records = MoveJournal.read(journalDirectory, segment, new Replayer(segment, snapshotGames));
+            LOG.config("replayed " + records + " journal records into " + games.size() + " games in "
+                    + (System.nanoTime() - start) / 1000000 + " ms");
+            this.journal = new MoveJournal(journalDirectory);
+        }
+        catch(IOException e){
+            throw new UncheckedIOException("The move journal in " + journalDirectory + " couldn't be opened.", e);
+        }
+        this.rebuilding = false;
+        for(GameModel game : games.values()){
+            game.setJournal(journal);
+            game.setEventBus(eventBus);
+        }
+        restored();
+        this.snapshotter = new Snapshotter(this, journalDirectory, journal);
+        this.snapshotter.start(Snapshotter.INTERVAL_SECONDS);
+        Thread learner = new Thread(() -> {
+            archive.readAll(archived, openingBook::addGame);
+            LOG.config("the opening book learned " + openingBook.getGames() + " archived games");
+        }, "opening-book");
+        learner.setDaemon(true);
+        learner.start();
+    }
+
+    /**
+     * opens the archive kept on the disk
+     * @param directory the directory it is in
+     * @return the archive
+     * @throws UncheckedIOException when it can't be opened
+     */
+    private static GameArchive openArchive(File directory){
+        try {
+            return new GameArchive(directory);
+        }
+        catch(IOException e){
+            throw new UncheckedIOException("The game archive in " + directory + " couldn't be opened.", e);
+        }
+    }
+
+    /**
+     * sets whether there is a move the spectators of a game haven't seen
+     * @param game the game
+     * @param newMove true if there is
+     */
+    private static void setNewMove(GameModel game, boolean newMove){
+        for(Player p : game.getSpectators()){
+            p.setNewMove(newMove);
+        }
+    }
+
+    /**
+     * This is used to create a new game on the server with the next free identifier.
+     * @param user the Player starting the game.
+     * @param other the Player being played against.
+     * @return GameModel: a new game object.
+     */
+    public GameModel theGame(Player user, Player other) {
+        return theGame(user, other, lastGameID.incrementAndGet());
     }
 
     /**
@@ -45,23 +196,83 @@ public class GameCenter {
      * @param id the identifier for this new game.
      * @return GameModel: a new game object.
      */
-    public synchronized GameModel theGame(Player user, Player other, int id) {
-        this.games.add(new GameModel(user, other, GameModel.Mode.PLAY, id));
-        return this.games.get(id - 1 - removedGames);
+    public GameModel theGame(Player user, Player other, int id) {
+        // later identifiers must not collide with one chosen by the caller
+        lastGameID.accumulateAndGet(id, Math::max);
+        GameModel game = new GameModel(user, other, GameModel.Mode.PLAY, id);
+        if(!rebuilding){
+            game.setEventBus(eventBus);
+        }
+        Lock lock = starting.readLock();
+        lock.lock();
+        try {
+            // a snapshot can't start a new segment between the start record and the game being listed
+            if(journal != null){
+                journal.appendStart(id, user.getName(), other.getName());
+                game.setJournal(journal);
+            }
+            this.mailboxes.put(id, new GameMailbox(game));
+            this.games.put(id, game);
+        }
+        finally {
+            lock.unlock();
+        }
+        return game;
+    }
+
+    /**
+     * This is used to have the computer play in a game.
+     * @param game the game the computer is joining.
+     * @param player the Player the computer plays as.
+     * @return the computer player.
+     */
+    public ComputerOpponent addComputerOpponent(GameModel game, Player player){
+        ComputerOpponent computer = new ComputerOpponent(mailboxes.get(game.getGameID()), player, openingBook);
+        this.computers.put(game.getGameID(), computer);
+        return computer;
+    }
+
+    /**
+     * gets the computer player in a game
+     * @param id the identifier for the game.
+     * @return the computer player, null if the computer isn't playing in that game.
+     */
+    public ComputerOpponent getComputerOpponent(int id){
+        return this.computers.get(id);
     }
 
     /**
      * gets the current game model
      * @param id the identifier for the game.
-     * @return the GameModel with the supplied identifier.
+     * @return the GameModel with the supplied identifier, null if there is no such game.
      */
-    public synchronized GameModel getGame(int id){
-        try {
-            return this.games.get(id - 1 - removedGames);
-        }
-        catch(IndexOutOfBoundsException e){
-            return null;
-        }
+    public GameModel getGame(int id){
+        return this.games.get(id);
+    }
+
+    /**
+     * gets the mailbox that every change to a game has to be sent through
+     * @param id the identifier for the game.
+     * @return the game's mailbox, null if there is no such game.
+     */
+    public GameMailbox getMailbox(int id){
+        return this.mailboxes.get(id);
+    }
+
+    /**
+     * gets the bus every game publishes its events on
+     * @return the event bus
+     */
+    public GameEventBus getEventBus(){
+        return eventBus;
+    }
+
+    /**
+     * gets the counts of the games' events
+     * @return the metrics
+     */
+    public GameMetrics getMetrics(){
+        return metrics;
     }
 
     /**
@@ -69,12 +280,11 @@ public class GameCenter {
      * so that they can be displayed on the home screen.
      * @return a String[] of the game's ids.
      */
-    public synchronized String[] getArchiveAsString(){
-        String[] gameList = new String[archive.size()];
-        int index = 0;
-        for(GameModel game: archive.values()){
-            gameList[index] = String.valueOf(game.getGameID());
-            index++;
+    public String[] getArchiveAsString(){
+        List<Integer> archived = archive.getIDs();
+        String[] gameList = new String[archived.size()];
+        for(int index = 0; index < archived.size(); index++){
+            gameList[index] = String.valueOf(archived.get(index));
         }
         return gameList;
     }
@@ -82,44 +292,230 @@ public class GameCenter {
     /**
      * This method gets a single archived game using it's game id.
      * @param id the game's identifier.
-     * @return the archived game.
+     * @return the archived game, null if there is no such game.
      */
     public GameModel getArchiveGame(int id){
+        // a game its players haven't left yet is the one they are looking at
+        GameModel game = this.games.get(id);
+        if(game != null && archive.contains(id)){
+            return game;
+        }
         return archive.get(id);
     }
 
-    public GameModel[] getArchives(){
-        GameModel[] gameList = new GameModel[archive.size()];
-        int index = 0;
-        for(GameModel game: archive.values()){
-            gameList[index] = game;
-            index++;
-        }
-        return gameList;
+    /**
+     * gets the newest archived games, read from the disk if they aren't in memory
+     * @param limit the most games to get
+     * @return the games, newest first
+     */
+    public GameModel[] getRecentArchives(int limit){
+        return archive.getRecent(limit).toArray(new GameModel[0]);
+    }
+
+    /**
+     * checks if a game is archived
+     * @param id the identifier for the game.
+     * @return true if it is
+     */
+    boolean isArchived(int id){
+        return archive.contains(id);
     }
 
     /**
      * This method removes the game with the given identifier.
      * @param id the identifier for the game.
      */
-    public synchronized void endGame(int id){
-        this.games.remove(id - 1 - removedGames);
-        this.removedGames++;
+    public void endGame(int id){
+        if(this.games.remove(id) != null && journal != null){
+            journal.appendEnd(id);
+        }
+        this.mailboxes.remove(id);
+        this.computers.remove(id);
+    }
+
+    /**
+     * waits until everything the games have done so far is in the journal on the disk;
+     * the waits of many threads share one write
+     */
+    public void syncJournal(){
+        if(journal != null){
+            try {
+                journal.sync();
+            }
+            catch(IOException e){
+                LOG.severe("the move journal couldn't be written: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * gets what takes the snapshots of the games
+     * @return the snapshotter, null if the games aren't journaled
+     */
+    public Snapshotter getSnapshotter(){
+        return snapshotter;
+    }
+
+    /**
+     * gives back the Player of a game rebuilt from the journal, once, to whoever signs in with its name
+     * @param name the name signed in with
+     * @return the Player, null if no game rebuilt from the journal is waiting for that name
+     */
+    public Player claimRestoredPlayer(String name){
+        return this.restoredPlayers.remove(name);
+    }
+
+    /**
+     * puts the players of the games rebuilt from the journal back in the lobby, archives
+     * the ones that are over and has the computer take its turn in the others
+     */
+    private void restored(){
+        for(GameModel game : games.values()){
+            if(game.playerWon() != null || game.playerResigned() != null){
+                archiveGame(game.getGameID());
+            }
+            else{
+                ComputerOpponent computer = computers.get(game.getGameID());
+                if(computer != null){
+                    computer.takeTurn();
+                }
+            }
+            for(Player player : new Player[]{game.getRedPlayer(), game.getWhitePlayer()}){
+                if(!ComputerOpponent.isComputer(player.getName())){
+                    restoredPlayers.put(player.getName(), player);
+                }
+            }
+        }
+        for(Player player : restoredPlayers.values()){
+            if(!LobbyModel.addPlayer(player)){
+                restoredPlayers.remove(player.getName(), player);
+            }
+        }
+    }
+
+    /**
+     * gets the games being played
+     * @return a snapshot of the games
+     */
+    GameModel[] getLiveGames(){
+        return games.values().toArray(new GameModel[0]);
+    }
+
+    /**
+     * gets the lock that keeps games from starting; held, every game whose start is
+     * in the journal is in the list of live games
+     * @return the lock
+     */
+    Lock getStartLock(){
+        return starting.writeLock();
+    }
+
+    /**
+     * gets the last game identifier handed out
+     * @return the identifier
+     */
+    int getLastGameID(){
+        return lastGameID.get();
+    }
+
+    /**
+     * makes sure no identifier up to one read from a snapshot is handed out again
+     * @param id the identifier
+     */
+    void restoreLastGameID(int id){
+        lastGameID.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * keeps a player read from a snapshot, to be put in the lobby once the games are rebuilt
+     * @param player the player
+     */
+    void restorePlayer(Player player){
+        restoredPlayers.put(player.getName(), player);
+    }
+
+    /**
+     * puts a game read from a snapshot back
+     * @param game the game
+     * @param live true if it is being played
+     * @param archived true if it is in the archive
+     */
+    void restoreGame(GameModel game, boolean live, boolean archived){
+        int id = game.getGameID();
+        restoreLastGameID(id);
+        game.getRedPlayer().setColor(Player.Color.RED);
+        game.getWhitePlayer().setColor(Player.Color.WHITE);
+        if(live){
+            if(!rebuilding){
+                game.setEventBus(eventBus);
+            }
+            this.mailboxes.put(id, new GameMailbox(game));
+            this.games.put(id, game);
+            for(Player player : new Player[]{game.getRedPlayer(), game.getWhitePlayer()}){
+                if(ComputerOpponent.isComputer(player.getName())){
+                    addComputerOpponent(game, player);
+                }
+            }
+        }
+        if(archived && this.archive.add(game)){
+            this.openingBook.addGame(game);
+        }
+    }
+
+    /**
+     * This method adds a finished game to the archive, once.
+     * @param id the identifier for the game.
+     */
+    public void archiveGame(int id){
+        GameModel game = this.games.get(id);
+        if(game != null){
+            archiveGame(game);
+        }
     }
 
-    public synchronized void archiveGame(int id){
-        if(!archive.containsKey(id)){
-            this.archive.put(id, this.games.get(id - 1 - removedGames));
+    /**
+     * adds a finished game to the archive, once. While the game still has its mailbox it
+     * is written from inside it, so it is never written in the middle of a change.
+     * @param game the game
+     */
+    private void archiveGame(GameModel game){
+        GameMailbox mailbox = this.mailboxes.get(game.getGameID());
+        if(mailbox == null || mailbox.getGame() != game){
+            // it has ended, so nothing changes it any more
+            addToArchive(game);
+            return;
+        }
+        try {
+            mailbox.send(g -> {
+                addToArchive(g);
+                return null;
+            });
+        }
+        catch(InvalidMoveException e){
+            LOG.warning("game " + game.getGameID() + " couldn't be archived: " + e.getMessage());
         }
     }
 
-    public int getRemovedGames(){
-        return removedGames;
+    /**
+     * adds a finished game to the archive, and teaches it to the opening book if it wasn't there yet
+     * @param game the game
+     */
+    private void addToArchive(GameModel game){
+        if(this.archive.add(game)){
+            this.openingBook.addGame(game);
+        }
+    }
+
+    /**
+     * gets the book of openings learned from the archived games
+     * @return the opening book
+     */
+    public OpeningBook getOpeningBook(){
+        return openingBook;
     }
 
     public GameModel unitTestSetUpGame(Player user, Player opponent, int id){
-        GameModel m = new GameModel(user, opponent, GameModel.Mode.PLAY, id);
-        games.add(m);
+        GameModel m = theGame(user, opponent, id);
         user.setIsInGame();
         opponent.setIsInGame();
         user.setColor(Player.Color.RED);
@@ -129,4 +525,139 @@ public class GameCenter {
 
         return m;
     }
+
+    /**
+     * This class rebuilds the games from the journal, by making every move again the
+     * way the routes did. A game that was in the snapshot the journal is read after
+     * ignores its records until the mark of that snapshot.
+     */
+    private final class Replayer implements MoveJournal.Reader {
+        /** This is the journal segment the snapshot starts at */
+        private final long snapshot;
+        /** These are the games of the snapshot whose mark hasn't been read yet */
+        private final Set<Integer> unmarked;
+
+        private Replayer(long snapshot, Set<Integer> unmarked){
+            this.snapshot = snapshot;
+            this.unmarked = unmarked;
+        }
+
+        /**
+         * gets a game the records being read are about
+         * @param gameID the game's identifier
+         * @return the game, null if it isn't being played or its records are older than the snapshot
+         */
+        private GameModel live(int gameID){
+            return unmarked.contains(gameID) ? null : games.get(gameID);
+        }
+
+        /**
+         * gets a player of a game being started, who may have been in the snapshot's lobby
+         * @param name the player's name
+         * @return the player
+         */
+        private Player player(String name){
+            Player player = ComputerOpponent.isComputer(name) ? null : restoredPlayers.get(name);
+            return player != null ? player : new Player(name);
+        }
+
+        @Override
+        public void start(int gameID, String red, String white){
+            if(unmarked.contains(gameID)){
+                return;
+            }
+            Player redPlayer = player(red);
+            Player whitePlayer = player(white);
+            redPlayer.setColor(Player.Color.RED);
+            whitePlayer.setColor(Player.Color.WHITE);
+            GameModel game = theGame(redPlayer, whitePlayer, gameID);
+            for(Player player : new Player[]{redPlayer, whitePlayer}){
+                if(!player.getIsInGame()){
+                    player.setIsInGame();
+                }
+                player.setGameID(gameID);
+                if(ComputerOpponent.isComputer(player.getName())){
+                    addComputerOpponent(game, player);
+                }
+            }
+        }
+
+        @Override
+        public void move(int gameID, Player.Color color, Position start, Position end){
+            GameModel game = live(gameID);
+            if(game == null){
+                return;
+            }
+            Move move = new Move(start, end);
+            try {
+                move.setCurState(game.getdMove(), game.getIsFirstMove());
+                if(move.isValid(game, game.getActiveBoardView())){
+                    game.makeMove(move);
+                    game.addMove(move, color == Player.Color.RED ? game.getRedPlayer() : game.getWhitePlayer());
+                    return;
+                }
+            }
+            catch(InvalidMoveException e){
+                LOG.fine(e.getMessage());
+            }
+            LOG.warning("a journaled move of game " + gameID + " couldn't be made again");
+        }
+
+        @Override
+        public void undo(int gameID){
+            GameModel game = live(gameID);
+            if(game != null && !game.getCurTurnMoves().isEmpty()){
+                game.undoLastMove();
+            }
+        }
+
+        @Override
+        public void submit(int gameID){
+            GameModel game = live(gameID);
+            if(game == null){
+                return;
+            }
+            try {
+                game.submitTurn();
+            }
+            catch(InvalidMoveException e){
+                LOG.warning("a journaled turn of game " + gameID + " couldn't be submitted again: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void resign(int gameID, Player.Color color){
+            GameModel game = live(gameID);
+            if(game != null){
+                game.resign(color);
+            }
+        }
+
+        @Override
+        public void win(int gameID, Player.Color color){
+            GameModel game = live(gameID);
+            if(game != null){
+                game.endTheGame(color);
+            }
+        }
+
+        @Override
+        public void end(int gameID){
+            GameModel game = live(gameID);
+            if(game == null){
+                return;
+            }
+            if(game.playerWon() != null || game.playerResigned() != null){
+                archiveGame(gameID);
+            }
+            endGame(gameID);
+        }
+
+        @Override
+        public void mark(int gameID, long segment){
+            if(segment == snapshot){
+                unmarked.remove(gameID);
+            }
+        }
+    }
 }
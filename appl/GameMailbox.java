@@ -0,0 +1,169 @@
+/*
+Filename: GameMailbox.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.appl;
+
+import com.webcheckers.InvalidMoveException;
+import com.webcheckers.Model.GameModel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * The mailbox of one game. Every route that changes a game sends it a command and
+ * waits for the answer; the commands of a game run one at a time, in the order they
+ * arrived, so a GameModel never sees two changes at once. Different games don't share
+ * anything, so they never wait on each other.
+ *
+ * The mailbox has no thread of its own. The first caller to find it idle runs the
+ * commands waiting in it, its own included, until it is empty; callers that arrive
+ * meanwhile just leave their command and wait. A command that sends another command
+ * to the same game runs it right away, since it already has the game to itself.
+ */
+public class GameMailbox {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(GameMailbox.class.getName());
+
+    /**
+     * A change to a game, run with the game to itself.
+     * @param <T> the type of the answer
+     */
+    public interface Command<T> {
+        /**
+         * runs the command
+         * @param game the game
+         * @return the answer
+         * @throws InvalidMoveException when the command isn't allowed
+         */
+        T run(GameModel game) throws InvalidMoveException;
+    }
+
+    /** This is the game the commands change */
+    private final GameModel game;
+    /** These are the commands waiting to run */
+    private final ConcurrentLinkedQueue<Task<?>> tasks = new ConcurrentLinkedQueue<>();
+    /** This condition tells whether a thread is running the commands */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    /** This is the thread running the commands, null when none is */
+    private volatile Thread runner;
+
+    /**
+     * This is the Constructor for a GameMailbox.
+     * @param game the game the commands change.
+     */
+    public GameMailbox(GameModel game){
+        this.game = game;
+    }
+
+    /**
+     * gets the game the commands change
+     * @return the game
+     */
+    public GameModel getGame(){
+        return game;
+    }
+
+    /**
+     * This method runs a command after the commands sent before it, and waits for it.
+     * @param command the command
+     * @param <T> the type of the answer
+     * @return the command's answer
+     * @throws InvalidMoveException when the command threw one
+     */
+    public <T> T send(Command<T> command) throws InvalidMoveException{
+        if(runner == Thread.currentThread()){
+            return command.run(game);
+        }
+        Task<T> task = new Task<>(command);
+        tasks.add(task);
+        drain();
+        return task.await();
+    }
+
+    /**
+     * runs the waiting commands if no other thread is, until there are none
+     */
+    private void drain(){
+        // a command left just as another thread finished is seen by the check below
+        while(!tasks.isEmpty() && running.compareAndSet(false, true)){
+            runner = Thread.currentThread();
+            try {
+                for(Task<?> task = tasks.poll(); task != null; task = tasks.poll()){
+                    task.run(game);
+                }
+            }
+            finally {
+                runner = null;
+                running.set(false);
+            }
+        }
+    }
+
+    /**
+     * This class is a command waiting in the mailbox, with its answer once it has run.
+     * @param <T> the type of the answer
+     */
+    private static final class Task<T> {
+        /** This is the command */
+        private final Command<T> command;
+        /** This is the answer, or what the command threw */
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Task(Command<T> command){
+            this.command = command;
+        }
+
+        /**
+         * runs the command and keeps what it answers or throws
+         * @param game the game
+         */
+        private void run(GameModel game){
+            try {
+                result.complete(command.run(game));
+            }
+            catch(InvalidMoveException | RuntimeException e){
+                result.completeExceptionally(e);
+            }
+            catch(Error e){
+                result.completeExceptionally(e);
+                LOG.severe("a command for game " + game.getGameID() + " failed: " + e);
+            }
+        }
+
+        /**
+         * waits for the command to run
+         * @return the answer
+         * @throws InvalidMoveException when the command threw one
+         */
+        private T await() throws InvalidMoveException{
+            try {
+                return result.join();
+            }
+            catch(CompletionException e){
+                Throwable cause = e.getCause();
+                if(cause instanceof InvalidMoveException){
+                    throw (InvalidMoveException) cause;
+                }
+                if(cause instanceof RuntimeException){
+                    throw (RuntimeException) cause;
+                }
+                if(cause instanceof Error){
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
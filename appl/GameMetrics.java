@@ -0,0 +1,60 @@
+/*
+Filename: GameMetrics.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.appl;
+
+import com.webcheckers.Model.GameEvent;
+import com.webcheckers.Model.GameEventBus;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class counts the events of every game on the server, by kind, as they are
+ * delivered by the GameEventBus.
+ */
+public class GameMetrics {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(GameMetrics.class.getName());
+    /** These are the number of events of every kind, by the class of the event */
+    private final ConcurrentHashMap<Class<?>, LongAdder> counts = new ConcurrentHashMap<>();
+
+    /**
+     * This is the Constructor for GameMetrics. It counts every event on the bus.
+     * @param eventBus the bus the games publish their events on.
+     */
+    public GameMetrics(GameEventBus eventBus){
+        eventBus.subscribe(GameEvent.class, this::count);
+    }
+
+    /**
+     * counts an event
+     * @param event the event
+     */
+    private void count(GameEvent event){
+        counts.computeIfAbsent(event.getClass(), type -> new LongAdder()).increment();
+        if(event instanceof GameEvent.GameWon || event instanceof GameEvent.PlayerResigned){
+            LOG.fine("game " + event.getGameID() + " is over: " + event.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * gets the number of events of a kind so far
+     * @param type the class of the events
+     * @return the number of them
+     */
+    public long getCount(Class<? extends GameEvent> type){
+        LongAdder count = counts.get(type);
+        return count == null ? 0 : count.sum();
+    }
+}
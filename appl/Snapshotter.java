@@ -0,0 +1,322 @@
+/*
+Filename: Snapshotter.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.appl;
+
+import com.webcheckers.InvalidMoveException;
+import com.webcheckers.Model.GameModel;
+import com.webcheckers.Model.LobbyModel;
+import com.webcheckers.Model.MoveJournal;
+import com.webcheckers.Model.Player;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class takes a snapshot of the GameCenter every few minutes, so a restart only
+ * has to replay the journal written since the last one, and the journal's older
+ * segments can be deleted. A restart takes about as long whatever the uptime.
+ *
+ * A snapshot starts a new journal segment, then writes the lobby's players and every
+ * live game to one file in the journal's directory; the archived games are already on
+ * the disk, in the GameArchive, so they aren't written again. Each live game is
+ * written from inside its mailbox, which also appends a mark record to the journal, so
+ * each game is written between two of its moves and the mark tells which of its
+ * records are newer than the snapshot. Only one game is held up at a time, and only
+ * while it is written. The file is written beside the old one and renamed over it once
+ * it is on the disk, so a crash while writing leaves the old snapshot and the journal
+ * it needs. No game can start while the new segment is started and the games are
+ * listed, so every game whose start record is in a deleted segment is in the snapshot.
+ */
+public class Snapshotter {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(Snapshotter.class.getName());
+
+    /** How often a snapshot is taken, in seconds */
+    static final long INTERVAL_SECONDS = 300;
+    /** The first bytes of every snapshot file */
+    private static final int MAGIC = 0x57434b53;
+    /** The version of the snapshot format */
+    private static final int VERSION = 1;
+    /** The start of the name of every snapshot file */
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    /** The end of the name of every snapshot file */
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    /** The flag of a game that is being played */
+    private static final int LIVE = 1;
+    /** The flag of a game that is in the archive */
+    private static final int ARCHIVED = 2;
+
+    /** This is the GameCenter the snapshots are taken of */
+    private final GameCenter gameCenter;
+    /** This is the directory the snapshots and the journal are in */
+    private final File directory;
+    /** This is the journal the games are written to */
+    private final MoveJournal journal;
+    /** This is the thread the snapshots are taken on */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * This is the Constructor for a Snapshotter.
+     * @param gameCenter the GameCenter the snapshots are taken of.
+     * @param directory the directory the snapshots and the journal are in.
+     * @param journal the journal the games are written to.
+     */
+    Snapshotter(GameCenter gameCenter, File directory, MoveJournal journal){
+        this.gameCenter = gameCenter;
+        this.directory = directory;
+        this.journal = journal;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * starts taking a snapshot every so often
+     * @param intervalSeconds the time between snapshots, in seconds
+     */
+    void start(long intervalSeconds){
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            }
+            catch(IOException | RuntimeException e){
+                LOG.severe("the snapshot couldn't be taken: " + e);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * takes a snapshot, then deletes the journal segments and the snapshot it replaces
+     * @return the number of the first journal segment newer than the snapshot
+     * @throws IOException when the snapshot can't be written
+     */
+    public synchronized long snapshot() throws IOException{
+        long start = System.nanoTime();
+        long segment;
+        GameModel[] live;
+        Lock lock = gameCenter.getStartLock();
+        lock.lock();
+        try {
+            // every game started in a segment the snapshot replaces has to be in it
+            segment = journal.roll();
+            live = gameCenter.getLiveGames();
+        }
+        finally {
+            lock.unlock();
+        }
+        File temp = new File(directory, SNAPSHOT_PREFIX + segment + ".tmp");
+        int count = 0;
+        try(FileOutputStream file = new FileOutputStream(temp)){
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 64 * 1024), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(segment);
+            out.writeInt(gameCenter.getLastGameID());
+            LobbyModel.writeSnapshot(out);
+
+            ByteArrayOutputStream state = new ByteArrayOutputStream(1024);
+            DataOutputStream stateOut = new DataOutputStream(state);
+            for(GameModel game : live){
+                int id = game.getGameID();
+                GameMailbox mailbox = gameCenter.getMailbox(id);
+                if(mailbox == null){
+                    // it ended since
+                    continue;
+                }
+                state.reset();
+                try {
+                    mailbox.send(g -> {
+                        try {
+                            g.writeSnapshot(stateOut);
+                        }
+                        catch(IOException e){
+                            throw new UncheckedIOException(e);
+                        }
+                        journal.appendMark(id, segment);
+                        return null;
+                    });
+                }
+                catch(InvalidMoveException e){
+                    throw new IOException("game " + id + " couldn't be written", e);
+                }
+                out.writeByte(LIVE | (gameCenter.isArchived(id) ? ARCHIVED : 0));
+                state.writeTo(out);
+                count++;
+            }
+            out.writeByte(0);
+            out.flush();
+            out.writeInt((int)checked.getChecksum().getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        File snapshot = new File(directory, SNAPSHOT_PREFIX + segment + SNAPSHOT_SUFFIX);
+        Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        try(FileChannel dir = FileChannel.open(directory.toPath(), StandardOpenOption.READ)){
+            dir.force(true);
+        }
+        catch(IOException e){
+            LOG.fine("the journal directory couldn't be forced: " + e.getMessage());
+        }
+
+        // everything before the snapshot is in it now
+        for(File old : snapshots(directory)){
+            if(!old.equals(snapshot) && !old.delete()){
+                LOG.warning("the old snapshot " + old.getName() + " couldn't be deleted");
+            }
+        }
+        int deleted = journal.deleteBefore(segment);
+        LOG.config("took a snapshot of " + count + " games in " + (System.nanoTime() - start) / 1000000
+                + " ms and deleted " + deleted + " journal segments");
+        return segment;
+    }
+
+    /**
+     * puts the players and games of the newest snapshot that can be read in a GameCenter
+     * @param directory the directory the snapshots are in
+     * @param gameCenter the GameCenter, which has to be empty
+     * @param loaded the identifiers of the games in the snapshot are added to this
+     * @return the number of the first journal segment newer than the snapshot; 0 if there is no snapshot
+     */
+    static long load(File directory, GameCenter gameCenter, Set<Integer> loaded){
+        for(File file : snapshots(directory)){
+            try {
+                return read(file, gameCenter, loaded);
+            }
+            catch(IOException | RuntimeException e){
+                LOG.warning("the snapshot " + file.getName() + " couldn't be read: " + e);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * puts the players and games of a snapshot in a GameCenter, if all of it can be read
+     * @param file the snapshot
+     * @param gameCenter the GameCenter, which has to be empty
+     * @param loaded the identifiers of the games in the snapshot are added to this
+     * @return the number of the first journal segment newer than the snapshot
+     * @throws IOException when it can't be read
+     */
+    private static long read(File file, GameCenter gameCenter, Set<Integer> loaded) throws IOException{
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        if(bytes.length < 4){
+            throw new IOException("It is too short.");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if(ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt() != (int)crc.getValue()){
+            throw new IOException("It is damaged.");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if(in.readInt() != MAGIC || in.readInt() != VERSION){
+            throw new IOException("It isn't a snapshot this server can read.");
+        }
+        long segment = in.readLong();
+        int lastGameID = in.readInt();
+
+        Map<String, Player> players = new HashMap<>();
+        for(Player player : LobbyModel.readSnapshot(in)){
+            if(!ComputerOpponent.isComputer(player.getName())){
+                players.put(player.getName(), player);
+            }
+        }
+        List<GameModel> games = new ArrayList<>();
+        List<Integer> flags = new ArrayList<>();
+        for(int flag = in.readByte(); flag != 0; flag = in.readByte()){
+            GameModel game;
+            if((flag & LIVE) != 0){
+                // the computer has a Player of its own in every game
+                game = GameModel.readSnapshot(in, name -> ComputerOpponent.isComputer(name)
+                        ? new Player(name) : players.computeIfAbsent(name, Player::new));
+            }
+            else{
+                // snapshots taken before the archive was kept on the disk hold archived games too
+                game = GameModel.readSnapshot(in, Player::new);
+            }
+            games.add(game);
+            flags.add(flag);
+        }
+
+        // all of it was read, so it can be used
+        gameCenter.restoreLastGameID(lastGameID);
+        for(Player player : players.values()){
+            gameCenter.restorePlayer(player);
+        }
+        for(int i = 0; i < games.size(); i++){
+            gameCenter.restoreGame(games.get(i), (flags.get(i) & LIVE) != 0, (flags.get(i) & ARCHIVED) != 0);
+            loaded.add(games.get(i).getGameID());
+        }
+        LOG.config("read the snapshot " + file.getName() + " of " + players.size() + " players and "
+                + games.size() + " games");
+        return segment;
+    }
+
+    /**
+     * gets the snapshot files in a directory, newest first
+     * @param directory the directory
+     * @return the files
+     */
+    private static List<File> snapshots(File directory){
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX));
+        if(files == null){
+            return new ArrayList<>();
+        }
+        List<File> sorted = new ArrayList<>(Arrays.asList(files));
+        sorted.sort(Comparator.comparingLong(Snapshotter::segmentOf).reversed());
+        return sorted;
+    }
+
+    /**
+     * gets the journal segment a snapshot file starts at, from its name
+     * @param file the snapshot file
+     * @return the number of the segment, -1 if the name has none
+     */
+    private static long segmentOf(File file){
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+        }
+        catch(NumberFormatException e){
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+Filename: Benchmarks.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class runs the JMH benchmarks of the server with the gc profiler, so each
+ * result comes with the bytes allocated per call as well as its throughput and
+ * average time. Any arguments are patterns of the benchmarks to run, such as
+ * "ServerBenchmark.getGame"; with none, every benchmark in this package runs.
+ *
+ * The benchmarks need jmh-core and the jmh-generator-annprocess annotation processor
+ * on the classpath when they are compiled.
+ */
+public final class Benchmarks {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(Benchmarks.class.getName());
+
+    /**
+     * This class only holds the main method, so it can't be constructed.
+     */
+    private Benchmarks(){
+    }
+
+    /**
+     * runs the benchmarks
+     * @param args the patterns of the benchmarks to run
+     * @throws RunnerException when JMH can't run them
+     */
+    public static void main(String[] args) throws RunnerException{
+        ChainedOptionsBuilder options = new OptionsBuilder().addProfiler(GCProfiler.class);
+        if(args.length == 0){
+            options.include(Benchmarks.class.getPackage().getName() + ".*");
+        }
+        for(String pattern : args){
+            options.include(pattern);
+        }
+        new Runner(options.build()).run();
+    }
+}
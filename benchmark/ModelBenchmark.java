@@ -0,0 +1,118 @@
+/*
+Filename: ModelBenchmark.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.benchmark;
+
+import com.webcheckers.InvalidMoveException;
+import com.webcheckers.Model.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class is the JMH benchmark of the game model calls made for every move a player
+ * drags: Move.isValid, GameModel.makeMove and GameModel.undoLastMove. Each one is
+ * measured from a position that has a simple move and from one that has a capture.
+ *
+ * Every benchmark leaves the game as it found it, so the same position is measured
+ * every time without setting it up again between calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelBenchmark {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(ModelBenchmark.class.getName());
+
+    /** This is the position to move in: "start" for a simple move, "capture" for a jump */
+    @Param({"start", "capture"})
+    public String position;
+
+    /** This is the game the moves are made in */
+    private GameModel game;
+    /** This is the player making the moves */
+    private Player player;
+    /** This is where the move starts, on the red player's board */
+    private Position start;
+    /** This is where the move ends, on the red player's board */
+    private Position end;
+
+    /**
+     * sets up the game in the position being measured
+     */
+    @Setup
+    public void setUp(){
+        game = Perft.newGame();
+        player = game.getRedPlayer();
+        if("capture".equals(position)){
+            // red's man on row 4 has to jump white's man on row 3
+            game.setUpPosition(Perft.parse("wwww/wwww/w.ww/..w./..r./r.rr/rrrr/rrrr r"), Player.Color.RED);
+            start = new Position(4, 5);
+            end = new Position(2, 3);
+        }
+        else{
+            game.setUpPosition(Perft.parse(Perft.START), Player.Color.RED);
+            start = new Position(5, 2);
+            end = new Position(4, 3);
+        }
+    }
+
+    /**
+     * checks a move the way PostValidateMoveRoute does
+     * @return whether the move is valid
+     * @throws InvalidMoveException when it isn't
+     */
+    @Benchmark
+    public boolean isValid() throws InvalidMoveException{
+        Move move = new Move(start, end);
+        move.setCurState(game.getdMove(), game.getIsFirstMove());
+        boolean valid = move.isValid(game, game.getActiveBoardView());
+        // isValid marks the turn as started; put it back for the next call
+        game.setIsFirstMove(true);
+        game.setdMove(false);
+        return valid;
+    }
+
+    /**
+     * makes a move and takes it back off the board
+     * @return the move
+     * @throws InvalidMoveException when the move can't be made
+     */
+    @Benchmark
+    public Move makeMove() throws InvalidMoveException{
+        Move move = new Move(start, end);
+        game.makeMove(move);
+        game.unmakeMove(move);
+        return move;
+    }
+
+    /**
+     * makes a move the way PostValidateMoveRoute does, then undoes it the way
+     * BackupMoveRoute does
+     * @return the move
+     * @throws InvalidMoveException when the move can't be made
+     */
+    @Benchmark
+    public Move undoLastMove() throws InvalidMoveException{
+        Move move = new Move(start, end);
+        move.setCurState(game.getdMove(), game.getIsFirstMove());
+        game.makeMove(move);
+        game.addMove(move, player);
+        game.undoLastMove();
+        return move;
+    }
+}
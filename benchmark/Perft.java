@@ -0,0 +1,289 @@
+/*
+Filename: Perft.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.benchmark;
+
+import com.webcheckers.InvalidMoveException;
+import com.webcheckers.Model.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class is the perft ("performance test") tool for the rules engine. It counts
+ * the positions at the end of every line of play N turns long, from the starting
+ * position and from a set of stored test positions, and checks the counts against
+ * known values. Any change to the rules that adds or loses a legal turn changes a
+ * count, so this is run before every change to Move, LegalMoveGenerator or GameModel.
+ *
+ * There are two walks of the game tree. The bitboard walk only uses LegalMoveGenerator
+ * and reports how fast the generator is. The game walk plays every step of every turn
+ * through Move.isValid and GameModel.makeMove, exactly like PostValidateMoveRoute, and
+ * checks that each turn leaves the same position the generator says it does.
+ *
+ * Run it as: Perft [depth] [game]. The depth caps the depth of each test; adding
+ * "game" also runs the game walk, which is much slower.
+ *
+ * Positions are written as the eight rows of playable squares, from row 0 (where red
+ * men are crowned) to row 7, each row holding its four squares from left to right on
+ * the red player's board: 'r' and 'w' are men, 'R' and 'W' kings and '.' is empty.
+ * The rows are split with '/' and the color to move follows after a space.
+ */
+public final class Perft {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(Perft.class.getName());
+    /** The depth tests are capped at when none is given */
+    static final int DEFAULT_DEPTH = 7;
+
+    /** The starting position */
+    public static final String START = "wwww/wwww/wwww/..../..../rrrr/rrrr/rrrr r";
+
+    /**
+     * These are the test positions, each with its counts at depths 1, 2, 3 and so on:
+     * the start, an opening with captures for both sides, a king behind the red men
+     * with multiple jumps, a red king among white men, jumps that end on the king row,
+     * and an endgame of kings.
+     */
+    static final Object[][] TESTS = {
+            {START, new long[]{7, 49, 302, 1469, 7361, 36768, 179740, 845931, 3963680}},
+            {"wwww/w.ww/w..w/..w./...r/r.w./rrrr/rrrr r",
+                    new long[]{2, 3, 17, 135, 987, 7595, 50813, 359943, 2260668}},
+            {"wwww/.w.w/wwww/.r.w/..r./rr../r.rr/rWrr w",
+                    new long[]{3, 5, 15, 26, 138, 760, 4082, 21990, 123088, 636905, 3495010}},
+            {"w.Rw/.ww./ww../.r../..../rr../r.r./..rr w",
+                    new long[]{2, 3, 9, 30, 170, 1001, 5214, 28470, 135152, 691342, 2998698}},
+            {".ww./w.ww/w..r/.www/rr../r.rr/...r/r.rr r",
+                    new long[]{2, 10, 33, 155, 847, 3951, 21572, 96963, 513100, 2326038}},
+            {"..R./..../..../r..R/..../..../..../.WW. w",
+                    new long[]{4, 28, 140, 972, 5500, 37847, 207966, 1473314}},
+    };
+
+    /**
+     * This class only holds static methods, so it can't be constructed.
+     */
+    private Perft(){
+    }
+
+    /**
+     * This method runs every test and prints the counts and the speed.
+     * @param args the depth to cap each test at, and "game" to also run the game walk
+     */
+    public static void main(String[] args){
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        boolean game = args.length > 1 && "game".equals(args[1]);
+        int failures = 0;
+        for(Object[] test : TESTS){
+            String position = (String) test[0];
+            long[] expected = (long[]) test[1];
+            Bitboard board = parse(position);
+            Player.Color color = parseColor(position);
+            System.out.println(position);
+            for(int depth = 1; depth <= Math.min(maxDepth, expected.length); depth++){
+                long start = System.nanoTime();
+                long nodes = perft(board, color, depth);
+                long nanos = System.nanoTime() - start;
+                String result = nodes == expected[depth - 1] ? "ok" : "FAILED, expected " + expected[depth - 1];
+                failures += nodes == expected[depth - 1] ? 0 : 1;
+                System.out.println(String.format("  depth %d: %,d nodes in %.1f ms, %,.0f nodes/s %s",
+                        depth, nodes, nanos / 1e6, nodes * 1e9 / Math.max(nanos, 1), result));
+            }
+            if(game){
+                int depth = Math.min(maxDepth, expected.length);
+                long start = System.nanoTime();
+                long nodes = gamePerft(newGame(), board, color, depth);
+                long nanos = System.nanoTime() - start;
+                failures += nodes == expected[depth - 1] ? 0 : 1;
+                System.out.println(String.format("  game walk to depth %d: %,d nodes in %.1f ms %s", depth, nodes,
+                        nanos / 1e6, nodes == expected[depth - 1] ? "ok" : "FAILED, expected " + expected[depth - 1]));
+            }
+        }
+        System.out.println(failures == 0 ? "all counts match" : failures + " counts didn't match");
+        if(failures > 0){
+            System.exit(1);
+        }
+    }
+
+    /**
+     * counts the positions at the end of every line of play with LegalMoveGenerator
+     * @param board the position to start from; it isn't changed
+     * @param color the color of the side to move
+     * @param depth the number of turns in each line
+     * @return the number of positions, counted once per line that reaches them
+     */
+    public static long perft(Bitboard board, Player.Color color, int depth){
+        Bitboard[] boards = new Bitboard[depth + 1];
+        long[][] turns = new long[depth][LegalMoveGenerator.MAX_TURNS];
+        boards[0] = board.copy();
+        return perft(boards, turns, color, depth, 0);
+    }
+
+    /**
+     * counts the positions below the position on boards[ply]
+     */
+    private static long perft(Bitboard[] boards, long[][] turns, Player.Color color, int depth, int ply){
+        long[] list = turns[ply];
+        int count = LegalMoveGenerator.generateTurns(boards[ply], color, list);
+        if(depth == 1){
+            return count;
+        }
+        Player.Color other = other(color);
+        long nodes = 0;
+        for(int i = 0; i < count; i++){
+            boards[ply + 1] = boards[ply].copy();
+            boards[ply + 1].play(list[i]);
+            nodes += perft(boards, turns, other, depth - 1, ply + 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * counts the positions at the end of every line of play, playing every step of
+     * every turn through Move.isValid and GameModel.makeMove. Every path of a multiple
+     * jump is played, but the paths that leave the same position are counted once, as
+     * in perft.
+     * @param game the game to play the turns in; it is set up again for each turn
+     * @param board the position to start from; it isn't changed
+     * @param color the color of the side to move
+     * @param depth the number of turns in each line
+     * @return the number of positions
+     * @throws IllegalStateException when the game and the generator don't agree
+     */
+    public static long gamePerft(GameModel game, Bitboard board, Player.Color color, int depth){
+        game.setUpPosition(board, color);
+        List<Turn> turns = game.getLegalTurns();
+        Set<Long> counted = new HashSet<>();
+        long nodes = 0;
+        for(Turn turn : turns){
+            game.setUpPosition(board, color);
+            Player player = color == Player.Color.RED ? game.getRedPlayer() : game.getWhitePlayer();
+            for(Move move : turn.getMoves(color)){
+                move.setCurState(game.getdMove(), game.getIsFirstMove());
+                try {
+                    if(!move.isValid(game, game.getActiveBoardView())){
+                        throw new IllegalStateException("a step of a legal turn was refused in " + format(board, color));
+                    }
+                    game.makeMove(move);
+                }
+                catch(InvalidMoveException e){
+                    throw new IllegalStateException("a step of a legal turn was refused in "
+                            + format(board, color) + ": " + e.getMessage());
+                }
+                game.addMove(move, player);
+            }
+            try {
+                game.submitTurn();
+            }
+            catch(InvalidMoveException e){
+                throw new IllegalStateException("a legal turn couldn't be submitted in "
+                        + format(board, color) + ": " + e.getMessage());
+            }
+            Bitboard next = game.getSubmittedPosition();
+            Bitboard expected = board.copy();
+            expected.play(turn.getKey() | (turn.isPromotion() ? Turn.PROMOTES : 0));
+            if(next.getHash() != expected.getHash() || next.getRed() != expected.getRed()
+                    || next.getWhite() != expected.getWhite() || next.getKings() != expected.getKings()){
+                throw new IllegalStateException("a turn left the wrong position in " + format(board, color));
+            }
+            if(counted.add(turn.getKey())){
+                nodes += depth == 1 ? 1 : gamePerft(game, next, other(color), depth - 1);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * makes a game for the game walk
+     * @return a new game between two players
+     */
+    public static GameModel newGame(){
+        Player red = new Player("red");
+        Player white = new Player("white");
+        red.setColor(Player.Color.RED);
+        white.setColor(Player.Color.WHITE);
+        return new GameModel(red, white, GameModel.Mode.PLAY, 0);
+    }
+
+    /**
+     * reads the pieces of a position
+     * @param position the position, written as described above
+     * @return the board
+     */
+    public static Bitboard parse(String position){
+        int red = 0;
+        int white = 0;
+        int kings = 0;
+        int square = 0;
+        for(char c : position.toCharArray()){
+            if(c == ' '){
+                break;
+            }
+            if(c == '/'){
+                continue;
+            }
+            if(c == 'r' || c == 'R'){
+                red |= 1 << square;
+            }
+            else if(c == 'w' || c == 'W'){
+                white |= 1 << square;
+            }
+            else if(c != '.'){
+                throw new IllegalArgumentException("bad square '" + c + "' in " + position);
+            }
+            if(c == 'R' || c == 'W'){
+                kings |= 1 << square;
+            }
+            square++;
+        }
+        if(square != Bitboard.SQUARES){
+            throw new IllegalArgumentException("a position needs 32 squares: " + position);
+        }
+        return new Bitboard(red, white, kings);
+    }
+
+    /**
+     * reads the color to move of a position
+     * @param position the position, written as described above
+     * @return the color to move
+     */
+    public static Player.Color parseColor(String position){
+        return position.endsWith(" w") ? Player.Color.WHITE : Player.Color.RED;
+    }
+
+    /**
+     * writes a position out
+     * @param board the pieces
+     * @param color the color to move
+     * @return the position, written as described above
+     */
+    public static String format(Bitboard board, Player.Color color){
+        StringBuilder out = new StringBuilder();
+        for(int square = 0; square < Bitboard.SQUARES; square++){
+            if(square > 0 && square % 4 == 0){
+                out.append('/');
+            }
+            char c = board.isEmpty(square) ? '.' : board.getColor(square) == Player.Color.RED ? 'r' : 'w';
+            out.append(board.isKing(square) ? Character.toUpperCase(c) : c);
+        }
+        return out.append(color == Player.Color.RED ? " r" : " w").toString();
+    }
+
+    /**
+     * gets the other color
+     * @param color a player's color
+     * @return the opponent's color
+     */
+    private static Player.Color other(Player.Color color){
+        return color == Player.Color.RED ? Player.Color.WHITE : Player.Color.RED;
+    }
+}
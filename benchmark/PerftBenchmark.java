@@ -0,0 +1,116 @@
+/*
+Filename: PerftBenchmark.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.benchmark;
+
+import com.webcheckers.Model.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class is the JMH benchmark of the perft walks in Perft, run over the same test
+ * positions. It needs jmh-core and the jmh-generator-annprocess annotation processor
+ * on the classpath; the 'position' parameter is the index of the position in
+ * Perft.TESTS.
+ *
+ * Each benchmark checks its count against the known one, so a rules change that
+ * breaks the counts fails the benchmark run instead of reporting a speed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PerftBenchmark {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(PerftBenchmark.class.getName());
+
+    /** This is the index of the test position in Perft.TESTS */
+    @Param({"0", "1", "2", "3", "4", "5"})
+    public int position;
+    /** This is the depth of the bitboard walk */
+    @Param({"6"})
+    public int depth;
+    /** This is the depth of the game walk, which is much slower */
+    @Param({"4"})
+    public int gameDepth;
+
+    /** This is the position being walked */
+    private Bitboard board;
+    /** This is the color to move in the position */
+    private Player.Color color;
+    /** These are the known counts of the position */
+    private long[] expected;
+    /** This is the game the game walk plays its turns in */
+    private GameModel game;
+
+    /**
+     * reads the test position
+     */
+    @Setup
+    public void setUp(){
+        String test = (String) Perft.TESTS[position][0];
+        board = Perft.parse(test);
+        color = Perft.parseColor(test);
+        expected = (long[]) Perft.TESTS[position][1];
+        game = Perft.newGame();
+    }
+
+    /**
+     * walks the tree with LegalMoveGenerator
+     * @return the number of positions
+     */
+    @Benchmark
+    public long bitboardPerft(){
+        return check(Perft.perft(board, color, depth), depth);
+    }
+
+    /**
+     * walks the tree through Move.isValid and GameModel.makeMove
+     * @return the number of positions
+     */
+    @Benchmark
+    public long gamePerft(){
+        return check(Perft.gamePerft(game, board, color, gameDepth), gameDepth);
+    }
+
+    /**
+     * checks a count against the known one
+     * @param nodes the count
+     * @param depth the depth it was counted to
+     * @return the count
+     * @throws IllegalStateException when the count is wrong
+     */
+    private long check(long nodes, int depth){
+        if(depth <= expected.length && nodes != expected[depth - 1]){
+            throw new IllegalStateException("perft " + depth + " of " + Perft.TESTS[position][0]
+                    + " gave " + nodes + ", expected " + expected[depth - 1]);
+        }
+        return nodes;
+    }
+
+    /**
+     * runs the benchmark
+     * @param args not used
+     * @throws RunnerException when JMH can't run it
+     */
+    public static void main(String[] args) throws RunnerException{
+        new Runner(new OptionsBuilder().include(PerftBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+Filename: ServerBenchmark.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.benchmark;
+
+import com.google.gson.Gson;
+import com.webcheckers.Model.*;
+import com.webcheckers.appl.GameCenter;
+import com.webcheckers.util.Message;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class is the JMH benchmark of the server calls every page load and poll goes
+ * through: LobbyModel.getAllUsers for the home page, GameCenter.getGame for every game
+ * route, and the Gson work of PostValidateMoveRoute and PostCheckTurnRoute.
+ *
+ * It is measured with 'lobbySize' players signed in, half of them in games, and
+ * 'games' games on the server, so it shows how the calls grow with the load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ServerBenchmark {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(ServerBenchmark.class.getName());
+    /** This is the move a player sends to PostValidateMoveRoute */
+    private static final String MOVE_JSON = "{\"start\":{\"row\":5,\"cell\":2},\"end\":{\"row\":4,\"cell\":3}}";
+
+    /** This is the number of players in the lobby */
+    @Param({"10", "100", "1000"})
+    public int lobbySize;
+    /** This is the number of games on the server */
+    @Param({"1", "100", "1000"})
+    public int games;
+
+    /** This is the game center holding the games */
+    private GameCenter gameCenter;
+    /** This is the player the home page is built for */
+    private Player user;
+    /** This is the converter the routes use */
+    private Gson gson;
+    /** This is the next game to look up */
+    private int nextGame;
+
+    /**
+     * signs the players in and starts the games
+     */
+    @Setup
+    public void setUp(){
+        LobbyModel.removeAllPlayers();
+        Player[] players = new Player[lobbySize];
+        for(int i = 0; i < lobbySize; i++){
+            players[i] = new Player("player" + i);
+            LobbyModel.addPlayer(players[i]);
+        }
+        // the first half of the lobby is paired up into games
+        for(int i = 0; i + 1 < lobbySize / 2; i += 2){
+            players[i].setGameID(i / 2 + 1);
+            players[i + 1].setGameID(i / 2 + 1);
+            players[i].setViewMode(Player.Mode.PLAY);
+            players[i + 1].setViewMode(Player.Mode.PLAY);
+        }
+        user = players[lobbySize - 1];
+
+        gameCenter = new GameCenter();
+        for(int id = 1; id <= games; id++){
+            gameCenter.theGame(new Player("red" + id), new Player("white" + id), id);
+        }
+        gson = new Gson();
+        nextGame = 0;
+    }
+
+    /**
+     * empties the lobby, which is static, so it doesn't carry over to the next run
+     */
+    @TearDown
+    public void tearDown(){
+        LobbyModel.removeAllPlayers();
+    }
+
+    /**
+     * lists every player but the user
+     * @return the names
+     */
+    @Benchmark
+    public String[] getAllUsers(){
+        return LobbyModel.getAllUsers(user, "all");
+    }
+
+    /**
+     * lists the games being played, as the home page does
+     * @return the games
+     */
+    @Benchmark
+    public String[] getAllUsersInGame(){
+        return LobbyModel.getAllUsers(user, "inGame");
+    }
+
+    /**
+     * lists the players who can be challenged, as the home page does
+     * @return the names
+     */
+    @Benchmark
+    public String[] getAllUsersNotInGame(){
+        return LobbyModel.getAllUsers(user, "notInGame");
+    }
+
+    /**
+     * looks up each game in turn
+     * @return the game
+     */
+    @Benchmark
+    public GameModel getGame(){
+        nextGame = nextGame % games + 1;
+        return gameCenter.getGame(nextGame);
+    }
+
+    /**
+     * reads a move and writes the answer, as PostValidateMoveRoute does
+     * @param blackhole keeps the move from being optimized away
+     * @return the answer
+     */
+    @Benchmark
+    public String validateMoveJson(Blackhole blackhole){
+        blackhole.consume(gson.fromJson(MOVE_JSON, Move.class));
+        return gson.toJson(Message.info("This is a valid move."));
+    }
+
+    /**
+     * writes the answer to a poll, as PostCheckTurnRoute does
+     * @return the answer
+     */
+    @Benchmark
+    public String checkTurnJson(){
+        return gson.toJson(Message.info("false"));
+    }
+}
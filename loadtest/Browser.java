@@ -0,0 +1,191 @@
+/*
+Filename: Browser.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class is one simulated browser in a load test. It keeps its own session cookie,
+ * so the server sees it as a separate user, and times every request it makes into the
+ * RouteStats of the route.
+ *
+ * Redirects aren't followed; the simulated player asks for the page it wants next
+ * itself, as the pages' scripts would.
+ */
+final class Browser {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(Browser.class.getName());
+    /** The name of the cookie Jetty keeps the session in */
+    private static final String SESSION_COOKIE = "JSESSIONID";
+    /** How long a request may take before it counts as failed, in milliseconds */
+    private static final int TIMEOUT_MILLIS = 30000;
+    /** What the server's ERROR messages hold */
+    private static final String ERROR_MESSAGE = "\"type\":\"ERROR\"";
+
+    /** This is the address of the server, such as "http://localhost:4567" */
+    private final String server;
+    /** This is the name the browser's user signs in with */
+    private final String name;
+    /** These are the statistics of every route, by route */
+    private final ConcurrentHashMap<String, RouteStats> stats;
+    /** This is the session cookie, null until the server sets one */
+    private volatile String cookie;
+
+    /**
+     * This is the Constructor for a Browser.
+     * @param server the address of the server.
+     * @param name the name the user signs in with.
+     * @param stats the statistics to record requests in, by route.
+     */
+    Browser(String server, String name, ConcurrentHashMap<String, RouteStats> stats){
+        this.server = server;
+        this.name = name;
+        this.stats = stats;
+    }
+
+    /**
+     * gets the name the browser's user signs in with
+     * @return the name
+     */
+    String getName(){
+        return name;
+    }
+
+    /**
+     * makes a GET request
+     * @param path the path, with any query
+     * @return the body of the response, null if the request failed
+     */
+    String get(String path){
+        return request("GET", path, null);
+    }
+
+    /**
+     * makes a POST request with a form
+     * @param path the path
+     * @param form the form's fields and values, one after the other; none for an empty form
+     * @return the body of the response, null if the request failed
+     */
+    String post(String path, String... form){
+        StringBuilder body = new StringBuilder();
+        try {
+            for(int i = 0; i + 1 < form.length; i += 2){
+                if(body.length() > 0){
+                    body.append('&');
+                }
+                body.append(URLEncoder.encode(form[i], "UTF-8")).append('=')
+                        .append(URLEncoder.encode(form[i + 1], "UTF-8"));
+            }
+        }
+        catch(IOException e){
+            throw new IllegalStateException(e);
+        }
+        return request("POST", path, body.toString());
+    }
+
+    /**
+     * makes a request and records how it went
+     * @param method the HTTP method
+     * @param path the path, with any query
+     * @param form the encoded form, null for a GET
+     * @return the body of the response, null if the request failed
+     */
+    private String request(String method, String path, String form){
+        int query = path.indexOf('?');
+        String route = method + " " + (query < 0 ? path : path.substring(0, query));
+        RouteStats routeStats = stats.computeIfAbsent(route, RouteStats::new);
+
+        long start = System.nanoTime();
+        String body = null;
+        boolean error = true;
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(server + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setInstanceFollowRedirects(false);
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            if(cookie != null){
+                connection.setRequestProperty("Cookie", cookie);
+            }
+            if(form != null){
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+                try(OutputStream out = connection.getOutputStream()){
+                    out.write(form.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            keepCookie(connection.getHeaderFields().get("Set-Cookie"));
+            try(InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream()){
+                body = read(in);
+            }
+            error = status >= 400;
+        }
+        catch(IOException e){
+            LOG.fine(name + ": " + route + " failed: " + e.getMessage());
+        }
+        finally {
+            if(connection != null && body == null){
+                connection.disconnect();
+            }
+        }
+        long micros = (System.nanoTime() - start) / 1000;
+        routeStats.record(micros, error, body != null && body.contains(ERROR_MESSAGE));
+        return error ? null : body;
+    }
+
+    /**
+     * keeps the session cookie out of a response's cookies
+     * @param cookies the Set-Cookie headers, may be null
+     */
+    private void keepCookie(List<String> cookies){
+        if(cookies == null){
+            return;
+        }
+        for(String setCookie : cookies){
+            if(setCookie.startsWith(SESSION_COOKIE + "=")){
+                int end = setCookie.indexOf(';');
+                cookie = end < 0 ? setCookie : setCookie.substring(0, end);
+            }
+        }
+    }
+
+    /**
+     * reads a whole response body
+     * @param in the body, may be null
+     * @return the body as text
+     * @throws IOException when it can't be read
+     */
+    private static String read(InputStream in) throws IOException{
+        if(in == null){
+            return "";
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for(int n = in.read(buffer); n >= 0; n = in.read(buffer)){
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,301 @@
+/*
+Filename: LoadTest.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.loadtest;
+
+import com.webcheckers.Application;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class is the load test of the web server. It plays many games at once through
+ * the server's routes the way browsers do, each one a SimulatedGame, and reports the
+ * latency percentiles and error rate of every route and the peak heap of the server.
+ *
+ * Run it as: LoadTest [games] [seconds] [spectators] [pollMillis] [server]. With no
+ * server address it starts a WebServer in this JVM on Spark's port 4567, so the heap
+ * it reports is the server's, plus the load test's own small share. Against another
+ * server the heap isn't reported.
+ *
+ * The simulated browsers run on a pool of threads and wait between requests on a
+ * scheduler rather than sleeping, so thousands of games need only a few hundred threads.
+ */
+public final class LoadTest {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(LoadTest.class.getName());
+    /** The number of games played at once when none is given */
+    static final int DEFAULT_GAMES = 100;
+    /** How long the test runs when no time is given, in seconds */
+    static final int DEFAULT_SECONDS = 60;
+    /** The number of spectators of each game when none is given */
+    static final int DEFAULT_SPECTATORS = 1;
+    /** How often the browsers poll when no time is given, in milliseconds */
+    static final long DEFAULT_POLL_MILLIS = 1000;
+    /** The address of a WebServer started by the load test */
+    static final String LOCAL_SERVER = "http://localhost:4567";
+    /** The most threads the browsers run on */
+    private static final int MAX_THREADS = 512;
+    /** How long the games have to finish once the test is over, in milliseconds */
+    private static final long FINISH_MILLIS = 30000;
+
+    /** This is the address of the server */
+    private final String server;
+    /** This is the number of spectators of each game */
+    private final int spectators;
+    /** This is how often the browsers poll, in milliseconds */
+    private final long pollMillis;
+    /** This is the scheduler the browsers run on */
+    private final ScheduledExecutorService scheduler;
+    /** These are the statistics of every route, by route */
+    private final ConcurrentHashMap<String, RouteStats> stats = new ConcurrentHashMap<>();
+    /** This is the number of games that have finished */
+    private final AtomicLong gamesFinished = new AtomicLong();
+    /** This is the number of turns played in the finished games */
+    private final AtomicLong turnsPlayed = new AtomicLong();
+    /** This is the number of games being played now */
+    private final AtomicLong gamesRunning = new AtomicLong();
+    /** This condition tells whether the games should stop */
+    private volatile boolean stopping;
+
+    /**
+     * This is the Constructor for a LoadTest.
+     * @param server the address of the server.
+     * @param spectators the number of spectators of each game.
+     * @param pollMillis how often the browsers poll, in milliseconds.
+     * @param threads the number of threads the browsers run on.
+     */
+    LoadTest(String server, int spectators, long pollMillis, int threads){
+        this.server = server;
+        this.spectators = spectators;
+        this.pollMillis = pollMillis;
+        this.scheduler = Executors.newScheduledThreadPool(threads);
+    }
+
+    /**
+     * This method runs the load test and prints the report.
+     * @param args the number of games, the number of seconds, the number of spectators
+     * of each game, the poll interval in milliseconds and the server address
+     * @throws InterruptedException when the test is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException{
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int spectators = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SPECTATORS;
+        long pollMillis = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_POLL_MILLIS;
+        boolean local = args.length <= 4;
+        String server = local ? LOCAL_SERVER : args[4];
+
+        if(local){
+            Application.main(new String[0]);
+            waitForServer(server);
+        }
+        // a browser spends nearly all its time waiting, so a thread serves several
+        int threads = Math.min(MAX_THREADS, Math.max(8, games * (2 + spectators) / 4));
+        LoadTest test = new LoadTest(server, spectators, pollMillis, threads);
+        System.out.println("playing " + games + " games with " + spectators + " spectators each against "
+                + server + " for " + seconds + " s, polling every " + pollMillis + " ms on " + threads + " threads");
+        test.run(games, seconds, local);
+        System.exit(0);
+    }
+
+    /**
+     * plays the games for a while and prints the report
+     * @param games the number of games played at once
+     * @param seconds how long to play for
+     * @param measureHeap whether the server is in this JVM, so its heap can be measured
+     * @throws InterruptedException when the test is interrupted
+     */
+    void run(int games, int seconds, boolean measureHeap) throws InterruptedException{
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()){
+            if(pool.getType() == MemoryType.HEAP){
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+
+        // the games start spread over the first poll interval, as users would arrive
+        long start = System.nanoTime();
+        for(int slot = 0; slot < games; slot++){
+            new SimulatedGame(this, slot, 0).start(pollMillis * slot / Math.max(games, 1));
+        }
+        for(int second = 1; second <= seconds; second++){
+            Thread.sleep(1000);
+            if(second % 10 == 0){
+                System.out.println(second + " s: " + totalRequests() + " requests, "
+                        + gamesFinished.get() + " games finished");
+            }
+        }
+        stopping = true;
+        long deadline = System.currentTimeMillis() + FINISH_MILLIS;
+        while(gamesRunning.get() > 0 && System.currentTimeMillis() < deadline){
+            Thread.sleep(100);
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        scheduler.shutdownNow();
+
+        report(elapsed);
+        if(measureHeap){
+            long peak = 0;
+            for(MemoryPoolMXBean pool : heapPools){
+                peak += pool.getPeakUsage().getUsed();
+            }
+            System.out.println(String.format("peak heap: %.1f MB (max %.1f MB)", peak / 1048576.0,
+                    Runtime.getRuntime().maxMemory() / 1048576.0));
+        }
+        else{
+            System.out.println("peak heap: not measured, the server is in another process");
+        }
+    }
+
+    /**
+     * prints the statistics of every route
+     * @param elapsed how long the test ran, in seconds
+     */
+    private void report(double elapsed){
+        List<RouteStats> routes = new ArrayList<>(stats.values());
+        routes.sort((a, b) -> a.getName().compareTo(b.getName()));
+        System.out.println(String.format("%-28s %9s %7s %8s %9s %9s %9s %9s %9s",
+                "route", "requests", "errors", "rejected", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        long requests = 0;
+        long errors = 0;
+        for(RouteStats route : routes){
+            requests += route.getRequests();
+            errors += route.getErrors();
+            System.out.println(String.format("%-28s %9d %6.2f%% %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f",
+                    route.getName(), route.getRequests(),
+                    100.0 * route.getErrors() / Math.max(route.getRequests(), 1),
+                    100.0 * route.getRejected() / Math.max(route.getRequests(), 1),
+                    route.percentile(50) / 1000.0, route.percentile(90) / 1000.0,
+                    route.percentile(99) / 1000.0, route.percentile(99.9) / 1000.0, route.getMax() / 1000.0));
+        }
+        System.out.println(String.format("%d requests in %.1f s (%.0f/s), %.2f%% errors; %d games finished, %d turns played",
+                requests, elapsed, requests / elapsed, 100.0 * errors / Math.max(requests, 1),
+                gamesFinished.get(), turnsPlayed.get()));
+    }
+
+    /**
+     * waits until a server answers
+     * @param server the address of the server
+     * @throws InterruptedException when the wait is interrupted
+     */
+    private static void waitForServer(String server) throws InterruptedException{
+        for(int tries = 0; tries < 100; tries++){
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(server + "/").openConnection();
+                connection.setConnectTimeout(1000);
+                if(connection.getResponseCode() > 0){
+                    connection.disconnect();
+                    return;
+                }
+            }
+            catch(IOException e){
+                LOG.finest("server isn't up yet: " + e.getMessage());
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("the server at " + server + " didn't start");
+    }
+
+    /**
+     * makes a browser for a simulated user
+     * @param name the name the user signs in with
+     * @return the browser
+     */
+    Browser newBrowser(String name){
+        return new Browser(server, name, stats);
+    }
+
+    /**
+     * runs a browser's next step after a delay, unless the scheduler has been shut down
+     * @param step the step
+     * @param delayMillis the delay, in milliseconds
+     */
+    void schedule(Runnable step, long delayMillis){
+        if(!scheduler.isShutdown()){
+            scheduler.schedule(() -> {
+                try {
+                    step.run();
+                }
+                catch(RuntimeException e){
+                    LOG.warning("a simulated browser failed: " + e);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * counts a game that has started
+     */
+    void gameStarted(){
+        gamesRunning.incrementAndGet();
+    }
+
+    /**
+     * counts a game that has finished
+     * @param turns the number of turns it lasted
+     */
+    void gameFinished(int turns){
+        gamesRunning.decrementAndGet();
+        gamesFinished.incrementAndGet();
+        turnsPlayed.addAndGet(turns);
+    }
+
+    /**
+     * gets the number of requests made so far
+     * @return the number of requests
+     */
+    private long totalRequests(){
+        long requests = 0;
+        for(RouteStats route : stats.values()){
+            requests += route.getRequests();
+        }
+        return requests;
+    }
+
+    /**
+     * gets the number of spectators of each game
+     * @return the number of spectators
+     */
+    int getSpectators(){
+        return spectators;
+    }
+
+    /**
+     * gets how often the browsers poll
+     * @return the interval, in milliseconds
+     */
+    long getPollMillis(){
+        return pollMillis;
+    }
+
+    /**
+     * checks if the games should stop
+     * @return true once the test is over
+     */
+    boolean isStopping(){
+        return stopping;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+Filename: RouteStats.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class counts the requests made to one route during a load test and keeps a
+ * histogram of how long they took, so percentiles can be read off at the end.
+ *
+ * The histogram has SUB_BUCKETS buckets for every power of two of microseconds, so a
+ * percentile is within about 3% of the real latency however long the test runs, and
+ * recording a request takes no locks and makes no objects.
+ */
+final class RouteStats {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(RouteStats.class.getName());
+    /** The number of buckets for each power of two */
+    private static final int SUB_BUCKETS = 32;
+    /** The log base two of SUB_BUCKETS */
+    private static final int SUB_BUCKET_BITS = 5;
+    /** The number of buckets; enough for latencies of several days */
+    private static final int BUCKETS = 40 * SUB_BUCKETS;
+
+    /** This is the name of the route, such as "POST /checkTurn" */
+    private final String name;
+    /** These are the number of requests that took each range of times */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    /** This is the number of requests made */
+    private final AtomicLong requests = new AtomicLong();
+    /** This is the number of requests that failed or got an HTTP error */
+    private final AtomicLong errors = new AtomicLong();
+    /** This is the number of requests the server answered with an ERROR message */
+    private final AtomicLong rejected = new AtomicLong();
+    /** This is the longest request, in microseconds */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * This is the Constructor for RouteStats.
+     * @param name the name of the route.
+     */
+    RouteStats(String name){
+        this.name = name;
+    }
+
+    /**
+     * records one request
+     * @param micros how long it took, in microseconds
+     * @param error whether it failed or got an HTTP error
+     * @param rejectedByServer whether the server answered it with an ERROR message
+     */
+    void record(long micros, boolean error, boolean rejectedByServer){
+        requests.incrementAndGet();
+        if(error){
+            errors.incrementAndGet();
+        }
+        if(rejectedByServer){
+            rejected.incrementAndGet();
+        }
+        buckets.incrementAndGet(bucket(micros));
+        long longest = max.get();
+        while(micros > longest && !max.compareAndSet(longest, micros)){
+            longest = max.get();
+        }
+    }
+
+    /**
+     * gets a percentile of the latency
+     * @param percent the percentile, such as 99.9
+     * @return the latency, in microseconds; 0 if there were no requests
+     */
+    long percentile(double percent){
+        long total = requests.get();
+        long wanted = (long) Math.ceil(total * percent / 100.0);
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++){
+            seen += buckets.get(i);
+            if(seen >= wanted && seen > 0){
+                return Math.min(value(i + 1) - 1, max.get());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * gets the name of the route
+     * @return the name
+     */
+    String getName(){
+        return name;
+    }
+
+    /**
+     * gets the number of requests made
+     * @return the number of requests
+     */
+    long getRequests(){
+        return requests.get();
+    }
+
+    /**
+     * gets the number of requests that failed or got an HTTP error
+     * @return the number of errors
+     */
+    long getErrors(){
+        return errors.get();
+    }
+
+    /**
+     * gets the number of requests the server answered with an ERROR message
+     * @return the number of rejected requests
+     */
+    long getRejected(){
+        return rejected.get();
+    }
+
+    /**
+     * gets the longest request
+     * @return the latency, in microseconds
+     */
+    long getMax(){
+        return max.get();
+    }
+
+    /**
+     * gets the bucket a latency is counted in
+     * @param micros the latency, in microseconds
+     * @return the index of the bucket
+     */
+    private static int bucket(long micros){
+        if(micros < 2 * SUB_BUCKETS){
+            return (int) Math.max(micros, 0);
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return Math.min(shift * SUB_BUCKETS + (int) (micros >>> shift), BUCKETS - 1);
+    }
+
+    /**
+     * gets the smallest latency counted in a bucket
+     * @param bucket the index of the bucket
+     * @return the latency, in microseconds
+     */
+    private static long value(int bucket){
+        if(bucket < 2 * SUB_BUCKETS){
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (bucket - shift * SUB_BUCKETS) << shift;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+Filename: SimulatedGame.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.loadtest;
+
+import com.google.gson.Gson;
+import com.webcheckers.Model.Position;
+import com.webcheckers.ui.WebServer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class plays one game of a load test the way real browsers would. Two players
+ * sign in and the red player challenges the white one through the game page; some
+ * spectators sign in and watch. The player whose turn it is waits a little, asks for
+ * the legal turns, drags the pieces of a random one through /validateMove and submits
+ * it. Everyone else polls their check turn route until the board changes.
+ *
+ * A game ends when a player can't move or MAX_TURNS turns have been played; that
+ * player resigns, everyone signs out, and the next game starts in the same slot
+ * with new players, until the load test stops.
+ */
+final class SimulatedGame {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(SimulatedGame.class.getName());
+    /** The most turns a game lasts before a player resigns */
+    static final int MAX_TURNS = 150;
+    /** What a check turn route answers when the board has changed */
+    private static final String CHANGED = "\"text\":\"true\"";
+    /** This is the converter for the JSON the server sends and receives */
+    private static final Gson GSON = new Gson();
+
+    /** This is the load test the game is part of */
+    private final LoadTest test;
+    /** This is the number of the slot the game is played in */
+    private final int slot;
+    /** This is the number of games played in the slot before this one */
+    private final int round;
+    /** This is the browser of the red player, who challenges */
+    private final Browser red;
+    /** This is the browser of the white player, who is challenged */
+    private final Browser white;
+    /** These are the browsers of the spectators */
+    private final List<Browser> spectators = new ArrayList<>();
+    /** This condition tells whether a player has resigned */
+    private volatile boolean over;
+    /** This condition tells whether everyone has signed out */
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    /** This is the number of turns played */
+    private int turns;
+
+    /**
+     * This is the Constructor for a SimulatedGame.
+     * @param test the load test the game is part of.
+     * @param slot the number of the slot the game is played in.
+     * @param round the number of games played in the slot before this one.
+     */
+    SimulatedGame(LoadTest test, int slot, int round){
+        this.test = test;
+        this.slot = slot;
+        this.round = round;
+        String prefix = "load" + slot + "x" + round;
+        this.red = test.newBrowser(prefix + "red");
+        this.white = test.newBrowser(prefix + "white");
+        for(int i = 0; i < test.getSpectators(); i++){
+            spectators.add(test.newBrowser(prefix + "watcher" + i));
+        }
+    }
+
+    /**
+     * starts the game after a delay
+     * @param delayMillis the delay, in milliseconds
+     */
+    void start(long delayMillis){
+        test.gameStarted();
+        test.schedule(this::signIn, delayMillis);
+    }
+
+    /**
+     * signs everyone in, starts the game and starts the spectators watching
+     */
+    private void signIn(){
+        List<Browser> everyone = new ArrayList<>(spectators);
+        everyone.add(0, white);
+        everyone.add(0, red);
+        for(Browser browser : everyone){
+            browser.get(WebServer.HOME_URL);
+            browser.post(WebServer.HOME_URL, "id", browser.getName());
+        }
+        red.get(WebServer.GAME_URL + "?" + white.getName());
+        white.get(WebServer.GAME_URL);
+        for(Browser spectator : spectators){
+            // a game that has started can only be watched
+            spectator.get(WebServer.GAME_URL + "?" + red.getName());
+            spectator.get(WebServer.SPECTATEGAME_URL);
+            test.schedule(() -> watch(spectator), test.getPollMillis());
+        }
+        test.schedule(() -> move(red), thinkMillis());
+        test.schedule(() -> poll(white), test.getPollMillis());
+    }
+
+    /**
+     * polls for a player whose turn it isn't, and moves when it is
+     * @param player the player's browser
+     */
+    private void poll(Browser player){
+        if(finished.get()){
+            return;
+        }
+        String answer = player.post(WebServer.CHECKTURN_URL);
+        if(answer != null && answer.contains(CHANGED)){
+            // the page reloads when the turn changes
+            player.get(WebServer.GAME_URL);
+            if(over){
+                finish();
+            }
+            else{
+                test.schedule(() -> move(player), thinkMillis());
+            }
+        }
+        else{
+            test.schedule(() -> poll(player), test.getPollMillis());
+        }
+    }
+
+    /**
+     * polls for a spectator, and reloads the page when the board changes
+     * @param spectator the spectator's browser
+     */
+    private void watch(Browser spectator){
+        if(finished.get()){
+            return;
+        }
+        String answer = spectator.post(WebServer.SPECTATORCHECKTURN_URL);
+        if(answer != null && answer.contains(CHANGED)){
+            spectator.get(WebServer.SPECTATEGAME_URL);
+        }
+        test.schedule(() -> watch(spectator), test.getPollMillis());
+    }
+
+    /**
+     * makes a random legal turn for the player whose turn it is, or resigns
+     * @param player the player's browser
+     */
+    private void move(Browser player){
+        if(finished.get()){
+            return;
+        }
+        String legal = player.post(WebServer.LEGAL_MOVES_URL);
+        Position[][] paths = legal == null ? null : GSON.fromJson(legal, Position[][].class);
+        if(paths == null || paths.length == 0 || turns >= MAX_TURNS || test.isStopping()){
+            player.post(WebServer.RESIGN_URL);
+            over = true;
+            // give the others a couple of polls to see the game is over
+            test.schedule(this::finish, 2 * test.getPollMillis());
+            return;
+        }
+        Position[] path = paths[ThreadLocalRandom.current().nextInt(paths.length)];
+        for(int i = 1; i < path.length; i++){
+            Map<String, Position> move = new HashMap<>(2);
+            move.put("start", path[i - 1]);
+            move.put("end", path[i]);
+            player.post(WebServer.VALIDATE_URL, "actionData", GSON.toJson(move));
+        }
+        player.post(WebServer.SUBMIT_TURN_URL);
+        turns++;
+        test.schedule(() -> poll(player), test.getPollMillis());
+    }
+
+    /**
+     * signs everyone out and starts the next game in the slot
+     */
+    private void finish(){
+        if(!finished.compareAndSet(false, true)){
+            return;
+        }
+        for(Browser spectator : spectators){
+            spectator.get(WebServer.STOPSPECTATEGAME_URL);
+            spectator.post(WebServer.SIGNOUT_URL);
+        }
+        red.post(WebServer.SIGNOUT_URL);
+        white.post(WebServer.SIGNOUT_URL);
+        test.gameFinished(turns);
+        if(!test.isStopping()){
+            new SimulatedGame(test, slot, round + 1).start(test.getPollMillis());
+        }
+    }
+
+    /**
+     * picks how long a player looks at the board before moving
+     * @return the time, in milliseconds, around the poll interval
+     */
+    private long thinkMillis(){
+        long poll = test.getPollMillis();
+        return poll / 2 + ThreadLocalRandom.current().nextLong(poll + 1);
+    }
+}
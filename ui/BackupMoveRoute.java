@@ -8,8 +8,10 @@ Spark_Version: 2.8.0
 package com.webcheckers.ui;
 
 import com.google.gson.Gson;
+import com.webcheckers.InvalidMoveException;
 import com.webcheckers.Model.Player;
 import com.webcheckers.appl.GameCenter;
+import com.webcheckers.appl.GameMailbox;
 import com.webcheckers.util.Message;
 import spark.Request;
 import spark.Response;
@@ -53,7 +55,19 @@ public class BackupMoveRoute implements Route{
         final GameCenter gameCenter = httpSession.attribute(GetHomeRoute.GAMECENTER_KEY);
         Player user = httpSession.attribute("user");
 
-        gameCenter.getGame(user.getGameID()).undoLastMove();
+        GameMailbox mailbox = gameCenter.getMailbox(user.getGameID());
+        if(mailbox == null){
+            return this.gson.toJson(Message.error("This game is NULL for some reason?"));
+        }
+        try {
+            mailbox.send(game -> {
+                game.undoLastMove();
+                return null;
+            });
+        }
+        catch(InvalidMoveException e){
+            return this.gson.toJson(Message.error("The move can't be undone." + e.getMessage()));
+        }
 
         return this.gson.toJson(Message.info("The piece is now back to its prior position."));
     }
@@ -0,0 +1,199 @@
+/*
+Filename: GameSocket.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.ui;
+
+import com.google.gson.Gson;
+import com.webcheckers.Model.GameEvent;
+import com.webcheckers.Model.Player;
+import com.webcheckers.appl.GameCenter;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
+import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This is the WebSocket the game pages connect to, on the Jetty server Spark starts, to
+ * be told when the turn changes, a player wins or a player resigns, instead of polling
+ * the check turn routes. A page connects with the game's identifier in the game
+ * parameter, and is sent a JSON object with the event, the game's identifier and
+ * whose turn it is, such as {"event":"TURN","gameID":3,"activeColor":"WHITE"}.
+ *
+ * The events come from the GameCenter's event bus. Each one is made into JSON once and sent
+ * to every page watching the game without waiting for it to arrive, so a slow browser
+ * doesn't hold up the game. A page that waits on the socket costs the server nothing.
+ * A browser that stops reading would make its events pile up in Jetty, so a connection
+ * with too many events still on their way is closed.
+ */
+@WebSocket
+public class GameSocket {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(GameSocket.class.getName());
+    /** This is the java to json string converter */
+    private final Gson gson;
+    /** The most events a connection can have still on their way before it is closed */
+    static final int MAX_PENDING_SENDS = 64;
+    /** The close code of a connection that fell too far behind: try again later */
+    private static final int TRY_AGAIN_LATER = 1013;
+    /** These are the connections watching every game, by game identifier */
+    private final ConcurrentHashMap<Integer, Set<Session>> watchers = new ConcurrentHashMap<>();
+    /** These are the numbers of events still on their way to each connection */
+    private final ConcurrentHashMap<Session, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    static final String GAME_PARAM = "game";
+
+    /**
+     * This is the Constructor for GameSocket. It subscribes to the events of every game in the GameCenter.
+     * @param gameCenter the GameCenter the games are in.
+     * @param gson the java to json string converter.
+     */
+    public GameSocket(final GameCenter gameCenter, final Gson gson) {
+        this.gson = Objects.requireNonNull(gson, "gson is required");
+        gameCenter.getEventBus().subscribe(GameEvent.TurnSubmitted.class,
+                event -> send(event.getGameID(), "TURN", event.getActiveColor()));
+        gameCenter.getEventBus().subscribe(GameEvent.GameWon.class,
+                event -> send(event.getGameID(), "WON", event.getGame().getActiveColor()));
+        gameCenter.getEventBus().subscribe(GameEvent.PlayerResigned.class,
+                event -> send(event.getGameID(), "RESIGNED", event.getGame().getActiveColor()));
+    }
+
+    /**
+     * starts sending a new connection the events of the game it asked for
+     * @param session the connection
+     */
+    @OnWebSocketConnect
+    public void connected(Session session){
+        Integer gameID = gameID(session);
+        if(gameID == null){
+            session.close(1008, "The game parameter is required.");
+            return;
+        }
+        pending.put(session, new AtomicInteger());
+        watchers.compute(gameID, (id, sessions) -> {
+            if(sessions == null){
+                sessions = ConcurrentHashMap.newKeySet();
+            }
+            sessions.add(session);
+            return sessions;
+        });
+    }
+
+    /**
+     * stops sending events to a connection that has closed
+     * @param session the connection
+     * @param statusCode the code it was closed with
+     * @param reason why it was closed
+     */
+    @OnWebSocketClose
+    public void closed(Session session, int statusCode, String reason){
+        Integer gameID = gameID(session);
+        if(gameID != null){
+            forget(gameID, session);
+        }
+    }
+
+    /**
+     * ignores what a page sends; the socket only sends
+     * @param session the connection
+     * @param message what the page sent
+     */
+    @OnWebSocketMessage
+    public void message(Session session, String message){
+        LOG.finest("ignored a message on the game socket");
+    }
+
+    /**
+     * sends an event to every connection watching the game
+     * @param gameID the game's identifier
+     * @param name what happened
+     * @param activeColor whose turn it is
+     */
+    private void send(int gameID, String name, Player.Color activeColor){
+        Set<Session> sessions = watchers.get(gameID);
+        if(sessions == null){
+            return;
+        }
+        Map<String, Object> event = new HashMap<>();
+        event.put("event", name);
+        event.put("gameID", gameID);
+        event.put("activeColor", activeColor.name());
+        String json = gson.toJson(event);
+        for(Session session : sessions){
+            AtomicInteger waiting = pending.get(session);
+            if(!session.isOpen() || waiting == null){
+                forget(gameID, session);
+            }
+            else if(waiting.incrementAndGet() > MAX_PENDING_SENDS){
+                LOG.fine("a page watching game " + gameID + " stopped reading and was closed");
+                forget(gameID, session);
+                session.close(TRY_AGAIN_LATER, "Too many events are waiting to be sent.");
+            }
+            else{
+                // sent by Jetty in the background
+                session.getRemote().sendString(json, new WriteCallback() {
+                    @Override
+                    public void writeSuccess(){
+                        waiting.decrementAndGet();
+                    }
+
+                    @Override
+                    public void writeFailed(Throwable error){
+                        waiting.decrementAndGet();
+                        LOG.finer("an event for game " + gameID + " couldn't be sent: " + error.getMessage());
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * stops sending a game's events to a connection
+     * @param gameID the game's identifier
+     * @param session the connection
+     */
+    private void forget(int gameID, Session session){
+        pending.remove(session);
+        watchers.computeIfPresent(gameID, (id, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    /**
+     * gets the identifier of the game a connection asked for
+     * @param session the connection
+     * @return the identifier, null if it didn't ask for one
+     */
+    private static Integer gameID(Session session){
+        List<String> values = session.getUpgradeRequest().getParameterMap().get(GAME_PARAM);
+        if(values == null || values.isEmpty()){
+            return null;
+        }
+        try {
+            return Integer.valueOf(values.get(0));
+        }
+        catch(NumberFormatException e){
+            return null;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import static spark.Spark.halt;
 import com.google.gson.Gson;
 import com.webcheckers.Model.GameModel;
 import com.webcheckers.Model.Player;
+import com.webcheckers.appl.ComputerOpponent;
 import com.webcheckers.appl.GameCenter;
 import com.webcheckers.appl.PlayerServices;
 import spark.*;
@@ -34,8 +35,6 @@ import java.util.logging.Logger;
 public class GetGameRoute implements Route{
     /** This is the Logger object that is used to record server info in the terminal window */
     private static final Logger LOG = Logger.getLogger(GetGameRoute.class.getName());
-    /** This keeps track of the number of games */
-    static int numGames = 0;
     /** This is the TemplateEngine used to render the screen */
     private final TemplateEngine templateEngine;
     /** This is the java to json string converter */
@@ -95,6 +94,11 @@ public class GetGameRoute implements Route{
                 Player opPlayer = null;
                 for (String name : querySet) {
                     String[] namesParam = name.split(" vs. ");
+                    if(ComputerOpponent.isComputer(namesParam[0])){
+                        // the computer can play any number of games, so it gets a new Player for each one
+                        opPlayer = new Player(ComputerOpponent.NAME);
+                        break;
+                    }
                     opPlayer = playerServices.currentLobby().getPlayer(namesParam[0]);
                     if(opPlayer.getIsInGame()){
                         user.setJustEnteredFullGame();
@@ -116,9 +120,11 @@ public class GetGameRoute implements Route{
                 user.setColor(Player.Color.RED);
                 opPlayer.setColor(Player.Color.WHITE);
 
-                numGames = numGames + 1;
-
-                GameModel game = gameCenter.theGame(user, opPlayer, numGames);
+                GameModel game = gameCenter.theGame(user, opPlayer);
+                if(ComputerOpponent.isComputer(opPlayer.getName())){
+                    opPlayer.setIsInGame();
+                    gameCenter.addComputerOpponent(game, opPlayer);
+                }
 
                 user.setIsInGame();
 
@@ -132,7 +138,7 @@ public class GetGameRoute implements Route{
                 vm.put(RED_PLAYER, user);
                 vm.put(WHITE_PLAYER, opPlayer);
                 vm.put(ACTIVE_COLOR, Player.Color.RED);
-                vm.put(BOARD, gameCenter.getGame(game.getGameID()).getRedBoard());
+                vm.put(BOARD, gameCenter.getGame(game.getGameID()).getBoardViewFor(user));
             } else {
                 if (!gameCenter.getGame(user.getGameID()).getWhitePlayer().equals(user) &&
                         !gameCenter.getGame(user.getGameID()).getRedPlayer().equals(user)) {
@@ -154,11 +160,7 @@ public class GetGameRoute implements Route{
                 vm.put(RED_PLAYER, gameCenter.getGame(user.getGameID()).getRedPlayer());
                 vm.put(WHITE_PLAYER, gameCenter.getGame(user.getGameID()).getWhitePlayer());
                 vm.put(ACTIVE_COLOR, gameCenter.getGame(user.getGameID()).getActiveColor());
-                if (user.getColor() == Player.Color.RED) {
-                    vm.put(BOARD, gameCenter.getGame(user.getGameID()).getRedBoard());
-                } else {
-                    vm.put(BOARD, gameCenter.getGame(user.getGameID()).getWhiteBoard());
-                }
+                vm.put(BOARD, gameCenter.getGame(user.getGameID()).getBoardViewFor(user));
             }
             // This is where the end game functionality starts.
             if (gameCenter.getGame(user.getGameID()).playerWon() != null) {
@@ -9,6 +9,7 @@ package com.webcheckers.ui;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.List;
 import java.util.Objects;
 import java.util.logging.Logger;
 
@@ -50,6 +51,8 @@ public class GetHomeRoute implements Route {
     static final String NUMPLAYERS_ATTR = "numPlayers";
     static final String ACTIVE_ATTR = "activeGames";
     static final String WAITING_ATTR = "waitingPlayers";
+    static final String MORE_PLAYERS_ATTR = "morePlayers";
+    static final String LOBBY_URL_ATTR = "lobbyUrl";
     static final Message WELCOME_MSG = Message.info("Welcome to the world of online Checkers.");
     private static final Message GAME_FULL_ERROR_MSG = Message.info("Error: Selected Player is already in a game.");
 
@@ -108,11 +111,10 @@ public class GetHomeRoute implements Route {
         int numPlayers = LobbyModel.getNumberPlayers();
         // current player is logged in
         if (httpSession.attribute("user") != null) {
-            for (Player player : playerServices.currentLobby().getPlayerList()) {
-                Player thePlayer = httpSession.attribute("user");
-                if (0 == player.getName().compareTo(thePlayer.getName())) {
-                    vm.put("currentUser", player);
-                }
+            Player thePlayer = httpSession.attribute("user");
+            Player player = playerServices.currentLobby().getPlayer(thePlayer.getName());
+            if (player != null) {
+                vm.put("currentUser", player);
             }
             // This should use player services to get the number of players.
             if (numPlayers < 2) {
@@ -129,10 +131,16 @@ public class GetHomeRoute implements Route {
                 vm.put(NUMPLAYERS_ATTR, true);
 
 
-                String[] playerNamesInGame = LobbyModel.getAllUsers(httpSession.attribute("user"), "inGame");
-                String[] playerNamesNotInGame = LobbyModel.getAllUsers(httpSession.attribute("user"), "notInGame");
+                // only the first page of each list; the page's script gets the rest from the lobby route
+                List<String> games = LobbyModel.getGamesView();
+                List<String> playerNamesInGame = games.subList(0, Math.min(games.size(), GetLobbyRoute.DEFAULT_LIMIT));
+                List<String> playerNamesNotInGame = LobbyModel.getWaitingPage(httpSession.attribute("user"), GetLobbyRoute.DEFAULT_LIMIT + 1);
+                vm.put(MORE_PLAYERS_ATTR, games.size() > playerNamesInGame.size()
+                        || playerNamesNotInGame.size() > GetLobbyRoute.DEFAULT_LIMIT);
+                playerNamesNotInGame = playerNamesNotInGame.subList(0, Math.min(playerNamesNotInGame.size(), GetLobbyRoute.DEFAULT_LIMIT));
+                vm.put(LOBBY_URL_ATTR, WebServer.LOBBY_URL);
 
-                if(playerNamesInGame[0] == null){
+                if(playerNamesInGame.isEmpty()){
                     vm.put(ACTIVE_ATTR, null);
                     vm.put("inGamePlayerNames", "No players in game at the moment");
                 }
@@ -141,7 +149,7 @@ public class GetHomeRoute implements Route {
                     vm.put("inGamePlayerNames", playerNamesInGame);
                 }
 
-                if(playerNamesNotInGame[0] == null){
+                if(playerNamesNotInGame.isEmpty()){
                     vm.put(WAITING_ATTR, null);
                     vm.put("waitingPlayerNames", "No players are not in game at the moment");
                 }
@@ -177,7 +185,7 @@ public class GetHomeRoute implements Route {
             */
             vm.put(MSG_ATTR, WELCOME_MSG);
             //}
-            GameModel[] archiveList = gameCenter.getArchives();
+            GameModel[] archiveList = gameCenter.getRecentArchives(GetLobbyRoute.DEFAULT_LIMIT);
             vm.put("archiveGames", archiveList);
         }
         // there is not a current  player
@@ -194,19 +202,12 @@ public class GetHomeRoute implements Route {
                 vm.put(NUMPLAYERS_ATTR, null);
                 vm.put(ACTIVE_ATTR, null);
                 vm.put(WAITING_ATTR, null);
-                String[] inGamesList = playerServices.getLobby().getAllUsers(null, "inGame");
-                int inGamesNum = inGamesList.length;
-                if(inGamesList[0] == null){
-                    inGamesNum = 0;
-                }
+                // only the counts are shown, and the views already know them
+                int inGamesNum = LobbyModel.getGamesView().size();
                 String inGameNames = "There are " + inGamesNum + " games available at this time";
                 vm.put("inGamePlayerNames", inGameNames);
 
-                String[] waitingList = playerServices.getLobby().getAllUsers(null, "notInGame");
-                int waitingLen = waitingList.length;
-                if(waitingList[0] == null){
-                    waitingLen = 0;
-                }
+                int waitingLen = LobbyModel.getWaitingView().size();
                 String waitingNames = "There are " + waitingLen + " players available at this time";
                 vm.put("waitingPlayerNames", waitingNames);
             }
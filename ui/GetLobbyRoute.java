@@ -0,0 +1,87 @@
+/*
+Filename: GetLobbyRoute.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.ui;
+
+import com.google.gson.Gson;
+import com.webcheckers.Model.LobbyModel;
+import com.webcheckers.Model.LobbyPage;
+import com.webcheckers.Model.Player;
+import com.webcheckers.util.Message;
+import spark.*;
+
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This is the Route class that lists the players in the lobby a page at a time, in name
+ * order, as a JSON LobbyPage. The home page shows only the first few players; its
+ * script gets the rest from here. The q parameter keeps only the names starting
+ * with it, the after parameter is the cursor of the previous page, and the limit
+ * parameter is the most players on the page.
+ * It is used as a GET route in this program.
+ */
+public class GetLobbyRoute implements Route {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(GetLobbyRoute.class.getName());
+    /** This is the java to json string converter */
+    private final Gson gson;
+
+    static final String SEARCH_PARAM = "q";
+    static final String CURSOR_PARAM = "after";
+    static final String LIMIT_PARAM = "limit";
+    /** The number of players on a page when no limit is given */
+    static final int DEFAULT_LIMIT = 50;
+    /** The most players on a page */
+    static final int MAX_LIMIT = 200;
+
+    /**
+     * This is the Constructor for GetLobbyRoute.
+     * @param gson the java to json string converter.
+     */
+    public GetLobbyRoute(final Gson gson) {
+        this.gson = Objects.requireNonNull(gson, "gson is required");
+    }
+
+    /**
+     * This is the handle method for this route, that gets invoked when get() is called
+     * in WebServer with this object as a parameter.
+     * @param request  the HTTP request
+     * @param response the HTTP response
+     * @return a LobbyPage, or an ERROR Message if the user isn't signed in.
+     */
+    @Override
+    public Object handle(Request request, Response response){
+        final Session httpSession = request.session();
+        Player user = httpSession.attribute("user");
+        if(user == null){
+            return this.gson.toJson(Message.error("You have to sign in to see the lobby."));
+        }
+
+        String prefix = request.queryParams(SEARCH_PARAM);
+        String after = request.queryParams(CURSOR_PARAM);
+        int limit = DEFAULT_LIMIT;
+        try {
+            String limitParam = request.queryParams(LIMIT_PARAM);
+            if(limitParam != null){
+                limit = Math.max(1, Math.min(MAX_LIMIT, Integer.parseInt(limitParam)));
+            }
+        }
+        catch(NumberFormatException e){
+            return this.gson.toJson(Message.error("The limit has to be a number."));
+        }
+
+        LobbyPage page = LobbyModel.getPage(prefix == null ? "" : prefix, after, limit);
+        LOG.finer(page.getPlayers().size() + " players on the lobby page after " + after);
+        return this.gson.toJson(page);
+    }
+}
@@ -99,11 +99,7 @@ public class GetReplayGameRoute implements Route {
         vm.put(WHITE_PLAYER, controls.getGame().getWhitePlayer());
         vm.put(ACTIVE_COLOR, controls.getGame().getActiveColor());
         vm.put(CUR_USER, user);
-        if (controls.getGame().getActiveColor() == Player.Color.RED) {
-            vm.put(BOARD, controls.getGame().getRedBoard());
-        } else {
-            vm.put(BOARD, controls.getGame().getWhiteBoard());
-        }
+        vm.put(BOARD, controls.getGame().getBoardView(controls.getGame().getActiveColor()));
 
         final Map<String, Object> modeOptions = new HashMap<>(2);
         if(controls.getTurnCounter() > 0){
@@ -0,0 +1,396 @@
+/*
+Filename: GetSpectatorEventsRoute.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.ui;
+
+import com.webcheckers.Model.Bitboard;
+import com.webcheckers.Model.GameEvent;
+import com.webcheckers.Model.Move;
+import com.webcheckers.Model.Player;
+import com.webcheckers.appl.GameCenter;
+import spark.*;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This is the Route class that streams a game's moves to its spectators as Server-Sent
+ * Events, so the spectator page can move the pieces itself instead of polling and
+ * reloading. After every turn it sends a "move" event with the turn's moves, each one
+ * with its start, its end, the space of the piece it captured (null if none) and
+ * whether the piece was crowned, as [row, cell] on the red player's board:
+ *
+ *   {"color":"RED","activeColor":"WHITE","moves":[{"start":[5,2],"end":[3,4],"captured":[4,3],"promoted":false}]}
+ *
+ * When a player wins or resigns it sends an "end" event, {"event":"WON"} or
+ * {"event":"RESIGNED"}.
+ *
+ * The request is left open with the servlet's asynchronous support, so a spectator
+ * doesn't hold a thread while waiting. The events come from the GameCenter's event
+ * bus; each is made into bytes once and queued on every spectator stream of the game,
+ * so a game with many spectators costs one encoding and a cheap write each, and the
+ * game never waits for a spectator.
+ *
+ * The streams are written without blocking: a stream only writes while the servlet
+ * says it is ready, and picks up its queue again when the servlet calls it back. A
+ * spectator that stops reading only fills its own queue, and is dropped once the queue
+ * is too big or hasn't moved for a while, so it can't hold up anyone else.
+ * It is used as a GET route in this program.
+ */
+public class GetSpectatorEventsRoute implements Route {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(GetSpectatorEventsRoute.class.getName());
+    /** How often an idle stream is sent a comment, so it isn't closed as idle, in seconds */
+    static final long KEEP_ALIVE_SECONDS = 15;
+    /** What is sent to keep an idle stream open */
+    private static final byte[] KEEP_ALIVE = ": keep-alive\n\n".getBytes(StandardCharsets.UTF_8);
+    /** The most bytes a stream can have waiting before its spectator is dropped */
+    static final int MAX_QUEUED_BYTES = 64 * 1024;
+    /** How long a stream can have bytes waiting without writing any before its spectator is dropped, in milliseconds */
+    static final long STALL_MILLIS = 2 * KEEP_ALIVE_SECONDS * 1000;
+
+    /** These are the open streams of every game, by game identifier */
+    private final ConcurrentHashMap<Integer, Set<SpectatorStream>> streams = new ConcurrentHashMap<>();
+    /** This is the thread the events are queued on */
+    private final ScheduledExecutorService writer;
+
+    /**
+     * This is the Constructor for GetSpectatorEventsRoute. It subscribes to the events of every game in the GameCenter.
+     * @param gameCenter the GameCenter the games are in.
+     */
+    public GetSpectatorEventsRoute(final GameCenter gameCenter) {
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spectator-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer.scheduleWithFixedDelay(this::keepAlive, KEEP_ALIVE_SECONDS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        gameCenter.getEventBus().subscribe(GameEvent.TurnSubmitted.class,
+                event -> send(event.getGameID(), "move", encodeTurn(event)));
+        gameCenter.getEventBus().subscribe(GameEvent.GameWon.class,
+                event -> send(event.getGameID(), "end", "{\"event\":\"WON\"}"));
+        gameCenter.getEventBus().subscribe(GameEvent.PlayerResigned.class,
+                event -> send(event.getGameID(), "end", "{\"event\":\"RESIGNED\"}"));
+    }
+
+    /**
+     * This is the handle method for this route, that gets invoked when get() is called
+     * in WebServer with this object as a parameter.
+     * @param request  the HTTP request
+     * @param response the HTTP response
+     * @return an empty body; the events are written to the response later.
+     */
+    @Override
+    public Object handle(Request request, Response response) {
+        final Session httpSession = request.session();
+        final GameCenter gameCenter = httpSession.attribute(GetHomeRoute.GAMECENTER_KEY);
+        Player user = httpSession.attribute("user");
+        if(gameCenter == null || user == null || gameCenter.getGame(user.getGameID()) == null){
+            response.status(404);
+            return "";
+        }
+        int gameID = user.getGameID();
+
+        HttpServletResponse raw = response.raw();
+        raw.setContentType("text/event-stream");
+        raw.setCharacterEncoding("UTF-8");
+        raw.setHeader("Cache-Control", "no-cache");
+        AsyncContext context = request.raw().startAsync();
+        context.setTimeout(0);
+        ServletOutputStream out;
+        try {
+            // sending the headers now commits the response, so Spark doesn't write or close it
+            out = raw.getOutputStream();
+            out.write(KEEP_ALIVE);
+            raw.flushBuffer();
+        }
+        catch(IOException e){
+            context.complete();
+            return "";
+        }
+        SpectatorStream stream = new SpectatorStream(gameID, context, out);
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event){
+                close(gameID, stream);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event){
+                close(gameID, stream);
+            }
+
+            @Override
+            public void onError(AsyncEvent event){
+                close(gameID, stream);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event){
+            }
+        });
+        // from here on the stream is only written when it is ready
+        out.setWriteListener(stream);
+        streams.computeIfAbsent(gameID, id -> ConcurrentHashMap.newKeySet()).add(stream);
+        if(stream.isClosed()){
+            // it closed before it was added, so nothing else will forget it
+            close(gameID, stream);
+        }
+        LOG.fine(user.getName() + " is streaming game " + gameID);
+        return "";
+    }
+
+    /**
+     * sends an event to the spectators of a game
+     * @param gameID the identifier of the game
+     * @param name the name of the event
+     * @param data the JSON of the event
+     */
+    private void send(int gameID, String name, String data){
+        Set<SpectatorStream> spectators = streams.get(gameID);
+        if(spectators == null || spectators.isEmpty()){
+            return;
+        }
+        byte[] bytes = ("event: " + name + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+        writer.execute(() -> {
+            for(SpectatorStream stream : spectators){
+                stream.offer(bytes);
+            }
+        });
+    }
+
+    /**
+     * makes the JSON of a submitted turn
+     * @param turn the turn
+     * @return the JSON
+     */
+    private static String encodeTurn(GameEvent.TurnSubmitted turn){
+        Player.Color color = turn.getColor();
+        List<Move> moves = turn.getMoves();
+
+        StringBuilder json = new StringBuilder(64 + 64 * moves.size());
+        json.append("{\"color\":\"").append(color.name())
+                .append("\",\"activeColor\":\"").append(turn.getActiveColor().name())
+                .append("\",\"moves\":[");
+        for(int i = 0; i < moves.size(); i++){
+            Move move = moves.get(i);
+            int from = Bitboard.square(move.getStart(), color);
+            int to = Bitboard.square(move.getEnd(), color);
+            int captured = move.isCaptureMove() ? Bitboard.between(from, to) : -1;
+            if(i > 0){
+                json.append(',');
+            }
+            json.append("{\"start\":");
+            appendSpace(json, from);
+            json.append(",\"end\":");
+            appendSpace(json, to);
+            json.append(",\"captured\":");
+            appendSpace(json, captured);
+            json.append(",\"promoted\":").append(move.getSwitchedType()).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * adds a square as [row, cell] on the red player's board
+     * @param json the JSON being made
+     * @param square the square, -1 for null
+     */
+    private static void appendSpace(StringBuilder json, int square){
+        if(square < 0){
+            json.append("null");
+        }
+        else{
+            json.append('[').append(Bitboard.row(square)).append(',').append(Bitboard.cell(square)).append(']');
+        }
+    }
+
+    /**
+     * sends every open stream a comment, so idle connections aren't closed, and drops
+     * the streams that have stopped moving
+     */
+    private void keepAlive(){
+        long now = System.currentTimeMillis();
+        for(Set<SpectatorStream> spectators : streams.values()){
+            for(SpectatorStream stream : spectators){
+                if(stream.isStalled(now)){
+                    LOG.fine("a spectator of game " + stream.gameID + " stopped reading and was dropped");
+                    stream.shut();
+                }
+                else{
+                    stream.offer(KEEP_ALIVE);
+                }
+            }
+        }
+    }
+
+    /**
+     * forgets a stream that has closed
+     * @param gameID the identifier of the game it streamed
+     * @param stream the stream
+     */
+    private void close(int gameID, SpectatorStream stream){
+        streams.computeIfPresent(gameID, (id, spectators) -> {
+            spectators.remove(stream);
+            return spectators.isEmpty() ? null : spectators;
+        });
+    }
+
+    /**
+     * This class is one spectator's stream. What is sent to it waits in its queue, and is
+     * written whenever the servlet says the stream is ready, so writing never blocks.
+     */
+    private final class SpectatorStream implements WriteListener {
+        /** This is the identifier of the game it streams */
+        private final int gameID;
+        /** This is the asynchronous request it is written to */
+        private final AsyncContext context;
+        /** This is the output of the request */
+        private final ServletOutputStream out;
+        /** These are the events not written yet */
+        private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+        /** This is the number of bytes in the queue */
+        private int queued;
+        /** This condition tells whether something was written but not flushed */
+        private boolean unflushed;
+        /** This is when the queue last had to wait for the stream, 0 if it isn't waiting */
+        private long waitingSince;
+        /** This condition tells whether the stream is closed */
+        private boolean closed;
+
+        private SpectatorStream(int gameID, AsyncContext context, ServletOutputStream out){
+            this.gameID = gameID;
+            this.context = context;
+            this.out = out;
+        }
+
+        /**
+         * queues bytes to be written, and writes what it can now
+         * @param bytes what to write
+         */
+        private synchronized void offer(byte[] bytes){
+            if(closed){
+                return;
+            }
+            if(queued + bytes.length > MAX_QUEUED_BYTES){
+                LOG.fine("a spectator of game " + gameID + " fell too far behind and was dropped");
+                shut();
+                return;
+            }
+            queue.add(bytes);
+            queued += bytes.length;
+            drain();
+        }
+
+        /**
+         * writes what is queued, for as long as the stream is ready
+         */
+        @Override
+        public synchronized void onWritePossible(){
+            drain();
+        }
+
+        /**
+         * closes a stream that couldn't be written to
+         * @param error what went wrong
+         */
+        @Override
+        public void onError(Throwable error){
+            LOG.finer("a spectator's stream of game " + gameID + " closed: " + error.getMessage());
+            shut();
+        }
+
+        /**
+         * writes the queue until it is empty or the stream isn't ready; when it isn't, the
+         * servlet calls onWritePossible once it is
+         */
+        private void drain(){
+            if(closed){
+                return;
+            }
+            try {
+                boolean wrote = false;
+                while(!queue.isEmpty() && out.isReady()){
+                    byte[] bytes = queue.poll();
+                    queued -= bytes.length;
+                    out.write(bytes);
+                    unflushed = true;
+                    wrote = true;
+                }
+                if(queue.isEmpty() && unflushed && out.isReady()){
+                    unflushed = false;
+                    out.flush();
+                }
+                if(queue.isEmpty() && !unflushed){
+                    waitingSince = 0;
+                }
+                else if(wrote || waitingSince == 0){
+                    waitingSince = System.currentTimeMillis();
+                }
+            }
+            catch(IOException | IllegalStateException e){
+                LOG.finer("a spectator's stream of game " + gameID + " closed: " + e.getMessage());
+                shut();
+            }
+        }
+
+        /**
+         * checks if the stream has had bytes waiting too long
+         * @param now the time now, in milliseconds
+         * @return true if it should be dropped
+         */
+        private synchronized boolean isStalled(long now){
+            return waitingSince != 0 && now - waitingSince > STALL_MILLIS;
+        }
+
+        /**
+         * checks if the stream is closed
+         * @return true if it is
+         */
+        private synchronized boolean isClosed(){
+            return closed;
+        }
+
+        /**
+         * closes the stream and forgets it
+         */
+        private synchronized void shut(){
+            if(closed){
+                return;
+            }
+            closed = true;
+            queue.clear();
+            queued = 0;
+            close(gameID, this);
+            try {
+                context.complete();
+            }
+            catch(IllegalStateException ignored){
+                // it was already complete
+            }
+        }
+    }
+}
@@ -62,7 +62,7 @@ public class GetSpectatorGameRoute implements Route {
             vm.put(RED_PLAYER, gameCenter.getGame(user.getGameID()).getRedPlayer());
             vm.put(WHITE_PLAYER, gameCenter.getGame(user.getGameID()).getWhitePlayer());
             vm.put(ACTIVE_COLOR, gameCenter.getGame(user.getGameID()).getActiveColor());
-            vm.put(BOARD, gameCenter.getGame(user.getGameID()).getRedBoard());
+            vm.put(BOARD, gameCenter.getGame(user.getGameID()).getBoardViewFor(user));
 
             // end game if player won / lost / resigned
             if (gameCenter.getGame(user.getGameID()).playerWon() != null) {
@@ -0,0 +1,238 @@
+/*
+Filename: LongPoll.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.ui;
+
+import com.webcheckers.Model.GameEvent;
+import com.webcheckers.appl.GameCenter;
+import spark.Request;
+import spark.Response;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This class lets the check turn routes answer a long poll: when a request asks to wait,
+ * with the wait parameter in milliseconds, and there is nothing new yet, it is parked
+ * with the servlet's asynchronous support instead of being answered "false". It is
+ * answered when something happens in the game, or with the usual answer when the wait
+ * is over. A parked request doesn't hold a thread, so a browser that can't use the
+ * WebSocket makes about one request per wait rather than one per poll.
+ *
+ * The route's headers are sent when the request is parked, which also keeps Spark
+ * from writing the response itself; the answer is written later on one thread shared
+ * by all the parked requests.
+ */
+public class LongPoll {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(LongPoll.class.getName());
+
+    static final String WAIT_PARAM = "wait";
+    /** The longest a request may wait, in milliseconds */
+    static final long MAX_WAIT_MILLIS = 60000;
+
+    /**
+     * The answer of a route to a parked request.
+     */
+    interface Answer {
+        /**
+         * gets the answer, if there is one yet
+         * @param waited true once the request has waited as long as it may
+         * @return the JSON answer; null to keep waiting, which is only allowed until it has waited
+         */
+        String get(boolean waited);
+    }
+
+    /** These are the parked requests of every game, by game identifier */
+    private final ConcurrentHashMap<Integer, Set<Parked>> parked = new ConcurrentHashMap<>();
+    /** This is the thread the parked requests are answered on */
+    private final ExecutorService answerer;
+
+    /**
+     * This is the Constructor for LongPoll. It subscribes to the events of every game in the GameCenter.
+     * @param gameCenter the GameCenter the games are in.
+     */
+    public LongPoll(final GameCenter gameCenter) {
+        this.answerer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "long-poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+        gameCenter.getEventBus().subscribe(GameEvent.TurnSubmitted.class, this::gameChanged);
+        gameCenter.getEventBus().subscribe(GameEvent.GameWon.class, this::gameChanged);
+        gameCenter.getEventBus().subscribe(GameEvent.PlayerResigned.class, this::gameChanged);
+    }
+
+    /**
+     * gets how long a request asked to wait
+     * @param request the HTTP request
+     * @return the time, in milliseconds, at most MAX_WAIT_MILLIS; 0 if it didn't ask to wait
+     */
+    static long waitMillis(Request request){
+        String wait = request.queryParams(WAIT_PARAM);
+        if(wait == null){
+            return 0;
+        }
+        try {
+            return Math.max(0, Math.min(MAX_WAIT_MILLIS, Long.parseLong(wait)));
+        }
+        catch(NumberFormatException e){
+            return 0;
+        }
+    }
+
+    /**
+     * parks a request until the route has an answer for it or it has waited long enough
+     * @param request the HTTP request
+     * @param response the HTTP response
+     * @param gameID the identifier of the game the request waits on
+     * @param waitMillis how long it may wait, in milliseconds
+     * @param answer the route's answer
+     * @return what the route returns to Spark
+     */
+    Object park(Request request, Response response, int gameID, long waitMillis, Answer answer){
+        AsyncContext context = request.raw().startAsync();
+        context.setTimeout(waitMillis);
+        Parked waiting = new Parked(gameID, context, answer);
+        context.addListener(waiting);
+        parked.computeIfAbsent(gameID, id -> ConcurrentHashMap.newKeySet()).add(waiting);
+        try {
+            response.raw().flushBuffer();
+        }
+        catch(IOException e){
+            waiting.finish(null);
+            return "";
+        }
+        // the game may have changed before the request was parked
+        answerer.execute(() -> waiting.tryAnswer(false));
+        return "";
+    }
+
+    /**
+     * answers the requests parked on a game that now have an answer
+     * @param event what happened in the game
+     */
+    private void gameChanged(GameEvent event){
+        Set<Parked> waiting = parked.get(event.getGameID());
+        if(waiting != null && !waiting.isEmpty()){
+            answerer.execute(() -> {
+                for(Parked request : waiting){
+                    request.tryAnswer(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * forgets a parked request that has been answered
+     * @param request the request
+     */
+    private void forget(Parked request){
+        parked.computeIfPresent(request.gameID, (id, waiting) -> {
+            waiting.remove(request);
+            return waiting.isEmpty() ? null : waiting;
+        });
+    }
+
+    /**
+     * This class is a parked request.
+     */
+    private final class Parked implements AsyncListener {
+        /** This is the identifier of the game the request waits on */
+        private final int gameID;
+        /** This is the request, parked */
+        private final AsyncContext context;
+        /** This is the route's answer */
+        private final Answer answer;
+        /** This condition tells whether the request has been answered */
+        private final AtomicBoolean answered = new AtomicBoolean(false);
+
+        private Parked(int gameID, AsyncContext context, Answer answer){
+            this.gameID = gameID;
+            this.context = context;
+            this.answer = answer;
+        }
+
+        /**
+         * answers the request if the route has an answer
+         * @param waited true once the request has waited as long as it may
+         */
+        private synchronized void tryAnswer(boolean waited){
+            if(answered.get()){
+                return;
+            }
+            String json = answer.get(waited);
+            if(json != null){
+                finish(json);
+            }
+        }
+
+        /**
+         * writes the answer, once, and ends the request
+         * @param json the answer, null to end it without one
+         */
+        private void finish(String json){
+            if(!answered.compareAndSet(false, true)){
+                return;
+            }
+            forget(this);
+            try {
+                if(json != null){
+                    OutputStream out = context.getResponse().getOutputStream();
+                    out.write(json.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            catch(IOException | IllegalStateException e){
+                LOG.finer("a parked request of game " + gameID + " went away: " + e.getMessage());
+            }
+            finally {
+                try {
+                    context.complete();
+                }
+                catch(IllegalStateException e){
+                    LOG.finest("a parked request of game " + gameID + " was already complete");
+                }
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event){
+            // answered right here, since the container ends the request with an error otherwise
+            tryAnswer(true);
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event){
+            answered.set(true);
+            forget(this);
+        }
+
+        @Override
+        public void onError(AsyncEvent event){
+            finish(null);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event){
+        }
+    }
+}
@@ -23,18 +23,24 @@ import java.util.Objects;
  *
  * This is the Route class that checks if it is the users turn.
  * It is invoked when it is not the current user's turn and the game has not ended.
+ * With the wait parameter the request is a long poll: it isn't answered "false", but
+ * waits up to that many milliseconds for the turn to change; see LongPoll.
  * It is used as a POST route in this program.
  */
 public class PostCheckTurnRoute implements Route{
     /** The java to json string converter */
     private final Gson gson;
+    /** This is where the long polls wait */
+    private final LongPoll longPoll;
 
     /**
      * This is the Constructor for PostCheckTurnRoute.
      * @param gson the java to json string converter.
+     * @param longPoll where the long polls wait.
      */
-    public PostCheckTurnRoute(final Gson gson) {
+    public PostCheckTurnRoute(final Gson gson, final LongPoll longPoll) {
         this.gson = Objects.requireNonNull(gson, "gson is required");
+        this.longPoll = Objects.requireNonNull(longPoll, "longPoll is required");
     }
 
     /**
@@ -51,12 +57,29 @@ public class PostCheckTurnRoute implements Route{
         final GameCenter gameCenter = httpSession.attribute(GetHomeRoute.GAMECENTER_KEY);
         Player player = httpSession.attribute("user");
 
+        long wait = LongPoll.waitMillis(request);
+        String answer = answer(gameCenter, player, wait == 0);
+        if(answer != null){
+            return answer;
+        }
+        return longPoll.park(request, response, player.getGameID(), wait,
+                waited -> answer(gameCenter, player, waited));
+    }
+
+    /**
+     * gets the answer to the user
+     * @param gameCenter the GameCenter the game is in
+     * @param player the user
+     * @param now true to answer "false" rather than wait when the turn hasn't changed
+     * @return the JSON answer, null to wait
+     */
+    private String answer(GameCenter gameCenter, Player player, boolean now){
         if(gameCenter.getGame(player.getGameID()) != null &&
                 gameCenter.getGame(player.getGameID()).playerResigned() == null){
             if (gameCenter.getGame(player.getGameID()).getActiveColor() == player.getColor()) {
                 return this.gson.toJson(Message.info("true"));
             } else {
-                return this.gson.toJson(Message.info("false"));
+                return now ? this.gson.toJson(Message.info("false")) : null;
             }
         }
         else {
@@ -0,0 +1,77 @@
+/*
+Filename: PostLegalMovesRoute.java
+Java_Version: 8 - current
+Apache_Maven_Version: 3.6.2
+Spark_Version: 2.8.0
+ */
+
+package com.webcheckers.ui;
+
+import com.google.gson.Gson;
+import com.webcheckers.Model.GameModel;
+import com.webcheckers.Model.Player;
+import com.webcheckers.Model.Position;
+import com.webcheckers.Model.Turn;
+import com.webcheckers.appl.GameCenter;
+import spark.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * @author Ashwin Gowda
+ * @author Garrett Rudolfs
+ * @author Joseph Becker
+ * @author Julie Sojkowski
+ *
+ * This is the Route class that lists the complete turns the current user can make.
+ * Each turn is the list of positions the piece visits, on the user's side of the board.
+ * The list is empty when it isn't the user's turn.
+ * It is used as a POST route in this program.
+ */
+public class PostLegalMovesRoute implements Route {
+    /** This is the Logger object that is used to record server info in the terminal window */
+    private static final Logger LOG = Logger.getLogger(PostLegalMovesRoute.class.getName());
+    /** This is the java to json string converter */
+    private final Gson gson;
+
+    /**
+     * This is the Constructor for PostLegalMovesRoute.
+     * @param gson the java to json string converter.
+     */
+    public PostLegalMovesRoute(final Gson gson) {
+        this.gson = Objects.requireNonNull(gson, "gson is required");
+    }
+
+    /**
+     * This is the handle method for this route, that gets invoked when post() is called
+     * in WebServer with this object as a parameter.
+     * @param request  the HTTP request
+     * @param response the HTTP response
+     * @return a JSON array of turns, each one an array of positions.
+     */
+    @Override
+    public Object handle(Request request, Response response){
+        final Session httpSession = request.session();
+        final GameCenter gameCenter = httpSession.attribute(GetHomeRoute.GAMECENTER_KEY);
+        Player user = httpSession.attribute("user");
+        List<List<Position>> turns = new ArrayList<>();
+
+        if(gameCenter == null || user == null){
+            return gson.toJson(turns);
+        }
+        GameModel game = gameCenter.getGame(user.getGameID());
+        if(game != null && game.playerResigned() == null){
+            Player.Color color = user == game.getWhitePlayer() ? Player.Color.WHITE : Player.Color.RED;
+            if((user == game.getRedPlayer() || user == game.getWhitePlayer()) && color == game.getActiveColor()){
+                for(Turn turn : game.getLegalTurns()){
+                    turns.add(turn.getPositions(color));
+                }
+            }
+        }
+        LOG.fine(turns.size() + " legal turns for " + user.getName());
+        return gson.toJson(turns);
+    }
+}
@@ -18,6 +18,7 @@ import spark.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.List;
 import java.util.Objects;
 import java.util.logging.Logger;
 
@@ -69,6 +70,7 @@ public class PostSignInRoute implements Route {
     public Object handle(Request request, Response response) {
         final Session httpSession = request.session();
         final PlayerServices playerServices = httpSession.attribute(GetHomeRoute.PLAYERSERVICES_KEY);
+        final GameCenter gameCenter = httpSession.attribute(GetHomeRoute.GAMECENTER_KEY);
         Map<String, Object> vm = new HashMap<>();
         final String userName = request.queryParams("id");
 
@@ -78,6 +80,14 @@ public class PostSignInRoute implements Route {
         if (playerServices != null) {
             // bool to check if the player was added
             boolean playerAdded = LobbyModel.addPlayer(user);
+            if(!playerAdded && gameCenter != null){
+                // a player of a game rebuilt from the journal gets it back by signing in again
+                Player restored = gameCenter.claimRestoredPlayer(userName);
+                if(restored != null){
+                    user = restored;
+                    playerAdded = true;
+                }
+            }
             // make this new player the current player
             httpSession.attribute("user", user);
             // log that a user was added
@@ -112,10 +122,16 @@ public class PostSignInRoute implements Route {
         else { // display the players names in a list
             LOG.fine("I'm in here");
             vm.put(NUMPLAYERS_ATTR, true);
-            String[] playerNamesInGame = LobbyModel.getAllUsers(httpSession.attribute("user"), "inGame");
-            String[] playerNamesNotInGame = LobbyModel.getAllUsers(httpSession.attribute("user"), "notInGame");
-
-            if(playerNamesInGame[0] == null){
+            // only the first page of each list; the page's script gets the rest from the lobby route
+            List<String> games = LobbyModel.getGamesView();
+            List<String> playerNamesInGame = games.subList(0, Math.min(games.size(), GetLobbyRoute.DEFAULT_LIMIT));
+            List<String> playerNamesNotInGame = LobbyModel.getWaitingPage(httpSession.attribute("user"), GetLobbyRoute.DEFAULT_LIMIT + 1);
+            vm.put(GetHomeRoute.MORE_PLAYERS_ATTR, games.size() > playerNamesInGame.size()
+                    || playerNamesNotInGame.size() > GetLobbyRoute.DEFAULT_LIMIT);
+            playerNamesNotInGame = playerNamesNotInGame.subList(0, Math.min(playerNamesNotInGame.size(), GetLobbyRoute.DEFAULT_LIMIT));
+            vm.put(GetHomeRoute.LOBBY_URL_ATTR, WebServer.LOBBY_URL);
+
+            if(playerNamesInGame.isEmpty()){
                 vm.put(ACTIVE_ATTR, null);
                 vm.put("inGamePlayerNames", "No players in game at the moment");
             }
@@ -124,7 +140,7 @@ public class PostSignInRoute implements Route {
                 vm.put("inGamePlayerNames", playerNamesInGame);
             }
 
-            if(playerNamesNotInGame[0] == null){
+            if(playerNamesNotInGame.isEmpty()){
                 vm.put(WAITING_ATTR, null);
                 LOG.fine("huh");
                 vm.put("waitingPlayerNames", "No players are not in game at the moment");
@@ -137,8 +153,7 @@ public class PostSignInRoute implements Route {
         }
         vm.put(CUR_USER, user);
         try {
-            GameCenter gameCenter = httpSession.attribute(GetHomeRoute.GAMECENTER_KEY);
-            GameModel[] archiveList = gameCenter.getArchives();
+            GameModel[] archiveList = gameCenter.getRecentArchives(GetLobbyRoute.DEFAULT_LIMIT);
             vm.put("archiveGames", archiveList);
         }catch(NullPointerException e){
             LOG.fine("null pointer");
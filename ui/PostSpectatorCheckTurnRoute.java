@@ -23,13 +23,19 @@ public class PostSpectatorCheckTurnRoute implements Route {
     /** The java to json string converter */
     private final Gson gson;
     private static final Logger LOG = Logger.getLogger(PostSpectatorCheckTurnRoute.class.getName());
+    /** This is where the long polls wait */
+    private final LongPoll longPoll;
 
     /**
      * This is the Constructor for PostCheckTurnRoute.
      * @param gson the java to json string converter.
+     * @param longPoll where the long polls wait; a request with the wait parameter
+     * waits up to that many milliseconds for a new move instead of being told how
+     * long ago the last one was.
      */
-    public PostSpectatorCheckTurnRoute(final Gson gson) {
+    public PostSpectatorCheckTurnRoute(final Gson gson, final LongPoll longPoll) {
         this.gson = Objects.requireNonNull(gson, "gson is required");
+        this.longPoll = Objects.requireNonNull(longPoll, "longPoll is required");
     }
 
     /**
@@ -47,6 +53,27 @@ public class PostSpectatorCheckTurnRoute implements Route {
         Player user = httpSession.attribute("user");
 
         // if the game is null redirect
+        if(gameCenter.getGame(user.getGameID()) == null){
+            return this.gson.toJson(Message.info("false"));
+        }
+
+        long wait = LongPoll.waitMillis(request);
+        String answer = answer(gameCenter, user, wait == 0);
+        if(answer != null){
+            return answer;
+        }
+        return longPoll.park(request, response, user.getGameID(), wait,
+                waited -> answer(gameCenter, user, waited));
+    }
+
+    /**
+     * gets the answer to the spectator
+     * @param gameCenter the GameCenter the game is in
+     * @param user the spectator
+     * @param now true to say when the last move was rather than wait when there is no new one
+     * @return the JSON answer, null to wait
+     */
+    private String answer(GameCenter gameCenter, Player user, boolean now){
         if(gameCenter.getGame(user.getGameID()) == null){
             return this.gson.toJson(Message.info("false"));
         }
@@ -59,6 +86,8 @@ public class PostSpectatorCheckTurnRoute implements Route {
             if (user.getNewMove()) {
                 user.setNewMove(false);
                 return this.gson.toJson(Message.info("true"));
+            } else if (!now) {
+                return null;
             } else {
                 if(!gameCenter.getGame(user.getGameID()).getFirstTurnSubmitted()){
                     return this.gson.toJson(Message.info("Waiting for first move"));
@@ -76,6 +105,5 @@ public class PostSpectatorCheckTurnRoute implements Route {
              user.setNewMove(false);
             return this.gson.toJson(Message.info("true"));
         }
-
     }
 }
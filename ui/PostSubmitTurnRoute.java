@@ -9,12 +9,15 @@ package com.webcheckers.ui;
 
 import com.google.gson.Gson;
 import com.webcheckers.InvalidMoveException;
-import com.webcheckers.Model.Player;
 import com.webcheckers.Model.Move;
+import com.webcheckers.Model.Player;
+import com.webcheckers.appl.ComputerOpponent;
 import com.webcheckers.appl.GameCenter;
+import com.webcheckers.appl.GameMailbox;
 import com.webcheckers.util.Message;
 import spark.*;
 
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.logging.Logger;
 
@@ -25,6 +28,8 @@ import java.util.logging.Logger;
  * @author Julie Sojkowski
  *
  * This is the Route class that is used to submit a turn in the game.
+ * The moves of the turn are either validated one at a time first, or sent all at once
+ * as a JSON array of moves in the turnData parameter.
  * It is used as a POST route in this program.
  */
 public class PostSubmitTurnRoute implements Route {
@@ -32,8 +37,7 @@ public class PostSubmitTurnRoute implements Route {
     private static final Logger LOG = Logger.getLogger(PostSubmitTurnRoute.class.getName());
     /** This is the java to json string converter */
     private final Gson gson;
-    /** The color of the player who's turn it has become */
-    private String color;
+    static final String TURN_PARAM = "turnData";
 
     /**
      * This is the Constructor for PostSubmitTurnRoute.
@@ -57,43 +61,42 @@ public class PostSubmitTurnRoute implements Route {
         final GameCenter gameCenter = httpSession.attribute(GetHomeRoute.GAMECENTER_KEY);
         Player user = httpSession.attribute("user");
 
+        GameMailbox mailbox = gameCenter.getMailbox(user.getGameID());
+        if(mailbox == null){
+            return this.gson.toJson(Message.error("This game is NULL for some reason?"));
+        }
         try {
-            if(gameCenter.getGame(user.getGameID()).getdMove()){
-                throw new InvalidMoveException(" You are in the middle of a double move.");
-            }
-            if(user.getColor() == Player.Color.RED) {
-                for(Move move: gameCenter.getGame(user.getGameID()).getCurTurnMoves()){
-                    gameCenter.getGame(user.getGameID()).makeMove(move, gameCenter.getGame(user.getGameID()).getWhitePlayer());
+            String turnData = request.queryParams(TURN_PARAM);
+            // the color of the player who's turn it has become
+            String color = mailbox.send(game -> {
+                if(turnData != null){
+                    // the whole turn was sent at once
+                    Move[] moves = gson.fromJson(turnData, Move[].class);
+                    if(moves == null){
+                        throw new InvalidMoveException(" No moves were sent.");
+                    }
+                    game.playTurn(Arrays.asList(moves), user);
                 }
-                gameCenter.getGame(user.getGameID()).resetCurTurnMoves();
-                gameCenter.getGame(user.getGameID()).setdMove(false);
-                gameCenter.getGame(user.getGameID()).setIsFirstMove(true);
-
-                gameCenter.getGame(user.getGameID()).setActiveColor(Player.Color.WHITE);
-                color = "White";
-            }
-            else{
-                for(Move move: gameCenter.getGame(user.getGameID()).getCurTurnMoves()){
-                    gameCenter.getGame(user.getGameID()).makeMove(move, gameCenter.getGame(user.getGameID()).getRedPlayer());
+                else{
+                    if(game.getdMove()){
+                        throw new InvalidMoveException(" You are in the middle of a double move.");
+                    }
+                    game.submitTurn();
                 }
-                gameCenter.getGame(user.getGameID()).resetCurTurnMoves();
-                gameCenter.getGame(user.getGameID()).setdMove(false);
-                gameCenter.getGame(user.getGameID()).setIsFirstMove(true);
-
-                gameCenter.getGame(user.getGameID()).setActiveColor(Player.Color.RED);
-                color = "Red";
 
+                LOG.fine("num pieces red:" + game.getActiveBoardView().getRedPlayerPieces() + " white: " +
+                        game.getActiveBoardView().getWhitePlayerPieces());
+                return game.getActiveColor() == Player.Color.WHITE ? "White" : "Red";
+            });
 
-            }
-
-            LOG.fine("num pieces red:" + gameCenter.getGame(user.getGameID()).getActiveBoardView().getRedPlayerPieces() + " white: " +
-                    gameCenter.getGame(user.getGameID()).getActiveBoardView().getWhitePlayerPieces());
+            // the player is only answered once the turn is in the journal
+            gameCenter.syncJournal();
 
-            for(Player p : gameCenter.getGame(user.getGameID()).getSpectators()){
-                p.setNewMove(true);
+            // if the user is playing the computer, it takes its turn in the background
+            ComputerOpponent computer = gameCenter.getComputerOpponent(user.getGameID());
+            if(computer != null){
+                computer.takeTurn();
             }
-            gameCenter.getGame(user.getGameID()).setFirstTurnSubmitted(true);
-            gameCenter.getGame(user.getGameID()).setLastMoveTime(System.currentTimeMillis());
 
             // returns that it is a valid move
             return this.gson.toJson(Message.info("It is now the " + color + "Player's turn."));
@@ -12,6 +12,7 @@ import com.webcheckers.InvalidMoveException;
 import com.webcheckers.Model.Move;
 import com.webcheckers.Model.Player;
 import com.webcheckers.appl.GameCenter;
+import com.webcheckers.appl.GameMailbox;
 import com.webcheckers.util.Message;
 import spark.*;
 import java.util.Objects;
@@ -62,14 +63,21 @@ public class PostValidateMoveRoute implements Route{
         if(move == null){
             LOG.fine("The Move is null");
         }
+        GameMailbox mailbox = gameCenter.getMailbox(user.getGameID());
+        if(mailbox == null){
+            return this.gson.toJson(Message.error("This game is NULL for some reason?"));
+        }
         try {
-            for(Player p : gameCenter.getGame(user.getGameID()).getSpectators()){
-                p.setNewMove(false);
-            }
-            move.setCurState(gameCenter.getGame(user.getGameID()).getdMove(), gameCenter.getGame(user.getGameID()).getIsFirstMove());
-            if(move.isValid(gameCenter.getGame(user.getGameID()), gameCenter.getGame(user.getGameID()).getActiveBoardView())){
-                gameCenter.getGame(user.getGameID()).makeMove(move, httpSession.attribute("user"));
-                gameCenter.getGame(user.getGameID()).addMove(move, httpSession.attribute("user"));
+            boolean valid = mailbox.send(game -> {
+                move.setCurState(game.getdMove(), game.getIsFirstMove());
+                if(move.isValid(game, game.getActiveBoardView())){
+                    game.makeMove(move);
+                    game.addMove(move, user);
+                    return true;
+                }
+                return false;
+            });
+            if(valid){
                 return this.gson.toJson(Message.info("This is a valid move."));
             }
         }
@@ -8,8 +8,10 @@ Spark_Version: 2.8.0
 package com.webcheckers.ui;
 
 import com.google.gson.Gson;
+import com.webcheckers.InvalidMoveException;
 import com.webcheckers.Model.Player;
 import com.webcheckers.appl.GameCenter;
+import com.webcheckers.appl.GameMailbox;
 import com.webcheckers.appl.PlayerServices;
 import com.webcheckers.util.Message;
 import spark.Request;
@@ -54,11 +56,26 @@ public class ResignGameRoute implements Route{
         final GameCenter gameCenter = httpSession.attribute(GetHomeRoute.GAMECENTER_KEY);
         Player user = httpSession.attribute("user");
 
-        if(gameCenter.getGame(user.getGameID()).playerResigned() == null){
-            gameCenter.getGame(user.getGameID()).resign(user.getColor());
+        GameMailbox mailbox = gameCenter.getMailbox(user.getGameID());
+        if(mailbox == null){
+            return this.gson.toJson(Message.error("This game is NULL for some reason?"));
         }
-        else{
-            gameCenter.archiveGame(user.getGameID());
+        try {
+            // both players may resign at once; only the first one does
+            boolean resigned = mailbox.send(game -> {
+                if(game.playerResigned() == null){
+                    game.resign(user.getColor());
+                    return true;
+                }
+                return false;
+            });
+            if(!resigned){
+                gameCenter.archiveGame(user.getGameID());
+            }
+            gameCenter.syncJournal();
+        }
+        catch(InvalidMoveException e){
+            return this.gson.toJson(Message.error("You can't resign from the game." + e.getMessage()));
         }
 
         return this.gson.toJson(Message.info("You have resigned from the game."));
@@ -9,11 +9,15 @@ package com.webcheckers.ui;
 
 import static spark.Spark.*;
 
+import java.io.File;
 import java.util.Objects;
 import java.util.logging.Logger;
 
 import com.google.gson.Gson;
 
+import com.webcheckers.Model.LobbyModel;
+import com.webcheckers.Model.Player;
+import com.webcheckers.appl.ComputerOpponent;
 import com.webcheckers.appl.GameCenter;
 import com.webcheckers.appl.PlayerServices;
 import com.webcheckers.appl.ReplayModeController;
@@ -90,6 +94,8 @@ public class WebServer {
 
   public static final String BACKUPMOVE_URL = "/backupMove";
 
+  public static final String LEGAL_MOVES_URL = "/legalMoves";
+
   public static final String SPECTATEGAME_URL = "/spectator/game";
 
   public static final String STOPSPECTATEGAME_URL = "/spectator/stopWatching";
@@ -98,12 +104,37 @@ public class WebServer {
 
   public static final String SPECTATORCHECKTURN_URL = "/spectator/checkTurn";
 
+  /**
+   * The URL pattern of the stream of a game's moves, for its spectators.
+   */
+  public static final String SPECTATOR_EVENTS_URL = "/spectator/events";
+
   public static final String REPLAY_RESIGN_URL = "/replay/stopWatching";
 
   public static final String NEXT_TURN_URL = "/replay/nextTurn";
 
   public static final String PREVIOUS_TURN_URL = "/replay/previousTurn";
 
+  /**
+   * The URL pattern to request a page of the lobby's players, as JSON.
+   */
+  public static final String LOBBY_URL = "/lobby";
+
+  /**
+   * The URL pattern of the WebSocket that tells a game's pages when its turn changes.
+   */
+  public static final String GAME_EVENTS_URL = "/game/events";
+
+  /**
+   * The system property naming the directory the games are journaled in.
+   */
+  public static final String JOURNAL_DIR_PROPERTY = "journalDir";
+
+  /**
+   * The directory the games are journaled in when the property isn't set.
+   */
+  public static final String DEFAULT_JOURNAL_DIR = "journal";
+
   //
   // Attributes
   //
@@ -112,6 +143,7 @@ public class WebServer {
   private final Gson gson;
   private PlayerServices playerservice;
   private GameCenter gameCenter;
+  private LongPoll longPoll;
 
   //
   // Constructor
@@ -135,8 +167,12 @@ public class WebServer {
     //
     this.templateEngine = templateEngine;
     this.gson = gson;
-    this.gameCenter = new GameCenter();
+    // the games in progress when the server last stopped are rebuilt from the journal
+    this.gameCenter = new GameCenter(new File(System.getProperty(JOURNAL_DIR_PROPERTY, DEFAULT_JOURNAL_DIR)));
     this.playerservice = new PlayerServices();
+    this.longPoll = new LongPoll(gameCenter);
+    // the computer is always in the lobby, waiting to be challenged
+    LobbyModel.addPlayer(new Player(ComputerOpponent.NAME));
   }
 
   //
@@ -157,6 +193,9 @@ public class WebServer {
     // Configuration to serve static files
     staticFileLocation("/public");
 
+    // Tells the game pages when the turn changes; Spark needs it before any route.
+    webSocket(GAME_EVENTS_URL, new GameSocket(gameCenter, gson));
+
     //// Setting any route (or filter) in Spark triggers initialization of the
     //// embedded Jetty web server.
 
@@ -200,7 +239,7 @@ public class WebServer {
 
     get(GAME_URL, new GetGameRoute(templateEngine, gson));
 
-    post(CHECKTURN_URL, new PostCheckTurnRoute(gson));
+    post(CHECKTURN_URL, new PostCheckTurnRoute(gson, longPoll));
 
     post(SIGNOUT_URL, new PostSignOutRoute(templateEngine));
 
@@ -212,6 +251,9 @@ public class WebServer {
 
     post(BACKUPMOVE_URL, new BackupMoveRoute(gson));
 
+    // Lists the turns the current player can make.
+    post(LEGAL_MOVES_URL, new PostLegalMovesRoute(gson));
+
     get(REPLAY_URL, new GetReplayGameRoute(templateEngine, gson));
 
     get(REPLAY_RESIGN_URL, new ResignReplayRoute(templateEngine, gson));
@@ -224,7 +266,13 @@ public class WebServer {
 
     get(STOPSPECTATEGAME_URL, new GetSpectatorStopWatchingRoute(templateEngine, gson));
 
-    post(SPECTATORCHECKTURN_URL, new PostSpectatorCheckTurnRoute(gson));
+    post(SPECTATORCHECKTURN_URL, new PostSpectatorCheckTurnRoute(gson, longPoll));
+
+    // Streams the moves of the game being watched.
+    get(SPECTATOR_EVENTS_URL, new GetSpectatorEventsRoute(gameCenter));
+
+    // Lists the players in the lobby a page at a time.
+    get(LOBBY_URL, new GetLobbyRoute(gson));
 
     LOG.config("WebServer is initialized.");
   }